@@ -2,11 +2,13 @@ package com.conectabairro;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Aplicação principal do Conecta Bairro API
  */
 @SpringBootApplication
+@EnableScheduling
 public class ConectaBairroApplication {
 
     public static void main(String[] args) {
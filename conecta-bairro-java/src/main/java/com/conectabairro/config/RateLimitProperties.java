@@ -0,0 +1,50 @@
+package com.conectabairro.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Limites de requisições por rota, lidos de {@code app.rate-limit} no application.yml
+ */
+@Component
+@ConfigurationProperties(prefix = "app.rate-limit")
+@Data
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    /** Máximo de buckets em memória; buckets cheios expiram sozinhos e, acima disso, os menos usados são descartados */
+    private int maxBuckets = 100_000;
+
+    private List<Route> routes = new ArrayList<>();
+
+    public enum KeyType {
+        /** Endereço do cliente */
+        IP,
+        /** Campo {@code email} do corpo JSON, para limitar tentativas por conta */
+        EMAIL
+    }
+
+    @Data
+    public static class Route {
+
+        private String name;
+
+        /** Método HTTP; vazio vale para todos */
+        private String method;
+
+        /** Padrão Ant relativo ao context-path, ex.: {@code /services/search/**} */
+        private String path;
+
+        /** Rajada máxima */
+        private int capacity = 10;
+
+        private int refillPerMinute = 10;
+
+        private List<KeyType> keys = List.of(KeyType.IP);
+    }
+}
@@ -4,6 +4,7 @@ import com.conectabairro.dto.AuthResponse;
 import com.conectabairro.dto.LoginRequest;
 import com.conectabairro.dto.RegisterRequest;
 import com.conectabairro.dto.UserDto;
+import com.conectabairro.security.AuthenticatedUser;
 import com.conectabairro.service.AuthService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -14,8 +15,6 @@ import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 /**
@@ -57,9 +56,7 @@ public class AuthController {
             content = @Content(schema = @Schema(implementation = UserDto.class)))
     @ApiResponse(responseCode = "401", description = "Não autenticado")
     public ResponseEntity<UserDto> getCurrentUser() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
-        UserDto userDto = authService.getCurrentUser(email);
+        UserDto userDto = authService.getCurrentUser(AuthenticatedUser.current().id());
         return ResponseEntity.ok(userDto);
     }
 }
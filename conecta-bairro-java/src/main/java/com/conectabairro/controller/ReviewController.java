@@ -1,5 +1,6 @@
 package com.conectabairro.controller;
 
+import com.conectabairro.dto.CursorPage;
 import com.conectabairro.dto.ReviewDto;
 import com.conectabairro.service.ReviewService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -14,11 +15,8 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
-import com.conectabairro.model.User;
-import com.conectabairro.repository.UserRepository;
+import com.conectabairro.security.AuthenticatedUser;
 
 /**
  * Controller para operações com avaliações
@@ -31,21 +29,18 @@ public class ReviewController {
     @Autowired
     private ReviewService reviewService;
 
-    @Autowired
-    private UserRepository userRepository;
-
     @PostMapping
-    @Operation(summary = "Criar avaliação", description = "Cria uma nova avaliação para um serviço")
+    @Operation(summary = "Criar avaliação", description = "Cria uma nova avaliação para um serviço. Nota, total e " +
+            "histograma do serviço e do provedor refletem a avaliação após a próxima janela de agregação (~2 s)")
     @ApiResponse(responseCode = "201", description = "Avaliação criada com sucesso",
             content = @Content(schema = @Schema(implementation = ReviewDto.class)))
     @ApiResponse(responseCode = "400", description = "Dados inválidos")
     @ApiResponse(responseCode = "401", description = "Não autenticado")
     @ApiResponse(responseCode = "409", description = "Conflito - serviço já foi avaliado")
     public ResponseEntity<ReviewDto> createReview(@Valid @RequestBody ReviewDto reviewDto) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        User user = userRepository.findByEmail(authentication.getName()).orElseThrow();
+        AuthenticatedUser user = AuthenticatedUser.current();
         
-        ReviewDto createdReview = reviewService.createReview(reviewDto, user.getId());
+        ReviewDto createdReview = reviewService.createReview(reviewDto, user.id());
         return new ResponseEntity<>(createdReview, HttpStatus.CREATED);
     }
 
@@ -72,6 +67,19 @@ public class ReviewController {
         return ResponseEntity.ok(reviews);
     }
 
+    @GetMapping(value = "/service/{serviceId}", params = "after")
+    @Operation(summary = "Listar avaliações de um serviço (cursor)",
+            description = "Paginação por chave: envie after vazio na primeira página e depois o nextCursor recebido")
+    @ApiResponse(responseCode = "200", description = "Avaliações encontradas")
+    @ApiResponse(responseCode = "400", description = "Cursor inválido ou size fora de 1 a 100")
+    @ApiResponse(responseCode = "404", description = "Serviço não encontrado")
+    public ResponseEntity<CursorPage<ReviewDto>> getServiceReviewsByCursor(
+            @PathVariable Long serviceId,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(reviewService.getServiceReviews(serviceId, after, size));
+    }
+
     @GetMapping("/my-reviews")
     @Operation(summary = "Listar minhas avaliações", description = "Retorna as avaliações do usuário logado")
     @ApiResponse(responseCode = "200", description = "Avaliações encontradas")
@@ -79,11 +87,10 @@ public class ReviewController {
     public ResponseEntity<Page<ReviewDto>> getMyReviews(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        User user = userRepository.findByEmail(authentication.getName()).orElseThrow();
+        AuthenticatedUser user = AuthenticatedUser.current();
         
         Pageable pageable = PageRequest.of(page, size);
-        Page<ReviewDto> reviews = reviewService.getMyReviews(user.getId(), pageable);
+        Page<ReviewDto> reviews = reviewService.getMyReviews(user.id(), pageable);
         return ResponseEntity.ok(reviews);
     }
 
@@ -98,10 +105,9 @@ public class ReviewController {
     public ResponseEntity<ReviewDto> updateReview(
             @PathVariable Long id,
             @Valid @RequestBody ReviewDto reviewDto) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        User user = userRepository.findByEmail(authentication.getName()).orElseThrow();
+        AuthenticatedUser user = AuthenticatedUser.current();
         
-        ReviewDto updatedReview = reviewService.updateReview(id, reviewDto, user.getId());
+        ReviewDto updatedReview = reviewService.updateReview(id, reviewDto, user.id());
         return ResponseEntity.ok(updatedReview);
     }
 
@@ -112,10 +118,9 @@ public class ReviewController {
     @ApiResponse(responseCode = "403", description = "Acesso proibido")
     @ApiResponse(responseCode = "404", description = "Avaliação não encontrada")
     public ResponseEntity<Void> deleteReview(@PathVariable Long id) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        User user = userRepository.findByEmail(authentication.getName()).orElseThrow();
+        AuthenticatedUser user = AuthenticatedUser.current();
         
-        reviewService.deleteReview(id, user.getId());
+        reviewService.deleteReview(id, user.id());
         return ResponseEntity.noContent().build();
     }
 }
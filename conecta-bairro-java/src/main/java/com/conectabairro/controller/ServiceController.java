@@ -1,6 +1,11 @@
 package com.conectabairro.controller;
 
+import com.conectabairro.dto.CursorPage;
+import com.conectabairro.dto.FacetedSearchDto;
+import com.conectabairro.dto.FuzzySearchDto;
 import com.conectabairro.dto.ServiceDto;
+import com.conectabairro.dto.ServiceFilter;
+import com.conectabairro.dto.SuggestionDto;
 import com.conectabairro.service.ServiceService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -14,11 +19,10 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
-import com.conectabairro.model.User;
-import com.conectabairro.repository.UserRepository;
+import com.conectabairro.security.AuthenticatedUser;
+
+import java.util.List;
 
 /**
  * Controller para operações com serviços
@@ -31,9 +35,6 @@ public class ServiceController {
     @Autowired
     private ServiceService serviceService;
 
-    @Autowired
-    private UserRepository userRepository;
-
     @PostMapping
     @Operation(summary = "Criar novo serviço", description = "Cria um novo serviço (apenas para provedores)")
     @ApiResponse(responseCode = "201", description = "Serviço criado com sucesso",
@@ -42,10 +43,9 @@ public class ServiceController {
     @ApiResponse(responseCode = "401", description = "Não autenticado")
     @ApiResponse(responseCode = "403", description = "Acesso proibido - não é um provedor")
     public ResponseEntity<ServiceDto> createService(@Valid @RequestBody ServiceDto serviceDto) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        User user = userRepository.findByEmail(authentication.getName()).orElseThrow();
+        AuthenticatedUser user = AuthenticatedUser.current();
         
-        ServiceDto createdService = serviceService.createService(serviceDto, user.getId());
+        ServiceDto createdService = serviceService.createService(serviceDto, user.id());
         return new ResponseEntity<>(createdService, HttpStatus.CREATED);
     }
 
@@ -60,7 +60,8 @@ public class ServiceController {
     }
 
     @GetMapping
-    @Operation(summary = "Listar todos os serviços", description = "Retorna uma página de serviços")
+    @Operation(summary = "Listar todos os serviços",
+            description = "Retorna uma página de serviços, dos mais bem ranqueados para os menos")
     @ApiResponse(responseCode = "200", description = "Serviços encontrados")
     public ResponseEntity<Page<ServiceDto>> getAllServices(
             @RequestParam(defaultValue = "0") int page,
@@ -70,18 +71,125 @@ public class ServiceController {
         return ResponseEntity.ok(services);
     }
 
+    @GetMapping(params = "after")
+    @Operation(summary = "Listar serviços por cursor",
+            description = "Mesma ordem da listagem padrão (melhores primeiro), por chave: " +
+                    "envie after vazio na primeira página e depois o nextCursor recebido")
+    @ApiResponse(responseCode = "200", description = "Serviços encontrados")
+    @ApiResponse(responseCode = "400", description = "Cursor inválido ou size fora de 1 a 100")
+    public ResponseEntity<CursorPage<ServiceDto>> getAllServicesByCursor(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(serviceService.getAllServices(after, size));
+    }
+
+    @GetMapping("/filter")
+    @Operation(summary = "Listar serviços com filtros combinados",
+            description = "Filtra por categoria, localização, faixa de preço, nota mínima e situação, " +
+                    "ordenando por price, rating ou newest")
+    @ApiResponse(responseCode = "200", description = "Serviços encontrados")
+    @ApiResponse(responseCode = "400", description = "Filtros ou ordenação inválidos")
+    public ResponseEntity<Page<ServiceDto>> filterServices(
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String location,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) Double minRating,
+            @RequestParam(defaultValue = "true") Boolean isActive,
+            @RequestParam(defaultValue = "newest") String sort,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        ServiceFilter filter = ServiceFilter.builder()
+                .category(category)
+                .location(location)
+                .minPrice(minPrice)
+                .maxPrice(maxPrice)
+                .minRating(minRating)
+                .isActive(isActive)
+                .sort(ServiceFilter.SortKey.valueOf(sort.toUpperCase()))
+                .build();
+
+        Page<ServiceDto> services = serviceService.filterServices(filter, page, size);
+        return ResponseEntity.ok(services);
+    }
+
     @GetMapping("/search")
-    @Operation(summary = "Buscar serviços", description = "Busca serviços por palavra-chave")
+    @Operation(summary = "Buscar serviços",
+            description = "Busca serviços por palavra-chave. Modos: index (padrão, índice em memória), " +
+                    "natural e boolean (FULLTEXT do MySQL, com relevância no resultado)")
     @ApiResponse(responseCode = "200", description = "Serviços encontrados")
+    @ApiResponse(responseCode = "400", description = "Modo de busca inválido")
     public ResponseEntity<Page<ServiceDto>> searchServices(
             @RequestParam String keyword,
+            @RequestParam(defaultValue = "index") String mode,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String location,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
         Pageable pageable = PageRequest.of(page, size);
-        Page<ServiceDto> services = serviceService.searchServices(keyword, pageable);
+        Page<ServiceDto> services = serviceService.searchServices(keyword, mode, category, location, pageable);
         return ResponseEntity.ok(services);
     }
 
+    @GetMapping("/search/fuzzy")
+    @Operation(summary = "Buscar serviços tolerando erros de digitação",
+            description = "Corrige palavras desconhecidas (ex.: \"encanadro\" → \"encanador\") e retorna " +
+                    "os resultados da consulta corrigida junto com a sugestão didYouMean")
+    @ApiResponse(responseCode = "200", description = "Serviços encontrados",
+            content = @Content(schema = @Schema(implementation = FuzzySearchDto.class)))
+    @ApiResponse(responseCode = "503", description = "Índice de busca ainda em construção; tente após Retry-After")
+    public ResponseEntity<FuzzySearchDto> fuzzySearch(
+            @RequestParam String keyword,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        Pageable pageable = PageRequest.of(page, size);
+        return ResponseEntity.ok(serviceService.fuzzySearch(keyword, pageable));
+    }
+
+    @GetMapping("/facets")
+    @Operation(summary = "Buscar serviços com facetas",
+            description = "Retorna uma página de serviços e as contagens por categoria, bairro e faixa de preço " +
+                    "(0-50, 50-100, 100-200, 200+)")
+    @ApiResponse(responseCode = "200", description = "Serviços e facetas encontrados",
+            content = @Content(schema = @Schema(implementation = FacetedSearchDto.class)))
+    @ApiResponse(responseCode = "400", description = "Faixa de preço inválida")
+    @ApiResponse(responseCode = "503", description = "Índice de busca ainda em construção; tente após Retry-After")
+    public ResponseEntity<FacetedSearchDto> facetedSearch(
+            @RequestParam(required = false) String keyword,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String location,
+            @RequestParam(required = false) String priceBand,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        Pageable pageable = PageRequest.of(page, size);
+        FacetedSearchDto result = serviceService.facetedSearch(keyword, category, location, priceBand, pageable);
+        return ResponseEntity.ok(result);
+    }
+
+    @GetMapping("/nearby")
+    @Operation(summary = "Buscar serviços próximos",
+            description = "Retorna serviços dentro do raio (em km, até 50) ordenados pela distância")
+    @ApiResponse(responseCode = "200", description = "Serviços encontrados")
+    @ApiResponse(responseCode = "400", description = "Coordenadas ou raio inválidos")
+    public ResponseEntity<List<ServiceDto>> getNearbyServices(
+            @RequestParam double lat,
+            @RequestParam double lon,
+            @RequestParam(defaultValue = "3") double radiusKm,
+            @RequestParam(required = false) String category,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(serviceService.getNearbyServices(lat, lon, radiusKm, category, limit));
+    }
+
+    @GetMapping("/suggest")
+    @Operation(summary = "Autocompletar busca",
+            description = "Sugere títulos, categorias e bairros que começam com o prefixo informado")
+    @ApiResponse(responseCode = "200", description = "Sugestões encontradas")
+    public ResponseEntity<List<SuggestionDto>> suggest(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "5") int limit) {
+        return ResponseEntity.ok(serviceService.suggest(prefix, limit));
+    }
+
     @GetMapping("/category/{category}")
     @Operation(summary = "Listar serviços por categoria", description = "Retorna serviços de uma categoria específica")
     @ApiResponse(responseCode = "200", description = "Serviços encontrados")
@@ -94,6 +202,19 @@ public class ServiceController {
         return ResponseEntity.ok(services);
     }
 
+    @GetMapping(value = "/category/{category}", params = "after")
+    @Operation(summary = "Listar serviços por categoria (cursor)",
+            description = "Mesma ordem da listagem padrão (melhores primeiro), por chave: " +
+                    "envie after vazio na primeira página e depois o nextCursor recebido")
+    @ApiResponse(responseCode = "200", description = "Serviços encontrados")
+    @ApiResponse(responseCode = "400", description = "Cursor inválido ou size fora de 1 a 100")
+    public ResponseEntity<CursorPage<ServiceDto>> getServicesByCategoryByCursor(
+            @PathVariable String category,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(serviceService.getServicesByCategory(category, after, size));
+    }
+
     @GetMapping("/location/{location}")
     @Operation(summary = "Listar serviços por localização", description = "Retorna serviços de uma localização específica")
     @ApiResponse(responseCode = "200", description = "Serviços encontrados")
@@ -106,6 +227,19 @@ public class ServiceController {
         return ResponseEntity.ok(services);
     }
 
+    @GetMapping(value = "/location/{location}", params = "after")
+    @Operation(summary = "Listar serviços por localização (cursor)",
+            description = "Mesma ordem da listagem padrão (melhores primeiro), por chave: " +
+                    "envie after vazio na primeira página e depois o nextCursor recebido")
+    @ApiResponse(responseCode = "200", description = "Serviços encontrados")
+    @ApiResponse(responseCode = "400", description = "Cursor inválido ou size fora de 1 a 100")
+    public ResponseEntity<CursorPage<ServiceDto>> getServicesByLocationByCursor(
+            @PathVariable String location,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(serviceService.getServicesByLocation(location, after, size));
+    }
+
     @GetMapping("/provider/{providerId}")
     @Operation(summary = "Listar serviços de um provedor", description = "Retorna todos os serviços de um provedor específico")
     @ApiResponse(responseCode = "200", description = "Serviços encontrados")
@@ -125,10 +259,9 @@ public class ServiceController {
     public ResponseEntity<ServiceDto> updateService(
             @PathVariable Long id,
             @Valid @RequestBody ServiceDto serviceDto) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        User user = userRepository.findByEmail(authentication.getName()).orElseThrow();
+        AuthenticatedUser user = AuthenticatedUser.current();
         
-        ServiceDto updatedService = serviceService.updateService(id, serviceDto, user.getId());
+        ServiceDto updatedService = serviceService.updateService(id, serviceDto, user.id());
         return ResponseEntity.ok(updatedService);
     }
 
@@ -139,10 +272,9 @@ public class ServiceController {
     @ApiResponse(responseCode = "403", description = "Acesso proibido")
     @ApiResponse(responseCode = "404", description = "Serviço não encontrado")
     public ResponseEntity<Void> deleteService(@PathVariable Long id) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        User user = userRepository.findByEmail(authentication.getName()).orElseThrow();
+        AuthenticatedUser user = AuthenticatedUser.current();
         
-        serviceService.deleteService(id, user.getId());
+        serviceService.deleteService(id, user.id());
         return ResponseEntity.noContent().build();
     }
 }
@@ -1,6 +1,12 @@
 package com.conectabairro.controller;
 
+import com.conectabairro.dto.BulkTransitionRequest;
+import com.conectabairro.dto.BulkTransitionResult;
+import com.conectabairro.dto.CursorPage;
+import com.conectabairro.dto.ProviderRequestStatsDto;
 import com.conectabairro.dto.ServiceRequestDto;
+import com.conectabairro.dto.StreamTicketDto;
+import com.conectabairro.service.RequestEventStream;
 import com.conectabairro.service.ServiceRequestService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -13,12 +19,13 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
-import com.conectabairro.model.User;
-import com.conectabairro.repository.UserRepository;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import com.conectabairro.security.AuthenticatedUser;
+import com.conectabairro.security.JwtAuthenticationFilter;
+import com.conectabairro.security.StreamTickets;
 
 /**
  * Controller para operações com requisições de serviço
@@ -32,7 +39,10 @@ public class ServiceRequestController {
     private ServiceRequestService serviceRequestService;
 
     @Autowired
-    private UserRepository userRepository;
+    private RequestEventStream requestEventStream;
+
+    @Autowired
+    private StreamTickets streamTickets;
 
     @PostMapping
     @Operation(summary = "Criar requisição de serviço", description = "Cria uma nova requisição de serviço")
@@ -42,11 +52,10 @@ public class ServiceRequestController {
     @ApiResponse(responseCode = "401", description = "Não autenticado")
     @ApiResponse(responseCode = "404", description = "Serviço não encontrado")
     public ResponseEntity<ServiceRequestDto> createRequest(@Valid @RequestBody ServiceRequestDto requestDto) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        User user = userRepository.findByEmail(authentication.getName()).orElseThrow();
+        AuthenticatedUser user = AuthenticatedUser.current();
         
         ServiceRequestDto createdRequest = serviceRequestService.createRequest(
-                requestDto.getServiceId(), user.getId(), requestDto);
+                requestDto.getServiceId(), user.id(), requestDto);
         return new ResponseEntity<>(createdRequest, HttpStatus.CREATED);
     }
 
@@ -67,14 +76,27 @@ public class ServiceRequestController {
     public ResponseEntity<Page<ServiceRequestDto>> getMyRequests(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        User user = userRepository.findByEmail(authentication.getName()).orElseThrow();
+        AuthenticatedUser user = AuthenticatedUser.current();
         
         Pageable pageable = PageRequest.of(page, size);
-        Page<ServiceRequestDto> requests = serviceRequestService.getMyRequests(user.getId(), pageable);
+        Page<ServiceRequestDto> requests = serviceRequestService.getMyRequests(user.id(), pageable);
         return ResponseEntity.ok(requests);
     }
 
+    @GetMapping(value = "/my-requests", params = "after")
+    @Operation(summary = "Listar minhas requisições (cursor)",
+            description = "Paginação por chave: envie after vazio na primeira página e depois o nextCursor recebido")
+    @ApiResponse(responseCode = "200", description = "Requisições encontradas")
+    @ApiResponse(responseCode = "400", description = "Cursor inválido ou size fora de 1 a 100")
+    @ApiResponse(responseCode = "401", description = "Não autenticado")
+    public ResponseEntity<CursorPage<ServiceRequestDto>> getMyRequestsByCursor(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "10") int size) {
+        AuthenticatedUser user = AuthenticatedUser.current();
+
+        return ResponseEntity.ok(serviceRequestService.getMyRequests(user.id(), after, size));
+    }
+
     @GetMapping("/received")
     @Operation(summary = "Listar requisições recebidas", description = "Retorna as requisições recebidas pelo provedor logado")
     @ApiResponse(responseCode = "200", description = "Requisições encontradas")
@@ -82,14 +104,93 @@ public class ServiceRequestController {
     public ResponseEntity<Page<ServiceRequestDto>> getReceivedRequests(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        User user = userRepository.findByEmail(authentication.getName()).orElseThrow();
+        AuthenticatedUser user = AuthenticatedUser.current();
         
         Pageable pageable = PageRequest.of(page, size);
-        Page<ServiceRequestDto> requests = serviceRequestService.getReceivedRequests(user.getId(), pageable);
+        Page<ServiceRequestDto> requests = serviceRequestService.getReceivedRequests(user.id(), pageable);
         return ResponseEntity.ok(requests);
     }
 
+    @GetMapping(value = "/received", params = "after")
+    @Operation(summary = "Listar requisições recebidas (cursor)",
+            description = "Paginação por chave: envie after vazio na primeira página e depois o nextCursor recebido")
+    @ApiResponse(responseCode = "200", description = "Requisições encontradas")
+    @ApiResponse(responseCode = "400", description = "Cursor inválido ou size fora de 1 a 100")
+    @ApiResponse(responseCode = "401", description = "Não autenticado")
+    public ResponseEntity<CursorPage<ServiceRequestDto>> getReceivedRequestsByCursor(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "10") int size) {
+        AuthenticatedUser user = AuthenticatedUser.current();
+
+        return ResponseEntity.ok(serviceRequestService.getReceivedRequests(user.id(), after, size));
+    }
+
+    @PostMapping("/events/ticket")
+    @Operation(summary = "Emitir ticket do fluxo de eventos",
+            description = "Ticket de uso único, válido por poucos segundos, para abrir GET /requests/events?ticket=... "
+                    + "pelo EventSource do navegador, que não envia o cabeçalho Authorization. Peça um ticket novo "
+                    + "a cada conexão, inclusive nas reconexões.")
+    @ApiResponse(responseCode = "200", description = "Ticket emitido",
+            content = @Content(schema = @Schema(implementation = StreamTicketDto.class)))
+    @ApiResponse(responseCode = "401", description = "Não autenticado")
+    public ResponseEntity<StreamTicketDto> issueEventsTicket(
+            @RequestAttribute(JwtAuthenticationFilter.SESSION_EXPIRES_AT) long sessionExpiresAt) {
+        AuthenticatedUser user = AuthenticatedUser.current();
+
+        return ResponseEntity.ok(StreamTicketDto.builder()
+                .ticket(streamTickets.issue(user, sessionExpiresAt))
+                .expiresInSeconds(streamTickets.ttlSeconds())
+                .build());
+    }
+
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Assinar mudanças de requisições",
+            description = "Server-Sent Events com a requisição atualizada (evento request) sempre que uma requisição "
+                    + "do usuário é criada ou muda de status. Na reconexão, envie Last-Event-ID (cabeçalho ou parâmetro "
+                    + "lastEventId) para receber o que foi perdido; o evento resync indica que a listagem deve ser "
+                    + "recarregada. Autentique com o cabeçalho Authorization ou, no EventSource do navegador, com um "
+                    + "ticket de POST /requests/events/ticket. O fluxo termina com o evento expired quando o token de "
+                    + "sessão vence.")
+    @ApiResponse(responseCode = "200", description = "Fluxo de eventos aberto")
+    @ApiResponse(responseCode = "401", description = "Não autenticado ou ticket inválido, já usado ou vencido")
+    public SseEmitter subscribeToRequestEvents(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader,
+            @RequestParam(value = "lastEventId", required = false) String lastEventIdParam,
+            @RequestAttribute(JwtAuthenticationFilter.SESSION_EXPIRES_AT) long sessionExpiresAt) {
+        AuthenticatedUser user = AuthenticatedUser.current();
+
+        // Um EventSource novo (ticket novo) não envia o cabeçalho: o cliente repassa o último ID na URL
+        String lastEventId = lastEventIdHeader != null ? lastEventIdHeader : lastEventIdParam;
+        return requestEventStream.subscribe(user.id(), lastEventId, sessionExpiresAt);
+    }
+
+    @GetMapping("/stats")
+    @Operation(summary = "Contadores do provedor",
+            description = "Quantidade de requisições recebidas por status, concluídas e faturamento das concluídas")
+    @ApiResponse(responseCode = "200", description = "Contadores do provedor",
+            content = @Content(schema = @Schema(implementation = ProviderRequestStatsDto.class)))
+    @ApiResponse(responseCode = "401", description = "Não autenticado")
+    public ResponseEntity<ProviderRequestStatsDto> getProviderStats() {
+        AuthenticatedUser user = AuthenticatedUser.current();
+
+        return ResponseEntity.ok(serviceRequestService.getProviderStats(user.id()));
+    }
+
+    @PostMapping("/received/transition")
+    @Operation(summary = "Transição em lote",
+            description = "Aceita, rejeita ou completa várias requisições recebidas de uma vez, com o resultado de cada ID")
+    @ApiResponse(responseCode = "200", description = "Lote processado",
+            content = @Content(schema = @Schema(implementation = BulkTransitionResult.class)))
+    @ApiResponse(responseCode = "400", description = "Dados inválidos ou status de destino não permitido")
+    @ApiResponse(responseCode = "401", description = "Não autenticado")
+    public ResponseEntity<BulkTransitionResult> transitionReceivedRequests(
+            @Valid @RequestBody BulkTransitionRequest transition) {
+        AuthenticatedUser user = AuthenticatedUser.current();
+
+        return ResponseEntity.ok(serviceRequestService.transitionReceivedRequests(
+                transition.getRequestIds(), transition.getStatus(), user.id()));
+    }
+
     @PutMapping("/{id}/accept")
     @Operation(summary = "Aceitar requisição", description = "Aceita uma requisição de serviço")
     @ApiResponse(responseCode = "200", description = "Requisição aceita com sucesso",
@@ -97,11 +198,11 @@ public class ServiceRequestController {
     @ApiResponse(responseCode = "401", description = "Não autenticado")
     @ApiResponse(responseCode = "403", description = "Acesso proibido")
     @ApiResponse(responseCode = "404", description = "Requisição não encontrada")
+    @ApiResponse(responseCode = "409", description = "Status atual não permite esta transição")
     public ResponseEntity<ServiceRequestDto> acceptRequest(@PathVariable Long id) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        User user = userRepository.findByEmail(authentication.getName()).orElseThrow();
+        AuthenticatedUser user = AuthenticatedUser.current();
         
-        ServiceRequestDto request = serviceRequestService.acceptRequest(id, user.getId());
+        ServiceRequestDto request = serviceRequestService.acceptRequest(id, user.id());
         return ResponseEntity.ok(request);
     }
 
@@ -112,11 +213,11 @@ public class ServiceRequestController {
     @ApiResponse(responseCode = "401", description = "Não autenticado")
     @ApiResponse(responseCode = "403", description = "Acesso proibido")
     @ApiResponse(responseCode = "404", description = "Requisição não encontrada")
+    @ApiResponse(responseCode = "409", description = "Status atual não permite esta transição")
     public ResponseEntity<ServiceRequestDto> rejectRequest(@PathVariable Long id) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        User user = userRepository.findByEmail(authentication.getName()).orElseThrow();
+        AuthenticatedUser user = AuthenticatedUser.current();
         
-        ServiceRequestDto request = serviceRequestService.rejectRequest(id, user.getId());
+        ServiceRequestDto request = serviceRequestService.rejectRequest(id, user.id());
         return ResponseEntity.ok(request);
     }
 
@@ -127,11 +228,11 @@ public class ServiceRequestController {
     @ApiResponse(responseCode = "401", description = "Não autenticado")
     @ApiResponse(responseCode = "403", description = "Acesso proibido")
     @ApiResponse(responseCode = "404", description = "Requisição não encontrada")
+    @ApiResponse(responseCode = "409", description = "Status atual não permite esta transição")
     public ResponseEntity<ServiceRequestDto> completeRequest(@PathVariable Long id) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        User user = userRepository.findByEmail(authentication.getName()).orElseThrow();
+        AuthenticatedUser user = AuthenticatedUser.current();
         
-        ServiceRequestDto request = serviceRequestService.completeRequest(id, user.getId());
+        ServiceRequestDto request = serviceRequestService.completeRequest(id, user.id());
         return ResponseEntity.ok(request);
     }
 
@@ -142,11 +243,11 @@ public class ServiceRequestController {
     @ApiResponse(responseCode = "401", description = "Não autenticado")
     @ApiResponse(responseCode = "403", description = "Acesso proibido")
     @ApiResponse(responseCode = "404", description = "Requisição não encontrada")
+    @ApiResponse(responseCode = "409", description = "Status atual não permite esta transição")
     public ResponseEntity<ServiceRequestDto> cancelRequest(@PathVariable Long id) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        User user = userRepository.findByEmail(authentication.getName()).orElseThrow();
+        AuthenticatedUser user = AuthenticatedUser.current();
         
-        ServiceRequestDto request = serviceRequestService.cancelRequest(id, user.getId());
+        ServiceRequestDto request = serviceRequestService.cancelRequest(id, user.id());
         return ResponseEntity.ok(request);
     }
 }
@@ -0,0 +1,28 @@
+package com.conectabairro.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO para transição de várias requisições recebidas de uma vez
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkTransitionRequest {
+
+    @NotEmpty(message = "Informe ao menos uma requisição")
+    @Size(max = 100, message = "No máximo 100 requisições por lote")
+    private List<Long> requestIds;
+
+    @NotBlank(message = "Status de destino é obrigatório")
+    private String status; // ACCEPTED, REJECTED, COMPLETED
+}
@@ -0,0 +1,40 @@
+package com.conectabairro.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO com o resultado de cada requisição de um lote de transições, na ordem em que foram enviadas
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkTransitionResult {
+
+    private int updated;
+    private int failed;
+    private List<Item> results;
+
+    public enum Outcome {
+        UPDATED,
+        NOT_FOUND,
+        FORBIDDEN,
+        INVALID_STATE
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Item {
+        private Long requestId;
+        private Outcome outcome;
+        private String message;
+        private ServiceRequestDto request;
+    }
+}
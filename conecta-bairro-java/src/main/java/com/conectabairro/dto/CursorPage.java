@@ -0,0 +1,66 @@
+package com.conectabairro.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * DTO para página obtida por paginação por chave (keyset): sem OFFSET e sem COUNT(*).
+ * O cliente envia {@code nextCursor} no parâmetro {@code after} para obter a próxima página.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CursorPage<T> {
+
+    /** Maior {@code size} aceito nas listagens por cursor */
+    public static final int MAX_SIZE = 100;
+
+    private List<T> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+
+    /**
+     * Monta a página a partir de {@code size + 1} linhas: a linha extra só indica se há próxima página
+     */
+    public static <E, T> CursorPage<T> of(List<E> rows, int size,
+                                          Function<E, T> mapper,
+                                          Function<E, ? extends PageCursor> cursorOf) {
+        checkSize(size);
+        boolean hasNext = rows.size() > size;
+        List<E> pageRows = hasNext ? rows.subList(0, size) : rows;
+
+        return CursorPage.<T>builder()
+                .content(pageRows.stream().map(mapper).collect(Collectors.toList()))
+                .size(pageRows.size())
+                .hasNext(hasNext)
+                .nextCursor(hasNext ? cursorOf.apply(pageRows.get(pageRows.size() - 1)).encode() : null)
+                .build();
+    }
+
+    /**
+     * LIMIT da consulta de uma página: {@code size + 1} linhas
+     */
+    public static Pageable limit(int size) {
+        return PageRequest.of(0, checkSize(size) + 1);
+    }
+
+    /**
+     * Recusa (400) tamanhos fora de 1..{@link #MAX_SIZE}
+     */
+    public static int checkSize(int size) {
+        if (size < 1 || size > MAX_SIZE) {
+            throw new IllegalArgumentException("Tamanho da página deve estar entre 1 e " + MAX_SIZE);
+        }
+        return size;
+    }
+}
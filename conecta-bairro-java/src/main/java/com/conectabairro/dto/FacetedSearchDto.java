@@ -0,0 +1,23 @@
+package com.conectabairro.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Page;
+
+import java.util.Map;
+
+/**
+ * DTO para resultado de busca com facetas: página de serviços e contagens por faceta
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FacetedSearchDto {
+    private Page<ServiceDto> results;
+    private Map<String, Long> categories;
+    private Map<String, Long> locations;
+    private Map<String, Long> priceBands;
+}
@@ -0,0 +1,19 @@
+package com.conectabairro.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Page;
+
+/**
+ * DTO para busca tolerante a erros: resultados já corrigidos e a sugestão "você quis dizer"
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FuzzySearchDto {
+    private Page<ServiceDto> results;
+    private String didYouMean;
+}
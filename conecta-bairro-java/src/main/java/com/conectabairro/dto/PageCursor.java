@@ -0,0 +1,9 @@
+package com.conectabairro.dto;
+
+/**
+ * Posição de paginação por chave que sabe se serializar como o token opaco de {@code nextCursor}
+ */
+public interface PageCursor {
+
+    String encode();
+}
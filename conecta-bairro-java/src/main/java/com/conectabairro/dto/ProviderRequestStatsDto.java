@@ -0,0 +1,23 @@
+package com.conectabairro.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * DTO com os contadores de requisições recebidas pelo provedor, para o painel
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProviderRequestStatsDto {
+    private Long providerId;
+    private Map<String, Long> countsByStatus; // todos os status, inclusive os zerados
+    private Long totalRequests;
+    private Long completedRequests;
+    private Double completedRevenue;
+}
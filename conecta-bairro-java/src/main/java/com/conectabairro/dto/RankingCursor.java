@@ -0,0 +1,43 @@
+package com.conectabairro.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Posição opaca de paginação por chave (ranking_score, id), a mesma ordem "melhores primeiro" da
+ * listagem padrão de serviços
+ */
+public record RankingCursor(double rankingScore, Long id) implements PageCursor {
+
+    /**
+     * Posição antes do primeiro item da ordenação decrescente (usada na primeira página)
+     */
+    public static final RankingCursor START = new RankingCursor(Double.MAX_VALUE, Long.MAX_VALUE);
+
+    @Override
+    public String encode() {
+        // Double.toString é exato na volta: a igualdade do desempate continua valendo no banco
+        String raw = rankingScore + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica o token recebido; token vazio ou ausente significa primeira página
+     */
+    public static RankingCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return START;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            double rankingScore = Double.parseDouble(raw.substring(0, separator));
+            if (!Double.isFinite(rankingScore)) {
+                throw new IllegalArgumentException();
+            }
+            return new RankingCursor(rankingScore, Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Cursor de paginação inválido");
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.conectabairro.dto;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Monta a distribuição de notas (1 a 5 estrelas) a partir dos contadores materializados
+ * em services/users, sem consultar a tabela reviews
+ */
+public final class RatingHistogram {
+
+    private RatingHistogram() {
+    }
+
+    public static Map<Integer, Integer> of(Integer... starCounts) {
+        Map<Integer, Integer> histogram = new LinkedHashMap<>();
+        for (int stars = 1; stars <= starCounts.length; stars++) {
+            Integer count = starCounts[stars - 1];
+            histogram.put(stars, count != null ? count : 0);
+        }
+        return histogram;
+    }
+}
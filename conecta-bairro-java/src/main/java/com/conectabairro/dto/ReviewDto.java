@@ -9,7 +9,8 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 /**
- * DTO para representação de avaliação
+ * DTO para representação de avaliação.
+ * A ordem dos campos define o construtor usado pela projeção de ReviewRepository.SELECT_DTO.
  */
 @Data
 @NoArgsConstructor
@@ -1,5 +1,8 @@
 package com.conectabairro.dto;
 
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -9,6 +12,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.Map;
 
 /**
  * DTO para representação de serviço
@@ -36,12 +40,25 @@ public class ServiceDto {
     @NotBlank(message = "Localização é obrigatória")
     private String location;
     
+    @DecimalMin(value = "-90.0", message = "Latitude deve estar entre -90 e 90")
+    @DecimalMax(value = "90.0", message = "Latitude deve estar entre -90 e 90")
+    private Double latitude;
+
+    @DecimalMin(value = "-180.0", message = "Longitude deve estar entre -180 e 180")
+    @DecimalMax(value = "180.0", message = "Longitude deve estar entre -180 e 180")
+    private Double longitude;
+
     private String imageUrl;
     private Double rating;
     private Integer totalReviews;
+    @Schema(description = "Distribuição de notas (1 a 5 estrelas). Como a nota e o total, é atualizada em segundo plano: "
+            + "pode ficar até app.ratings.flush-interval-ms (2 s) atrás das avaliações recém-gravadas")
+    private Map<Integer, Integer> ratingHistogram;
     private Boolean isActive;
     private Long providerId;
     private String providerName;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private Double relevance;
+    private Double distanceKm;
 }
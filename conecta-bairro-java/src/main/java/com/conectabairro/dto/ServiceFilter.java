@@ -0,0 +1,31 @@
+package com.conectabairro.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Filtros combinados da listagem de serviços
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ServiceFilter {
+    private String category;
+    private String location;
+    private Double minPrice;
+    private Double maxPrice;
+    private Double minRating;
+    @Builder.Default
+    private Boolean isActive = true;
+    @Builder.Default
+    private SortKey sort = SortKey.NEWEST;
+
+    public enum SortKey {
+        PRICE,   // menor preço primeiro
+        RATING,  // melhor avaliação primeiro
+        NEWEST   // mais recentes primeiro
+    }
+}
@@ -9,7 +9,8 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 /**
- * DTO para representação de requisição de serviço
+ * DTO para representação de requisição de serviço.
+ * A ordem dos campos define o construtor usado pela projeção de ServiceRequestRepository.SELECT_DTO.
  */
 @Data
 @NoArgsConstructor
@@ -0,0 +1,18 @@
+package com.conectabairro.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO do ticket de uso único para abrir o fluxo de eventos de requisições
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StreamTicketDto {
+    private String ticket;
+    private Long expiresInSeconds;
+}
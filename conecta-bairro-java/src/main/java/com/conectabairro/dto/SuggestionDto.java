@@ -0,0 +1,19 @@
+package com.conectabairro.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO para sugestão de autocompletar da busca de serviços
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SuggestionDto {
+    private String text;
+    private String type; // TITLE, CATEGORY ou LOCATION
+    private Double score;
+}
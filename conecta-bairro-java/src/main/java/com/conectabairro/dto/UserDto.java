@@ -1,11 +1,15 @@
 package com.conectabairro.dto;
 
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.Map;
 
 /**
  * DTO para representação de usuário
@@ -22,8 +26,20 @@ public class UserDto {
     private String userType;
     private String profileImage;
     private String bio;
+
+    @DecimalMin(value = "-90.0", message = "Latitude deve estar entre -90 e 90")
+    @DecimalMax(value = "90.0", message = "Latitude deve estar entre -90 e 90")
+    private Double latitude;
+
+    @DecimalMin(value = "-180.0", message = "Longitude deve estar entre -180 e 180")
+    @DecimalMax(value = "180.0", message = "Longitude deve estar entre -180 e 180")
+    private Double longitude;
+
     private Double rating;
     private Integer totalReviews;
+    @Schema(description = "Distribuição de notas (1 a 5 estrelas). Como a nota e o total, é atualizada em segundo plano: "
+            + "pode ficar até app.ratings.flush-interval-ms (2 s) atrás das avaliações recém-gravadas")
+    private Map<Integer, Integer> ratingHistogram;
     private Boolean isVerified;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
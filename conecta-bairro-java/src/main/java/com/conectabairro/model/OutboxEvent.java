@@ -0,0 +1,87 @@
+package com.conectabairro.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento de domínio gravado na tabela outbox_events na mesma transação da mudança que o originou,
+ * e entregue aos handlers pelo OutboxDispatcher depois do commit
+ */
+@Entity
+@Table(name = "outbox_events")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxEvent {
+
+    public static final String AGGREGATE_SERVICE_REQUEST = "service-request";
+    public static final String AGGREGATE_REVIEW = "review";
+    public static final String AGGREGATE_SERVICE = "service";
+
+    public static final String SERVICE_REQUEST_CREATED = "service-request.created";
+    public static final String SERVICE_REQUEST_STATUS_CHANGED = "service-request.status-changed";
+    public static final String REVIEW_CREATED = "review.created";
+    public static final String REVIEW_UPDATED = "review.updated";
+    public static final String REVIEW_DELETED = "review.deleted";
+    public static final String SERVICE_CREATED = "service.created";
+    public static final String SERVICE_UPDATED = "service.updated";
+    public static final String SERVICE_DELETED = "service.deleted";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "aggregate_type", nullable = false, length = 50)
+    private String aggregateType;
+
+    @Column(name = "aggregate_id", nullable = false)
+    private Long aggregateId;
+
+    @Column(name = "event_type", nullable = false, length = 100)
+    private String eventType;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload; // JSON
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status;
+
+    @Column(nullable = false)
+    private Integer attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        if (status == null) {
+            status = Status.PENDING;
+        }
+        if (attempts == null) {
+            attempts = 0;
+        }
+        if (nextAttemptAt == null) {
+            nextAttemptAt = createdAt;
+        }
+    }
+
+    public enum Status {
+        PENDING,    // Aguardando entrega (ou nova tentativa)
+        PROCESSED,  // Entregue a todos os handlers
+        FAILED      // Esgotou as tentativas; fica para análise manual
+    }
+}
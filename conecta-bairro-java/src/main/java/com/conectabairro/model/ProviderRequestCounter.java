@@ -0,0 +1,43 @@
+package com.conectabairro.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+
+/**
+ * Quantidade e soma de preços das requisições de um provedor em um status. Mantido por upserts
+ * atômicos (ProviderRequestCounterRepository) a cada criação e transição de requisição.
+ */
+@Entity
+@Table(name = "provider_request_counters")
+@IdClass(ProviderRequestCounter.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProviderRequestCounter {
+
+    @Id
+    @Column(name = "provider_id")
+    private Long providerId;
+
+    @Id
+    @Column(name = "status")
+    @Enumerated(EnumType.STRING)
+    private ServiceRequest.RequestStatus status;
+
+    @Column(name = "request_count", nullable = false)
+    private Long requestCount;
+
+    @Column(name = "total_price", nullable = false)
+    private Double totalPrice;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long providerId;
+        private ServiceRequest.RequestStatus status;
+    }
+}
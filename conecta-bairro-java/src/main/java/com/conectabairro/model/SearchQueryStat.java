@@ -0,0 +1,53 @@
+package com.conectabairro.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Quantas vezes uma página de busca/listagem foi pedida, acumulado entre reinícios. Alimentado pelo
+ * SearchQueryStatsJob a partir das frequências do SearchResultCache e lido no aquecimento do cache.
+ */
+@Entity
+@Table(name = "search_query_stats")
+@IdClass(SearchQueryStat.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SearchQueryStat {
+
+    @Id
+    @Column(name = "kind")
+    private String kind;
+
+    @Id
+    @Column(name = "query_value")
+    private String queryValue;
+
+    @Id
+    @Column(name = "page")
+    private Integer page;
+
+    @Id
+    @Column(name = "page_size")
+    private Integer pageSize;
+
+    @Column(name = "hits", nullable = false)
+    private Long hits;
+
+    @Column(name = "last_seen_at", nullable = false)
+    private LocalDateTime lastSeenAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String kind;
+        private String queryValue;
+        private Integer page;
+        private Integer pageSize;
+    }
+}
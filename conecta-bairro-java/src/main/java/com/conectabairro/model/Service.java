@@ -1,7 +1,10 @@
 package com.conectabairro.model;
 
+import com.conectabairro.search.RankingScore;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -12,6 +15,8 @@ import java.util.List;
  */
 @Entity
 @Table(name = "services")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "services")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -37,15 +42,47 @@ public class Service {
     @Column(nullable = false)
     private String location;
 
+    @Column(name = "latitude")
+    private Double latitude;
+
+    @Column(name = "longitude")
+    private Double longitude;
+
     @Column(name = "image_url")
     private String imageUrl;
 
-    @Column(name = "rating")
+    // Agregados mantidos somente por UPDATEs atômicos no banco (ServiceRepository), nunca pela entidade
+    @Column(name = "rating", updatable = false)
     private Double rating;
 
-    @Column(name = "total_reviews")
+    @Column(name = "rating_sum", updatable = false)
+    private Long ratingSum;
+
+    @Column(name = "total_reviews", updatable = false)
     private Integer totalReviews;
 
+    // Histograma materializado: quantidade de avaliações com 1, 2, 3, 4 e 5 estrelas
+    @Column(name = "stars_1", updatable = false)
+    private Integer stars1;
+
+    @Column(name = "stars_2", updatable = false)
+    private Integer stars2;
+
+    @Column(name = "stars_3", updatable = false)
+    private Integer stars3;
+
+    @Column(name = "stars_4", updatable = false)
+    private Integer stars4;
+
+    @Column(name = "stars_5", updatable = false)
+    private Integer stars5;
+
+    @Column(name = "completed_requests", updatable = false)
+    private Integer completedRequests;
+
+    @Column(name = "ranking_score", updatable = false)
+    private Double rankingScore;
+
     @Column(name = "is_active")
     private Boolean isActive;
 
@@ -72,6 +109,14 @@ public class Service {
         isActive = true;
         totalReviews = 0;
         rating = 0.0;
+        ratingSum = 0L;
+        stars1 = 0;
+        stars2 = 0;
+        stars3 = 0;
+        stars4 = 0;
+        stars5 = 0;
+        completedRequests = 0;
+        rankingScore = RankingScore.of(this);
     }
 
     @PreUpdate
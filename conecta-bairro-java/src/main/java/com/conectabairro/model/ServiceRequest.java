@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.*;
 
 import java.time.LocalDateTime;
+import java.util.*;
 
 /**
  * Entidade representando uma requisição de serviço
@@ -33,6 +34,11 @@ public class ServiceRequest {
     @Column(name = "total_price")
     private Double totalPrice;
 
+    // Protege alterações feitas pela entidade; as transições de status usam UPDATE condicional
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
@@ -47,6 +53,11 @@ public class ServiceRequest {
     @JoinColumn(name = "service_id", nullable = false)
     private Service service;
 
+    // Cópia de service.provider (o provedor de um serviço nunca muda): as requisições recebidas são
+    // paginadas direto pelo índice (provider_id, created_at, id), sem passar pela tabela services
+    @Column(name = "provider_id", nullable = false, updatable = false)
+    private Long providerId;
+
     @OneToOne(mappedBy = "request", cascade = CascadeType.ALL, orphanRemoval = true)
     private Review review;
 
@@ -62,11 +73,36 @@ public class ServiceRequest {
         updatedAt = LocalDateTime.now();
     }
 
+    /**
+     * Estados e transições permitidas: PENDING → ACCEPTED | REJECTED | CANCELLED,
+     * ACCEPTED → COMPLETED | CANCELLED; os demais são finais
+     */
     public enum RequestStatus {
         PENDING,
         ACCEPTED,
         REJECTED,
         COMPLETED,
-        CANCELLED
+        CANCELLED;
+
+        private static final Map<RequestStatus, Set<RequestStatus>> SOURCES = new EnumMap<>(RequestStatus.class);
+
+        static {
+            SOURCES.put(PENDING, EnumSet.noneOf(RequestStatus.class));
+            SOURCES.put(ACCEPTED, EnumSet.of(PENDING));
+            SOURCES.put(REJECTED, EnumSet.of(PENDING));
+            SOURCES.put(COMPLETED, EnumSet.of(ACCEPTED));
+            SOURCES.put(CANCELLED, EnumSet.of(PENDING, ACCEPTED));
+        }
+
+        /**
+         * Estados a partir dos quais se pode chegar a este
+         */
+        public Set<RequestStatus> sources() {
+            return Collections.unmodifiableSet(SOURCES.get(this));
+        }
+
+        public boolean canTransitionTo(RequestStatus target) {
+            return SOURCES.get(target).contains(this);
+        }
     }
 }
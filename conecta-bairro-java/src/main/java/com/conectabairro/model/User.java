@@ -2,6 +2,8 @@ package com.conectabairro.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -14,6 +16,8 @@ import java.util.*;
  */
 @Entity
 @Table(name = "users")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -46,12 +50,38 @@ public class User implements UserDetails {
     @Column(name = "bio")
     private String bio;
 
-    @Column(name = "rating")
+    @Column(name = "latitude")
+    private Double latitude;
+
+    @Column(name = "longitude")
+    private Double longitude;
+
+    // Agregados das avaliações dos serviços do provedor, mantidos por UPDATEs atômicos (UserRepository)
+    @Column(name = "rating", updatable = false)
     private Double rating;
 
-    @Column(name = "total_reviews")
+    @Column(name = "rating_sum", updatable = false)
+    private Long ratingSum;
+
+    @Column(name = "total_reviews", updatable = false)
     private Integer totalReviews;
 
+    // Histograma materializado: quantidade de avaliações com 1, 2, 3, 4 e 5 estrelas
+    @Column(name = "stars_1", updatable = false)
+    private Integer stars1;
+
+    @Column(name = "stars_2", updatable = false)
+    private Integer stars2;
+
+    @Column(name = "stars_3", updatable = false)
+    private Integer stars3;
+
+    @Column(name = "stars_4", updatable = false)
+    private Integer stars4;
+
+    @Column(name = "stars_5", updatable = false)
+    private Integer stars5;
+
     @Column(name = "is_verified")
     private Boolean isVerified;
 
@@ -77,6 +107,12 @@ public class User implements UserDetails {
         isVerified = false;
         totalReviews = 0;
         rating = 0.0;
+        ratingSum = 0L;
+        stars1 = 0;
+        stars2 = 0;
+        stars3 = 0;
+        stars4 = 0;
+        stars5 = 0;
     }
 
     @PreUpdate
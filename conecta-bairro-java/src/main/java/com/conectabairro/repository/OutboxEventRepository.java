@@ -0,0 +1,60 @@
+package com.conectabairro.repository;
+
+import com.conectabairro.model.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repositório dos eventos da outbox
+ */
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Eventos pendentes já vencidos, em ordem de gravação. Um evento só entra se nenhum evento anterior
+     * do mesmo agregado estiver aguardando nova tentativa, preservando a ordem por agregado.
+     */
+    @Query("SELECT e FROM OutboxEvent e " +
+           "WHERE e.status = com.conectabairro.model.OutboxEvent.Status.PENDING AND e.nextAttemptAt <= :now " +
+           "AND NOT EXISTS (SELECT 1 FROM OutboxEvent b " +
+           "                WHERE b.status = com.conectabairro.model.OutboxEvent.Status.PENDING " +
+           "                AND b.aggregateType = e.aggregateType AND b.aggregateId = e.aggregateId " +
+           "                AND b.id < e.id AND b.nextAttemptAt > :now) " +
+           "ORDER BY e.id")
+    List<OutboxEvent> findDeliverable(@Param("now") LocalDateTime now, Pageable pageable);
+
+    long countByStatus(OutboxEvent.Status status);
+
+    @Query("SELECT MIN(e.createdAt) FROM OutboxEvent e " +
+           "WHERE e.status = com.conectabairro.model.OutboxEvent.Status.PENDING")
+    LocalDateTime findOldestPendingCreatedAt();
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.status = com.conectabairro.model.OutboxEvent.Status.PROCESSED, " +
+           "e.processedAt = :now, e.lastError = NULL WHERE e.id IN :ids")
+    int markProcessed(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    /**
+     * Registra uma entrega que falhou: nova tentativa em {@code nextAttemptAt} ou {@code FAILED} de vez
+     */
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.status = :status, e.attempts = e.attempts + 1, " +
+           "e.nextAttemptAt = :nextAttemptAt, e.lastError = :error WHERE e.id = :id")
+    int markFailedAttempt(@Param("id") Long id,
+                          @Param("status") OutboxEvent.Status status,
+                          @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                          @Param("error") String error);
+
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e " +
+           "WHERE e.status = com.conectabairro.model.OutboxEvent.Status.PROCESSED AND e.processedAt < :cutoff")
+    int deleteProcessedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,82 @@
+package com.conectabairro.repository;
+
+import com.conectabairro.model.ProviderRequestCounter;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repositório dos contadores de requisições por provedor e status
+ */
+@Repository
+public interface ProviderRequestCounterRepository
+        extends JpaRepository<ProviderRequestCounter, ProviderRequestCounter.Key> {
+
+    /**
+     * Espaço de consulta dos comandos nativos abaixo, que só escrevem nesta tabela. Sem ele o Hibernate
+     * trataria cada upsert como capaz de alterar qualquer entidade e limparia as regiões de users e
+     * services (e o cache de consultas) a cada criação ou transição de requisição.
+     */
+    String COUNTERS_SPACE = "provider_request_counters";
+
+    List<ProviderRequestCounter> findByProviderId(Long providerId);
+
+    /**
+     * Soma (ou subtrai, com valores negativos) ao contador em um único upsert atômico
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = COUNTERS_SPACE))
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO provider_request_counters (provider_id, status, request_count, total_price) " +
+                   "VALUES (:providerId, :status, :count, :amount) " +
+                   "ON DUPLICATE KEY UPDATE request_count = request_count + VALUES(request_count), " +
+                   "total_price = total_price + VALUES(total_price)",
+           nativeQuery = true)
+    int add(@Param("providerId") Long providerId,
+            @Param("status") String status,
+            @Param("count") long count,
+            @Param("amount") double amount);
+
+    /**
+     * Provedores com requisições ou com contadores gravados: os que a reconciliação precisa visitar.
+     * Leitura sem trava, pelo índice idx_provider_created e pela chave primária dos contadores.
+     */
+    @Query(value = "SELECT provider_id FROM service_requests UNION SELECT provider_id FROM provider_request_counters",
+           nativeQuery = true)
+    List<Long> findProviderIds();
+
+    /**
+     * Reconstrói os contadores dos provedores informados a partir de service_requests (cópia de
+     * provider_id, sem JOIN com services); linhas já corretas não são alteradas. Só as requisições
+     * desses provedores ficam travadas, e apenas até o commit do lote.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = COUNTERS_SPACE))
+    @Modifying
+    @Query(value = "INSERT INTO provider_request_counters (provider_id, status, request_count, total_price) " +
+                   "SELECT r.provider_id, r.status, COUNT(*), COALESCE(SUM(r.total_price), 0) " +
+                   "FROM service_requests r WHERE r.provider_id IN (:providerIds) " +
+                   "GROUP BY r.provider_id, r.status " +
+                   "ON DUPLICATE KEY UPDATE request_count = VALUES(request_count), " +
+                   "total_price = VALUES(total_price)",
+           nativeQuery = true)
+    int recompute(@Param("providerIds") Collection<Long> providerIds);
+
+    /**
+     * Remove, dos provedores informados, contadores de status que não têm mais nenhuma requisição
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = COUNTERS_SPACE))
+    @Modifying
+    @Query(value = "DELETE c FROM provider_request_counters c " +
+                   "WHERE c.provider_id IN (:providerIds) " +
+                   "AND NOT EXISTS (SELECT 1 FROM service_requests r " +
+                   "                WHERE r.provider_id = c.provider_id AND r.status = c.status)",
+           nativeQuery = true)
+    int deleteStale(@Param("providerIds") Collection<Long> providerIds);
+}
@@ -1,26 +1,49 @@
 package com.conectabairro.repository;
 
+import com.conectabairro.dto.ReviewDto;
 import com.conectabairro.model.Review;
-import com.conectabairro.model.Service;
-import com.conectabairro.model.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 /**
- * Repositório para operações com a entidade Review
+ * Repositório para operações com a entidade Review.
+ *
+ * <p>As leituras devolvem o ReviewDto direto do banco (projeção {@code SELECT new} com os joins
+ * de avaliador e serviço), em uma única consulta por página.</p>
  */
 @Repository
 public interface ReviewRepository extends JpaRepository<Review, Long> {
-    
-    Page<Review> findByService(Service service, Pageable pageable);
-    
-    Page<Review> findByReviewer(User reviewer, Pageable pageable);
-    
-    Optional<Review> findByRequest_Id(Long requestId);
-    
+
+    String SELECT_DTO = "SELECT new com.conectabairro.dto.ReviewDto(" +
+            "v.id, v.rating, v.comment, v.request.id, u.id, u.name, s.id, s.title, v.createdAt, v.updatedAt) " +
+            "FROM Review v JOIN v.reviewer u JOIN v.service s ";
+
     boolean existsByRequest_Id(Long requestId);
+
+    @Query(SELECT_DTO + "WHERE v.id = :id")
+    Optional<ReviewDto> findDtoById(@Param("id") Long id);
+
+    @Query(value = SELECT_DTO + "WHERE s.id = :serviceId",
+           countQuery = "SELECT COUNT(v) FROM Review v WHERE v.service.id = :serviceId")
+    Page<ReviewDto> findDtoByServiceId(@Param("serviceId") Long serviceId, Pageable pageable);
+
+    @Query(value = SELECT_DTO + "WHERE u.id = :reviewerId",
+           countQuery = "SELECT COUNT(v) FROM Review v WHERE v.reviewer.id = :reviewerId")
+    Page<ReviewDto> findDtoByReviewerId(@Param("reviewerId") Long reviewerId, Pageable pageable);
+
+    @Query(SELECT_DTO + "WHERE s.id = :serviceId " +
+           "AND (v.createdAt < :createdAt OR (v.createdAt = :createdAt AND v.id < :id)) " +
+           "ORDER BY v.createdAt DESC, v.id DESC")
+    List<ReviewDto> findPageByServiceBefore(@Param("serviceId") Long serviceId,
+                                            @Param("createdAt") LocalDateTime createdAt,
+                                            @Param("id") Long id,
+                                            Pageable limit);
 }
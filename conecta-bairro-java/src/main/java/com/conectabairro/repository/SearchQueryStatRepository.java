@@ -0,0 +1,49 @@
+package com.conectabairro.repository;
+
+import com.conectabairro.model.SearchQueryStat;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repositório das frequências persistidas das consultas de busca
+ */
+@Repository
+public interface SearchQueryStatRepository extends JpaRepository<SearchQueryStat, SearchQueryStat.Key> {
+
+    /**
+     * Espaço de consulta do upsert nativo, que só escreve nesta tabela (ver ProviderRequestCounterRepository)
+     */
+    String STATS_SPACE = "search_query_stats";
+
+    List<SearchQueryStat> findAllByOrderByHitsDesc(Pageable pageable);
+
+    /**
+     * Soma acessos à consulta em um único upsert atômico
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = STATS_SPACE))
+    @Modifying
+    @Query(value = "INSERT INTO search_query_stats (kind, query_value, page, page_size, hits, last_seen_at) " +
+                   "VALUES (:kind, :value, :page, :size, :hits, :now) " +
+                   "ON DUPLICATE KEY UPDATE hits = hits + VALUES(hits), last_seen_at = VALUES(last_seen_at)",
+           nativeQuery = true)
+    int addHits(@Param("kind") String kind,
+                @Param("value") String value,
+                @Param("page") int page,
+                @Param("size") int size,
+                @Param("hits") long hits,
+                @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM SearchQueryStat s WHERE s.lastSeenAt < :cutoff")
+    int deleteNotSeenSince(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -2,33 +2,263 @@ package com.conectabairro.repository;
 
 import com.conectabairro.model.Service;
 import com.conectabairro.model.User;
+import com.conectabairro.search.RankingScore;
+import com.conectabairro.search.SuggestionTrie;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
- * Repositório para operações com a entidade Service
+ * Repositório para operações com a entidade Service.
+ *
+ * <p>As listagens (padrão, por categoria/localização e hidratação das páginas de busca) leem a
+ * projeção {@link ListingView}: só as colunas do ServiceDto, com o id e o nome do provedor no mesmo
+ * SELECT. Uma página custa o SELECT dos dados e, quando paginada por offset, o COUNT(*) — nunca
+ * 1 + N consultas, e sem hidratar a entidade User inteira (senha, bio, agregados).
+ * A listagem com filtros (Specification) ainda carrega entidades, com o provedor via
+ * {@code @EntityGraph}.</p>
  */
 @Repository
-public interface ServiceRepository extends JpaRepository<Service, Long> {
+public interface ServiceRepository extends JpaRepository<Service, Long>, JpaSpecificationExecutor<Service> {
+
+    /**
+     * Espaço de consulta declarado pelos UPDATEs nativos de agregados. Sem ele o Hibernate invalidaria
+     * todas as regiões do cache de segundo nível a cada avaliação; com ele nenhuma região é tocada e
+     * as entradas afetadas são removidas uma a uma pelo EntityCacheEvictor, depois do commit.
+     */
+    String AGGREGATES_SPACE = "rating_aggregates";
     
     List<Service> findByProvider(User provider);
     
-    Page<Service> findByCategory(String category, Pageable pageable);
-    
-    Page<Service> findByLocation(String location, Pageable pageable);
-    
+    /**
+     * SELECT da projeção {@link ListingView}; as consultas de listagem acrescentam WHERE e ORDER BY
+     */
+    String LISTING_SELECT = "SELECT s.id AS id, s.title AS title, s.description AS description, " +
+            "s.category AS category, s.price AS price, s.location AS location, " +
+            "s.latitude AS latitude, s.longitude AS longitude, s.imageUrl AS imageUrl, " +
+            "s.rating AS rating, s.totalReviews AS totalReviews, " +
+            "s.stars1 AS stars1, s.stars2 AS stars2, s.stars3 AS stars3, s.stars4 AS stars4, s.stars5 AS stars5, " +
+            "s.isActive AS isActive, s.rankingScore AS rankingScore, " +
+            "p.id AS providerId, p.name AS providerName, s.createdAt AS createdAt, s.updatedAt AS updatedAt " +
+            "FROM Service s JOIN s.provider p ";
+
+    @Query(value = LISTING_SELECT + "ORDER BY s.rankingScore DESC, s.id DESC",
+           countQuery = "SELECT COUNT(s) FROM Service s")
+    Page<ListingView> findListingByRanking(Pageable pageable);
+
+    @Query(value = LISTING_SELECT + "WHERE s.category = :category",
+           countQuery = "SELECT COUNT(s) FROM Service s WHERE s.category = :category")
+    Page<ListingView> findListingByCategory(@Param("category") String category, Pageable pageable);
+
+    @Query(value = LISTING_SELECT + "WHERE s.location = :location",
+           countQuery = "SELECT COUNT(s) FROM Service s WHERE s.location = :location")
+    Page<ListingView> findListingByLocation(@Param("location") String location, Pageable pageable);
+
+    /**
+     * Hidratação das páginas de IDs vindas dos índices em memória e da busca FULLTEXT
+     */
+    @Query(LISTING_SELECT + "WHERE s.id IN :ids")
+    List<ListingView> findListingByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Listagem com filtros combinados (ServiceSpecifications)
+     */
+    @EntityGraph(attributePaths = "provider")
+    Page<Service> findAll(Specification<Service> spec, Pageable pageable);
+
+    /**
+     * Aplica os deltas acumulados de avaliações (criadas, alteradas ou removidas) em um único UPDATE
+     * atômico: soma, contagem, histograma de estrelas, média e ranking. O MySQL avalia o SET da
+     * esquerda para a direita, então nota e ranking usam a soma e a contagem já atualizadas.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = AGGREGATES_SPACE))
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE services SET rating_sum = rating_sum + :sumDelta, " +
+                   "total_reviews = total_reviews + :countDelta, " +
+                   "stars_1 = stars_1 + :stars1, stars_2 = stars_2 + :stars2, stars_3 = stars_3 + :stars3, " +
+                   "stars_4 = stars_4 + :stars4, stars_5 = stars_5 + :stars5, " +
+                   "rating = IF(total_reviews > 0, rating_sum / total_reviews, 0), " +
+                   "ranking_score = " + RankingScore.SQL + " " +
+                   "WHERE id = :id",
+           nativeQuery = true)
+    int applyRatingDelta(@Param("id") Long id,
+                         @Param("sumDelta") int sumDelta,
+                         @Param("countDelta") int countDelta,
+                         @Param("stars1") int stars1,
+                         @Param("stars2") int stars2,
+                         @Param("stars3") int stars3,
+                         @Param("stars4") int stars4,
+                         @Param("stars5") int stars5);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = AGGREGATES_SPACE))
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE services SET completed_requests = completed_requests + :amount, " +
+                   "ranking_score = " + RankingScore.SQL + " " +
+                   "WHERE id = :id",
+           nativeQuery = true)
+    int addCompletedRequests(@Param("id") Long id, @Param("amount") int amount);
+
+    /**
+     * Recalcula em massa soma, contagem e média das avaliações e o total de requisições concluídas,
+     * tocando apenas as linhas divergentes
+     */
+    @Modifying
+    @Query(value = "UPDATE services s " +
+                   "LEFT JOIN (SELECT service_id, SUM(rating) AS total, COUNT(*) AS cnt, " +
+                   "                  SUM(rating = 1) AS s1, SUM(rating = 2) AS s2, SUM(rating = 3) AS s3, " +
+                   "                  SUM(rating = 4) AS s4, SUM(rating = 5) AS s5 " +
+                   "           FROM reviews GROUP BY service_id) r ON r.service_id = s.id " +
+                   "LEFT JOIN (SELECT service_id, COUNT(*) AS cnt FROM service_requests " +
+                   "           WHERE status = 'COMPLETED' GROUP BY service_id) c ON c.service_id = s.id " +
+                   "SET s.rating_sum = COALESCE(r.total, 0), " +
+                   "    s.total_reviews = COALESCE(r.cnt, 0), " +
+                   "    s.rating = COALESCE(r.total / r.cnt, 0), " +
+                   "    s.completed_requests = COALESCE(c.cnt, 0), " +
+                   "    s.stars_1 = COALESCE(r.s1, 0), s.stars_2 = COALESCE(r.s2, 0), " +
+                   "    s.stars_3 = COALESCE(r.s3, 0), s.stars_4 = COALESCE(r.s4, 0), " +
+                   "    s.stars_5 = COALESCE(r.s5, 0) " +
+                   "WHERE s.rating_sum <> COALESCE(r.total, 0) " +
+                   "   OR s.total_reviews <> COALESCE(r.cnt, 0) " +
+                   "   OR s.completed_requests <> COALESCE(c.cnt, 0) " +
+                   "   OR s.stars_1 <> COALESCE(r.s1, 0) OR s.stars_2 <> COALESCE(r.s2, 0) " +
+                   "   OR s.stars_3 <> COALESCE(r.s3, 0) OR s.stars_4 <> COALESCE(r.s4, 0) " +
+                   "   OR s.stars_5 <> COALESCE(r.s5, 0)",
+           nativeQuery = true)
+    int recomputeAggregates();
+
+    @Modifying
+    @Query(value = "UPDATE services SET ranking_score = " + RankingScore.SQL, nativeQuery = true)
+    int recomputeRankingScores();
+
+    /**
+     * Nota e avaliações já aplicadas, para repesar as sugestões do autocompletar
+     */
+    @Query("SELECT s.id AS id, s.rating AS rating, s.totalReviews AS totalReviews FROM Service s WHERE s.id IN :ids")
+    List<ReputationView> findReputationsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT s.id AS id, s.rating AS rating, s.totalReviews AS totalReviews FROM Service s")
+    List<ReputationView> findAllReputations();
+
+    @EntityGraph(attributePaths = "provider")
     @Query("SELECT s FROM Service s WHERE LOWER(s.title) LIKE LOWER(CONCAT('%', :keyword, '%')) " +
            "OR LOWER(s.description) LIKE LOWER(CONCAT('%', :keyword, '%'))")
     Page<Service> searchByKeyword(@Param("keyword") String keyword, Pageable pageable);
     
+    @Query(value = "SELECT s.id AS id, MATCH(s.title, s.description) AGAINST (:query IN NATURAL LANGUAGE MODE) AS relevance " +
+                   "FROM services s WHERE MATCH(s.title, s.description) AGAINST (:query IN NATURAL LANGUAGE MODE) " +
+                   "AND (:category IS NULL OR s.category = :category) " +
+                   "AND (:location IS NULL OR s.location = :location) " +
+                   "ORDER BY relevance DESC, s.id",
+           countQuery = "SELECT COUNT(*) FROM services s WHERE MATCH(s.title, s.description) AGAINST (:query IN NATURAL LANGUAGE MODE) " +
+                        "AND (:category IS NULL OR s.category = :category) " +
+                        "AND (:location IS NULL OR s.location = :location)",
+           nativeQuery = true)
+    Page<RelevanceView> searchFullTextNatural(@Param("query") String query,
+                                              @Param("category") String category,
+                                              @Param("location") String location,
+                                              Pageable pageable);
+
+    @Query(value = "SELECT s.id AS id, MATCH(s.title, s.description) AGAINST (:query IN BOOLEAN MODE) AS relevance " +
+                   "FROM services s WHERE MATCH(s.title, s.description) AGAINST (:query IN BOOLEAN MODE) " +
+                   "AND (:category IS NULL OR s.category = :category) " +
+                   "AND (:location IS NULL OR s.location = :location) " +
+                   "ORDER BY relevance DESC, s.id",
+           countQuery = "SELECT COUNT(*) FROM services s WHERE MATCH(s.title, s.description) AGAINST (:query IN BOOLEAN MODE) " +
+                        "AND (:category IS NULL OR s.category = :category) " +
+                        "AND (:location IS NULL OR s.location = :location)",
+           nativeQuery = true)
+    Page<RelevanceView> searchFullTextBoolean(@Param("query") String query,
+                                              @Param("category") String category,
+                                              @Param("location") String location,
+                                              Pageable pageable);
+
+    // Paginação por chave: recebem Pageable só para o LIMIT, sem COUNT(*)
+
+    /**
+     * Mesma ordem de findListingByRanking, continuando depois de (rankingScore, id) pelo índice idx_ranking
+     */
+    @Query(LISTING_SELECT + "WHERE (s.rankingScore < :rankingScore OR (s.rankingScore = :rankingScore AND s.id < :id)) " +
+           "ORDER BY s.rankingScore DESC, s.id DESC")
+    List<ListingView> findRankedPageBefore(@Param("rankingScore") double rankingScore,
+                                       @Param("id") Long id,
+                                       Pageable limit);
+
+
+    @Query(LISTING_SELECT + "WHERE s.category = :category " +
+           "AND (s.createdAt < :createdAt OR (s.createdAt = :createdAt AND s.id < :id)) " +
+           "ORDER BY s.createdAt DESC, s.id DESC")
+    List<ListingView> findPageByCategoryBefore(@Param("category") String category,
+                                           @Param("createdAt") LocalDateTime createdAt,
+                                           @Param("id") Long id,
+                                           Pageable limit);
+
+    @Query(LISTING_SELECT + "WHERE s.location = :location " +
+           "AND (s.createdAt < :createdAt OR (s.createdAt = :createdAt AND s.id < :id)) " +
+           "ORDER BY s.createdAt DESC, s.id DESC")
+    List<ListingView> findPageByLocationBefore(@Param("location") String location,
+                                           @Param("createdAt") LocalDateTime createdAt,
+                                           @Param("id") Long id,
+                                           Pageable limit);
+
+    @EntityGraph(attributePaths = "provider")
     @Query("SELECT s FROM Service s WHERE s.category = :category AND s.location = :location")
     Page<Service> findByCategoryAndLocation(@Param("category") String category, 
                                            @Param("location") String location, 
                                            Pageable pageable);
+
+    /**
+     * Projeção de listagem: exatamente as colunas do ServiceDto, mais a chave do cursor por ranking
+     */
+    interface ListingView {
+        Long getId();
+        String getTitle();
+        String getDescription();
+        String getCategory();
+        Double getPrice();
+        String getLocation();
+        Double getLatitude();
+        Double getLongitude();
+        String getImageUrl();
+        Double getRating();
+        Integer getTotalReviews();
+        Integer getStars1();
+        Integer getStars2();
+        Integer getStars3();
+        Integer getStars4();
+        Integer getStars5();
+        Boolean getIsActive();
+        Double getRankingScore();
+        Long getProviderId();
+        String getProviderName();
+        LocalDateTime getCreatedAt();
+        LocalDateTime getUpdatedAt();
+    }
+
+    /**
+     * Projeção do resultado da busca FULLTEXT: ID do serviço e sua relevância
+     */
+    interface RelevanceView {
+        Long getId();
+        Double getRelevance();
+    }
+
+    /**
+     * Projeção da reputação de um serviço (nota e número de avaliações)
+     */
+    interface ReputationView extends SuggestionTrie.Reputation {
+    }
 }
@@ -1,25 +1,139 @@
 package com.conectabairro.repository;
 
+import com.conectabairro.dto.ServiceRequestDto;
 import com.conectabairro.model.ServiceRequest;
-import com.conectabairro.model.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
- * Repositório para operações com a entidade ServiceRequest
+ * Repositório para operações com a entidade ServiceRequest.
+ *
+ * <p>As leituras devolvem o ServiceRequestDto direto do banco (projeção {@code SELECT new} com os
+ * joins de serviço, provedor e cliente), em uma única consulta por página.</p>
  */
 @Repository
 public interface ServiceRequestRepository extends JpaRepository<ServiceRequest, Long> {
-    
-    Page<ServiceRequest> findByCustomer(User customer, Pageable pageable);
-    
-    Page<ServiceRequest> findByService_Provider(User provider, Pageable pageable);
-    
-    Optional<ServiceRequest> findByIdAndCustomer(Long id, User customer);
-    
-    Optional<ServiceRequest> findByIdAndService_Provider(Long id, User provider);
+
+    String SELECT_DTO = "SELECT new com.conectabairro.dto.ServiceRequestDto(" +
+            "r.id, s.id, CAST(r.status AS String), r.scheduledDate, r.notes, r.totalPrice, " +
+            "c.id, c.name, p.id, p.name, s.title, r.createdAt, r.updatedAt) " +
+            "FROM ServiceRequest r JOIN r.service s JOIN s.provider p JOIN r.customer c ";
+
+    @EntityGraph(attributePaths = {"service", "service.provider", "customer"})
+    Optional<ServiceRequest> findByIdAndCustomer_Id(Long id, Long customerId);
+
+    @EntityGraph(attributePaths = {"service", "service.provider", "customer"})
+    Optional<ServiceRequest> findByIdAndService_Provider_Id(Long id, Long providerId);
+
+    @Query(SELECT_DTO + "WHERE r.id = :id")
+    Optional<ServiceRequestDto> findDtoById(@Param("id") Long id);
+
+    /**
+     * Dados mínimos para validar uma transição em lote
+     */
+    interface TransitionCandidate {
+        Long getId();
+
+        String getStatus();
+
+        Long getServiceId();
+
+        Long getProviderId();
+
+        Double getTotalPrice();
+    }
+
+    /**
+     * Lê dono e status das requisições travando só as linhas de service_requests até o fim da
+     * transação, para que a transição em lote aplique exatamente o que foi validado
+     */
+    @Query(value = "SELECT r.id AS id, r.status AS status, r.service_id AS serviceId, s.provider_id AS providerId, " +
+                   "r.total_price AS totalPrice " +
+                   "FROM service_requests r JOIN services s ON s.id = r.service_id " +
+                   "WHERE r.id IN (:ids) FOR UPDATE OF r",
+           nativeQuery = true)
+    List<TransitionCandidate> lockTransitionCandidates(@Param("ids") Collection<Long> ids);
+
+    @Query(SELECT_DTO + "WHERE r.id IN :ids")
+    List<ServiceRequestDto> findDtoByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(value = SELECT_DTO + "WHERE c.id = :customerId",
+           countQuery = "SELECT COUNT(r) FROM ServiceRequest r WHERE r.customer.id = :customerId")
+    Page<ServiceRequestDto> findDtoByCustomerId(@Param("customerId") Long customerId, Pageable pageable);
+
+    @Query(value = SELECT_DTO + "WHERE r.providerId = :providerId",
+           countQuery = "SELECT COUNT(r) FROM ServiceRequest r WHERE r.providerId = :providerId")
+    Page<ServiceRequestDto> findDtoByProviderId(@Param("providerId") Long providerId, Pageable pageable);
+
+    @Query(SELECT_DTO + "WHERE c.id = :customerId " +
+           "AND (r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.id < :id)) " +
+           "ORDER BY r.createdAt DESC, r.id DESC")
+    List<ServiceRequestDto> findPageByCustomerBefore(@Param("customerId") Long customerId,
+                                                     @Param("createdAt") LocalDateTime createdAt,
+                                                     @Param("id") Long id,
+                                                     Pageable limit);
+
+    /**
+     * Filtra pela cópia {@code r.providerId}: o índice idx_provider_created entrega as linhas já na
+     * ordem do cursor e o LIMIT para a leitura, sem filesort, em qualquer profundidade. Filtrar por
+     * {@code p.id} obrigava a ler todas as requisições dos serviços do provedor e ordená-las.
+     */
+    @Query(SELECT_DTO + "WHERE r.providerId = :providerId " +
+           "AND (r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.id < :id)) " +
+           "ORDER BY r.createdAt DESC, r.id DESC")
+    List<ServiceRequestDto> findPageByProviderBefore(@Param("providerId") Long providerId,
+                                                     @Param("createdAt") LocalDateTime createdAt,
+                                                     @Param("id") Long id,
+                                                     Pageable limit);
+
+    /**
+     * Transição de status pelo provedor do serviço numa única instrução: só altera a linha se ela
+     * pertence ao provedor e ainda está num dos estados de origem, então cliques concorrentes não
+     * sobrescrevem um ao outro. Retorna 0 quando a transição não se aplica.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE ServiceRequest r SET r.status = :target, r.version = r.version + 1, r.updatedAt = :now " +
+           "WHERE r.id = :id AND r.status IN :sources " +
+           "AND r.service.id IN (SELECT s.id FROM Service s WHERE s.provider.id = :providerId)")
+    int transitionAsProvider(@Param("id") Long id,
+                             @Param("providerId") Long providerId,
+                             @Param("sources") Collection<ServiceRequest.RequestStatus> sources,
+                             @Param("target") ServiceRequest.RequestStatus target,
+                             @Param("now") LocalDateTime now);
+
+    /**
+     * Mesma transição condicional de {@link #transitionAsProvider}, restrita ao cliente da requisição
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE ServiceRequest r SET r.status = :target, r.version = r.version + 1, r.updatedAt = :now " +
+           "WHERE r.id = :id AND r.status IN :sources AND r.customer.id = :customerId")
+    int transitionAsCustomer(@Param("id") Long id,
+                             @Param("customerId") Long customerId,
+                             @Param("sources") Collection<ServiceRequest.RequestStatus> sources,
+                             @Param("target") ServiceRequest.RequestStatus target,
+                             @Param("now") LocalDateTime now);
+
+    /**
+     * Versão em lote de {@link #transitionAsProvider}: uma instrução para todas as requisições
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE ServiceRequest r SET r.status = :target, r.version = r.version + 1, r.updatedAt = :now " +
+           "WHERE r.id IN :ids AND r.status IN :sources " +
+           "AND r.service.id IN (SELECT s.id FROM Service s WHERE s.provider.id = :providerId)")
+    int transitionAllAsProvider(@Param("ids") Collection<Long> ids,
+                                @Param("providerId") Long providerId,
+                                @Param("sources") Collection<ServiceRequest.RequestStatus> sources,
+                                @Param("target") ServiceRequest.RequestStatus target,
+                                @Param("now") LocalDateTime now);
 }
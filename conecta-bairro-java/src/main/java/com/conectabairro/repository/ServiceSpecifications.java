@@ -0,0 +1,72 @@
+package com.conectabairro.repository;
+
+import com.conectabairro.dto.ServiceFilter;
+import com.conectabairro.model.Service;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Monta a consulta da listagem de serviços com filtros combinados.
+ *
+ * <p>A consulta gerada segue sempre o mesmo formato, casando com os índices compostos
+ * {@code (is_active, [category | location], <coluna de ordenação>)} do schema:
+ * igualdades primeiro (is_active sempre presente), a ordenação por uma única coluna
+ * seguida do id na mesma direção, e as faixas de preço/nota como filtros residuais.
+ * Assim nenhuma combinação de filtros cai em varredura completa ou filesort.</p>
+ */
+public final class ServiceSpecifications {
+
+    private ServiceSpecifications() {
+    }
+
+    public static Specification<Service> matching(ServiceFilter filter) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+
+            predicates.add(cb.equal(root.get("isActive"), filter.getIsActive() == null || filter.getIsActive()));
+            if (filter.getCategory() != null) {
+                predicates.add(cb.equal(root.get("category"), filter.getCategory()));
+            }
+            if (filter.getLocation() != null) {
+                predicates.add(cb.equal(root.get("location"), filter.getLocation()));
+            }
+            if (filter.getMinPrice() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("price"), filter.getMinPrice()));
+            }
+            if (filter.getMaxPrice() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("price"), filter.getMaxPrice()));
+            }
+            if (filter.getMinRating() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("rating"), filter.getMinRating()));
+            }
+
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    /**
+     * Página ordenada pela chave pedida, com o id como desempate na mesma direção
+     * (o InnoDB anexa a chave primária a todo índice secundário)
+     */
+    public static Pageable pageable(ServiceFilter filter, int page, int size) {
+        Sort sort;
+        switch (filter.getSort() != null ? filter.getSort() : ServiceFilter.SortKey.NEWEST) {
+            case PRICE:
+                sort = Sort.by(Sort.Order.asc("price"), Sort.Order.asc("id"));
+                break;
+            case RATING:
+                sort = Sort.by(Sort.Order.desc("rating"), Sort.Order.desc("id"));
+                break;
+            default:
+                sort = Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id"));
+                break;
+        }
+        return PageRequest.of(page, size, sort);
+    }
+}
@@ -1,7 +1,13 @@
 package com.conectabairro.repository;
 
 import com.conectabairro.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -11,6 +17,57 @@ import java.util.Optional;
  */
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "users-by-email")
+    })
     Optional<User> findByEmail(String email);
+
     boolean existsByEmail(String email);
+
+    /**
+     * Deltas acumulados de avaliações nos agregados e no histograma do provedor, em um único UPDATE
+     * atômico (SET avaliado da esquerda para a direita, como em ServiceRepository#applyRatingDelta)
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = ServiceRepository.AGGREGATES_SPACE))
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE users SET rating_sum = rating_sum + :sumDelta, " +
+                   "total_reviews = total_reviews + :countDelta, " +
+                   "stars_1 = stars_1 + :stars1, stars_2 = stars_2 + :stars2, stars_3 = stars_3 + :stars3, " +
+                   "stars_4 = stars_4 + :stars4, stars_5 = stars_5 + :stars5, " +
+                   "rating = IF(total_reviews > 0, rating_sum / total_reviews, 0) " +
+                   "WHERE id = :id",
+           nativeQuery = true)
+    int applyRatingDelta(@Param("id") Long id,
+                         @Param("sumDelta") int sumDelta,
+                         @Param("countDelta") int countDelta,
+                         @Param("stars1") int stars1,
+                         @Param("stars2") int stars2,
+                         @Param("stars3") int stars3,
+                         @Param("stars4") int stars4,
+                         @Param("stars5") int stars5);
+
+    /**
+     * Recalcula em massa os agregados dos provedores a partir das avaliações dos seus serviços
+     */
+    @Modifying
+    @Query(value = "UPDATE users u " +
+                   "LEFT JOIN (SELECT s.provider_id, SUM(r.rating) AS total, COUNT(*) AS cnt, " +
+                   "                  SUM(r.rating = 1) AS s1, SUM(r.rating = 2) AS s2, SUM(r.rating = 3) AS s3, " +
+                   "                  SUM(r.rating = 4) AS s4, SUM(r.rating = 5) AS s5 " +
+                   "           FROM reviews r JOIN services s ON s.id = r.service_id " +
+                   "           GROUP BY s.provider_id) a ON a.provider_id = u.id " +
+                   "SET u.rating_sum = COALESCE(a.total, 0), " +
+                   "    u.total_reviews = COALESCE(a.cnt, 0), " +
+                   "    u.rating = COALESCE(a.total / a.cnt, 0), " +
+                   "    u.stars_1 = COALESCE(a.s1, 0), u.stars_2 = COALESCE(a.s2, 0), " +
+                   "    u.stars_3 = COALESCE(a.s3, 0), u.stars_4 = COALESCE(a.s4, 0), " +
+                   "    u.stars_5 = COALESCE(a.s5, 0) " +
+                   "WHERE u.user_type = 'SERVICE_PROVIDER' " +
+                   "  AND (u.rating_sum <> COALESCE(a.total, 0) OR u.total_reviews <> COALESCE(a.cnt, 0) " +
+                   "       OR u.stars_1 <> COALESCE(a.s1, 0) OR u.stars_2 <> COALESCE(a.s2, 0) " +
+                   "       OR u.stars_3 <> COALESCE(a.s3, 0) OR u.stars_4 <> COALESCE(a.s4, 0) " +
+                   "       OR u.stars_5 <> COALESCE(a.s5, 0))",
+           nativeQuery = true)
+    int recomputeProviderAggregates();
 }
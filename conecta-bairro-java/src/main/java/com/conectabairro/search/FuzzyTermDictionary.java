@@ -0,0 +1,227 @@
+package com.conectabairro.search;
+
+import com.conectabairro.model.Service;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Dicionário em memória das palavras de títulos e categorias, usado para corrigir erros de digitação
+ * ("encanadro" → "encanador"). Os candidatos vêm de um índice de trigramas e só eles passam pelo
+ * cálculo de distância de edição, que é limitado e interrompido assim que excede o máximo permitido.
+ * Palavras presentes em qualquer campo do {@link ServiceSearchIndex} (inclusive descrições) são
+ * consideradas corretas e nunca reescritas.
+ */
+@Component
+@Slf4j
+public class FuzzyTermDictionary {
+
+    private static final int MIN_WORD_LENGTH = 3;
+    private static final int MAX_CANDIDATES = 50;
+    private static final double MIN_TRIGRAM_OVERLAP = 0.3;
+
+    @Autowired
+    private ServiceSearchIndex searchIndex;
+
+    private final Map<String, Integer> frequencies = new HashMap<>();
+    private final Map<String, Set<String>> trigrams = new HashMap<>();
+    private final Map<Long, List<String>> wordsByService = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Consulta corrigida; {@code changed} indica se alguma palavra foi trocada
+     */
+    public record Correction(String query, boolean changed) {
+    }
+
+    public void rebuild(Collection<Service> services) {
+        lock.writeLock().lock();
+        try {
+            frequencies.clear();
+            trigrams.clear();
+            wordsByService.clear();
+            for (Service service : services) {
+                addService(service);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Dicionário de correção construído com {} palavras", frequencies.size());
+    }
+
+    public void index(Service service) {
+        lock.writeLock().lock();
+        try {
+            removeService(service.getId());
+            addService(service);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long serviceId) {
+        lock.writeLock().lock();
+        try {
+            removeService(serviceId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Corrige palavra a palavra; palavras conhecidas, curtas demais ou sem candidato próximo são mantidas
+     */
+    public Correction correct(String query) {
+        List<String> words = TextAnalyzer.words(query);
+        List<String> corrected = new ArrayList<>(words.size());
+        boolean changed = false;
+
+        lock.readLock().lock();
+        try {
+            for (String word : words) {
+                String best = closest(word);
+                changed |= !best.equals(word);
+                corrected.add(best);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return new Correction(String.join(" ", corrected), changed);
+    }
+
+    private String closest(String word) {
+        if (word.length() < MIN_WORD_LENGTH || frequencies.containsKey(word)) {
+            return word;
+        }
+        // Já tem resultados (ex.: palavra só de descrições): trocá-la esconderia serviços que casam
+        if (searchIndex.containsWord(word)) {
+            return word;
+        }
+
+        // Geração de candidatos: palavras que compartilham trigramas com a digitada
+        Set<String> grams = trigramsOf(word);
+        Map<String, Integer> shared = new HashMap<>();
+        for (String gram : grams) {
+            for (String candidate : trigrams.getOrDefault(gram, Set.of())) {
+                shared.merge(candidate, 1, Integer::sum);
+            }
+        }
+
+        List<Map.Entry<String, Integer>> candidates = new ArrayList<>(shared.entrySet());
+        candidates.removeIf(entry -> overlap(entry.getValue(), grams.size(), entry.getKey()) < MIN_TRIGRAM_OVERLAP);
+        candidates.sort(Map.Entry.<String, Integer>comparingByValue().reversed());
+
+        int maxDistance = word.length() <= 4 ? 1 : 2;
+        String best = word;
+        int bestDistance = maxDistance + 1;
+        int bestFrequency = 0;
+        for (Map.Entry<String, Integer> entry : candidates.subList(0, Math.min(MAX_CANDIDATES, candidates.size()))) {
+            String candidate = entry.getKey();
+            int distance = boundedDistance(word, candidate, maxDistance);
+            int frequency = frequencies.get(candidate);
+            if (distance < bestDistance || (distance == bestDistance && frequency > bestFrequency)) {
+                best = candidate;
+                bestDistance = distance;
+                bestFrequency = frequency;
+            }
+        }
+        return best;
+    }
+
+    private static double overlap(int sharedCount, int queryGrams, String candidate) {
+        // Coeficiente de Dice entre os conjuntos de trigramas
+        return 2.0 * sharedCount / (queryGrams + candidate.length() + 1);
+    }
+
+    /**
+     * Distância de Damerau-Levenshtein (transposição de vizinhos conta 1), ou {@code max + 1}
+     * assim que toda a linha da matriz ultrapassa o limite
+     */
+    static int boundedDistance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) {
+            return max + 1;
+        }
+
+        int[] previous2 = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, previous2[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        return Math.min(previous[b.length()], max + 1);
+    }
+
+    /**
+     * Trigramas com bordas marcadas ("$$e", "$en", ..., "or$"), para favorecer início e fim iguais
+     */
+    private static Set<String> trigramsOf(String word) {
+        String padded = "$$" + word + "$";
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    private void addService(Service service) {
+        Set<String> words = new HashSet<>(TextAnalyzer.words(service.getTitle()));
+        words.addAll(TextAnalyzer.words(service.getCategory()));
+        words.removeIf(word -> word.length() < MIN_WORD_LENGTH || Character.isDigit(word.charAt(0)));
+
+        for (String word : words) {
+            if (frequencies.merge(word, 1, Integer::sum) == 1) {
+                for (String gram : trigramsOf(word)) {
+                    trigrams.computeIfAbsent(gram, key -> new HashSet<>()).add(word);
+                }
+            }
+        }
+        wordsByService.put(service.getId(), new ArrayList<>(words));
+    }
+
+    private void removeService(Long serviceId) {
+        List<String> words = wordsByService.remove(serviceId);
+        if (words == null) {
+            return;
+        }
+        for (String word : words) {
+            Integer remaining = frequencies.merge(word, -1, Integer::sum);
+            if (remaining != null && remaining <= 0) {
+                frequencies.remove(word);
+                for (String gram : trigramsOf(word)) {
+                    Set<String> bucket = trigrams.get(gram);
+                    if (bucket != null) {
+                        bucket.remove(word);
+                        if (bucket.isEmpty()) {
+                            trigrams.remove(gram);
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
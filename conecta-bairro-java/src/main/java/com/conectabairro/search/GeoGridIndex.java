@@ -0,0 +1,162 @@
+package com.conectabairro.search;
+
+import com.conectabairro.model.Service;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice espacial em memória (grade regular de latitude/longitude) para a busca "perto de mim".
+ * Uma consulta visita apenas as células que cobrem o raio pedido e calcula a distância
+ * exata (haversine) só para os serviços dessas células.
+ */
+@Component
+@Slf4j
+public class GeoGridIndex {
+
+    public static final double MAX_RADIUS_KM = 50.0;
+
+    private static final double CELL_SIZE_DEGREES = 0.01; // ~1,1 km no equador
+    private static final double EARTH_RADIUS_KM = 6371.0;
+    private static final double KM_PER_DEGREE = 111.32;
+
+    private final Map<Long, Set<Long>> cells = new HashMap<>();
+    private final Map<Long, Point> points = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Serviço encontrado e sua distância até o ponto de busca
+     */
+    public record NearbyHit(Long serviceId, double distanceKm) {
+    }
+
+    /**
+     * Ponto indexado; a categoria fica guardada já em {@link TextAnalyzer#collate}
+     */
+    private record Point(double latitude, double longitude, String category, long cell) {
+    }
+
+    public void rebuild(Collection<Service> services) {
+        lock.writeLock().lock();
+        try {
+            cells.clear();
+            points.clear();
+            for (Service service : services) {
+                addPoint(service);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Índice geográfico construído com {} serviços", points.size());
+    }
+
+    public void index(Service service) {
+        lock.writeLock().lock();
+        try {
+            removePoint(service.getId());
+            addPoint(service);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long serviceId) {
+        lock.writeLock().lock();
+        try {
+            removePoint(serviceId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Serviços dentro do raio, do mais próximo para o mais distante
+     */
+    public List<NearbyHit> nearby(double latitude, double longitude, double radiusKm, String category, int limit) {
+        double radius = Math.min(radiusKm, MAX_RADIUS_KM);
+        double latDelta = radius / KM_PER_DEGREE;
+        double lonDelta = radius / (KM_PER_DEGREE * Math.max(Math.cos(Math.toRadians(latitude)), 0.01));
+
+        int minRow = row(latitude - latDelta);
+        int maxRow = row(latitude + latDelta);
+        int minColumn = column(longitude - lonDelta);
+        int maxColumn = column(longitude + lonDelta);
+
+        String categoryKey = category != null ? TextAnalyzer.collate(category) : null;
+        List<NearbyHit> hits = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (int r = minRow; r <= maxRow; r++) {
+                for (int c = minColumn; c <= maxColumn; c++) {
+                    Set<Long> ids = cells.get(cellKey(r, c));
+                    if (ids == null) {
+                        continue;
+                    }
+                    for (Long id : ids) {
+                        Point point = points.get(id);
+                        if (categoryKey != null && !categoryKey.equals(point.category())) {
+                            continue;
+                        }
+                        double distance = distanceKm(latitude, longitude, point.latitude(), point.longitude());
+                        if (distance <= radius) {
+                            hits.add(new NearbyHit(id, distance));
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        hits.sort(Comparator.comparingDouble(NearbyHit::distanceKm).thenComparing(NearbyHit::serviceId));
+        return hits.size() > limit ? new ArrayList<>(hits.subList(0, limit)) : hits;
+    }
+
+    public static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    private void addPoint(Service service) {
+        if (service.getLatitude() == null || service.getLongitude() == null) {
+            return;
+        }
+        long cell = cellKey(row(service.getLatitude()), column(service.getLongitude()));
+        points.put(service.getId(),
+                new Point(service.getLatitude(), service.getLongitude(), TextAnalyzer.collate(service.getCategory()), cell));
+        cells.computeIfAbsent(cell, key -> new HashSet<>()).add(service.getId());
+    }
+
+    private void removePoint(Long serviceId) {
+        Point point = points.remove(serviceId);
+        if (point == null) {
+            return;
+        }
+        Set<Long> ids = cells.get(point.cell());
+        if (ids != null) {
+            ids.remove(serviceId);
+            if (ids.isEmpty()) {
+                cells.remove(point.cell());
+            }
+        }
+    }
+
+    private static int row(double latitude) {
+        return (int) Math.floor(latitude / CELL_SIZE_DEGREES);
+    }
+
+    private static int column(double longitude) {
+        return (int) Math.floor(longitude / CELL_SIZE_DEGREES);
+    }
+
+    private static long cellKey(int row, int column) {
+        return ((long) row << 32) | (column & 0xffffffffL);
+    }
+}
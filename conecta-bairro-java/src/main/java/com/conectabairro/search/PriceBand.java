@@ -0,0 +1,43 @@
+package com.conectabairro.search;
+
+/**
+ * Faixas de preço usadas como facetas na listagem de serviços
+ */
+public enum PriceBand {
+    ATE_50("0-50", 0, 50),
+    DE_50_A_100("50-100", 50, 100),
+    DE_100_A_200("100-200", 100, 200),
+    ACIMA_DE_200("200+", 200, Double.MAX_VALUE);
+
+    private final String label;
+    private final double min;
+    private final double max;
+
+    PriceBand(String label, double min, double max) {
+        this.label = label;
+        this.min = min;
+        this.max = max;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public static PriceBand of(double price) {
+        for (PriceBand band : values()) {
+            if (price >= band.min && price < band.max) {
+                return band;
+            }
+        }
+        return ACIMA_DE_200;
+    }
+
+    public static PriceBand fromLabel(String label) {
+        for (PriceBand band : values()) {
+            if (band.label.equals(label) || band.name().equalsIgnoreCase(label)) {
+                return band;
+            }
+        }
+        throw new IllegalArgumentException("Faixa de preço inválida: " + label);
+    }
+}
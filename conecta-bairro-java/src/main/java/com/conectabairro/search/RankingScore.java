@@ -0,0 +1,56 @@
+package com.conectabairro.search;
+
+import com.conectabairro.model.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Pontuação "melhores primeiro" da listagem de serviços, gravada em {@code services.ranking_score}.
+ *
+ * <p>{@code score = ln(qualidade) + diasDesdeEpoch / RECENCY_DAYS}, em que a qualidade combina a nota
+ * bayesiana (nota puxada para a média enquanto há poucas avaliações) com o volume de requisições
+ * concluídas. Somar a data de criação no domínio do logaritmo ordena exatamente como
+ * {@code qualidade * e^(-idade / RECENCY_DAYS)}, mas o valor não muda com o passar do tempo:
+ * só precisa ser recalculado quando nota, avaliações ou requisições concluídas mudam.</p>
+ *
+ * <p>{@link #SQL} é a mesma fórmula em MySQL, usada nos UPDATEs atômicos que aplicam deltas de
+ * avaliações e de requisições concluídas direto no banco.</p>
+ */
+public final class RankingScore {
+
+    /** Nota assumida para um serviço sem avaliações */
+    private static final double PRIOR_RATING = 3.5;
+
+    /** Peso da nota assumida, em "avaliações virtuais" */
+    private static final double PRIOR_WEIGHT = 5.0;
+
+    private static final double VOLUME_WEIGHT = 0.5;
+
+    /** Um serviço criado há RECENCY_DAYS precisa de qualidade e (~2,7) vezes maior para empatar */
+    private static final double RECENCY_DAYS = 180.0;
+
+    /**
+     * Expressão SQL equivalente a {@link #of(Service)} sobre as colunas de {@code services}
+     */
+    public static final String SQL = "LN(GREATEST("
+            + "(" + PRIOR_RATING + " * " + PRIOR_WEIGHT + " + rating_sum) / (" + PRIOR_WEIGHT + " + total_reviews) / 5"
+            + " * (1 + " + VOLUME_WEIGHT + " * LN(1 + completed_requests)), 0.000001))"
+            + " + UNIX_TIMESTAMP(created_at) / 86400 / " + RECENCY_DAYS;
+
+    private RankingScore() {
+    }
+
+    public static double of(Service service) {
+        long ratingSum = service.getRatingSum() != null ? service.getRatingSum() : 0L;
+        int reviews = service.getTotalReviews() != null ? service.getTotalReviews() : 0;
+        int completed = service.getCompletedRequests() != null ? service.getCompletedRequests() : 0;
+        LocalDateTime createdAt = service.getCreatedAt() != null ? service.getCreatedAt() : LocalDateTime.now();
+
+        double bayesianRating = (PRIOR_RATING * PRIOR_WEIGHT + ratingSum) / (PRIOR_WEIGHT + reviews);
+        double quality = (bayesianRating / 5.0) * (1.0 + VOLUME_WEIGHT * Math.log1p(completed));
+        double epochDays = createdAt.atZone(ZoneId.systemDefault()).toEpochSecond() / 86_400.0;
+
+        return Math.log(Math.max(quality, 1e-6)) + epochDays / RECENCY_DAYS;
+    }
+}
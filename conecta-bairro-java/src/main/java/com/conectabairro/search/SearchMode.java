@@ -0,0 +1,10 @@
+package com.conectabairro.search;
+
+/**
+ * Modos de busca disponíveis em {@code GET /services/search}
+ */
+public enum SearchMode {
+    INDEX,      // índice invertido em memória
+    NATURAL,    // MySQL FULLTEXT em linguagem natural
+    BOOLEAN     // MySQL FULLTEXT em modo booleano (+termo -termo termo*)
+}
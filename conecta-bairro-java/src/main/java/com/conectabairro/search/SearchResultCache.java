@@ -0,0 +1,315 @@
+package com.conectabairro.search;
+
+import com.conectabairro.dto.ServiceDto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Cache limitado (Caffeine, com TTL) das páginas de busca e de listagem por categoria/localização.
+ *
+ * <p>A invalidação é precisa: uma alteração de serviço remove apenas as páginas que o contêm,
+ * as listagens da sua categoria/localização (antiga e nova) e as buscas cujos termos aparecem
+ * no serviço. O cache também conta a frequência de cada consulta; as mais populares são
+ * recarregadas em segundo plano na inicialização e logo depois de invalidadas; os incrementos são
+ * drenados periodicamente para o banco ({@code SearchQueryStatsJob}), de modo que o aquecimento
+ * após um restart parte das consultas realmente populares.</p>
+ *
+ * <p>Cada invalidação avança uma geração. Uma página só é gravada se nenhuma invalidação aconteceu
+ * desde que começou a ser carregada, então uma leitura lenta que viu os dados antigos não
+ * repõe no cache uma página que acabou de ser invalidada.</p>
+ *
+ * <p>Páginas e contadores de frequência ficam em caches Caffeine limitados: a leitura não toma
+ * lock global e, cheio, o cache descarta a entrada menos útil (W-TinyLFU) em O(1) amortizado.
+ * Só a invalidação percorre as páginas em cache.</p>
+ */
+@Component
+@Slf4j
+public class SearchResultCache {
+
+    private static final int MAX_TRACKED_QUERIES = 10_000;
+
+    public enum Kind {
+        SEARCH,
+        CATEGORY,
+        LOCATION
+    }
+
+    /**
+     * Chave de uma página em cache; em buscas, {@code value} é a frase normalizada e, nas listagens,
+     * o valor normalizado como a collation do MySQL o compara
+     */
+    public record CacheKey(Kind kind, String value, int page, int size) {
+    }
+
+    /**
+     * Estado de um serviço relevante para invalidação (antes e/ou depois de uma alteração)
+     */
+    public record CatalogChange(Long serviceId, Set<String> categories, Set<String> locations, Set<String> terms) {
+
+        public static CatalogChange of(com.conectabairro.model.Service service) {
+            Set<String> terms = new HashSet<>();
+            terms.addAll(TextAnalyzer.terms(service.getTitle()));
+            terms.addAll(TextAnalyzer.terms(service.getCategory()));
+            terms.addAll(TextAnalyzer.terms(service.getDescription()));
+            return new CatalogChange(service.getId(),
+                    new HashSet<>(Collections.singleton(TextAnalyzer.collate(service.getCategory()))),
+                    new HashSet<>(Collections.singleton(TextAnalyzer.collate(service.getLocation()))),
+                    terms);
+        }
+
+        public CatalogChange merge(CatalogChange other) {
+            Set<String> mergedCategories = new HashSet<>(categories);
+            mergedCategories.addAll(other.categories);
+            Set<String> mergedLocations = new HashSet<>(locations);
+            mergedLocations.addAll(other.locations);
+            Set<String> mergedTerms = new HashSet<>(terms);
+            mergedTerms.addAll(other.terms);
+            return new CatalogChange(serviceId, mergedCategories, mergedLocations, mergedTerms);
+        }
+    }
+
+    private record Entry(Page<ServiceDto> page, Set<Long> serviceIds, Set<String> queryTerms) {
+    }
+
+    @Value("${app.search-cache.max-entries:1000}")
+    private int maxEntries;
+
+    @Value("${app.search-cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    @Value("${app.search-cache.warm-top:20}")
+    private int warmTop;
+
+    @Value("${app.search-cache.warm-queries:}")
+    private List<String> warmQueries;
+
+    private Cache<CacheKey, Entry> entries;
+    private Cache<CacheKey, LongAdder> frequencies;
+    private final Map<CacheKey, LongAdder> unsavedHits = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final ExecutorService warmer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "search-cache-warmer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PostConstruct
+    void init() {
+        entries = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                // Manutenção (despejo) na própria thread, em O(1) amortizado: sem tarefas no commonPool
+                .executor(Runnable::run)
+                .build();
+        // Cheio, descarta as consultas raras: a admissão do Caffeine já compara frequências
+        frequencies = Caffeine.newBuilder()
+                .maximumSize(MAX_TRACKED_QUERIES)
+                .executor(Runnable::run)
+                .build();
+    }
+
+    public static CacheKey key(Kind kind, String value, int page, int size) {
+        String normalized = kind == Kind.SEARCH ? TextAnalyzer.phrase(value) : TextAnalyzer.collate(value);
+        return new CacheKey(kind, normalized, page, size);
+    }
+
+    /**
+     * Devolve a página em cache ou a carrega com {@code loader}, registrando a frequência da consulta
+     */
+    public Page<ServiceDto> get(CacheKey key, Function<CacheKey, Page<ServiceDto>> loader) {
+        recordHit(key);
+        long observed = generation.get();
+
+        Entry entry = entries.getIfPresent(key);
+        if (entry != null) {
+            return entry.page();
+        }
+
+        Page<ServiceDto> page = loader.apply(key);
+        put(key, page, observed);
+        return page;
+    }
+
+    /**
+     * Remove as páginas afetadas pela alteração e recarrega, em segundo plano, as que são populares
+     */
+    public void invalidate(CatalogChange change, Function<CacheKey, Page<ServiceDto>> loader) {
+        List<CacheKey> invalidated = removeIf((key, entry) -> isAffected(key, entry, change));
+
+        if (!invalidated.isEmpty()) {
+            log.debug("Cache de busca: {} páginas invalidadas pelo serviço {}", invalidated.size(), change.serviceId());
+            Set<CacheKey> hot = new HashSet<>(topQueries(warmTop));
+            warm(invalidated.stream().filter(hot::contains).collect(Collectors.toList()), loader);
+        }
+    }
+
+    /**
+     * Remove as páginas que exibem algum dos serviços (ex.: nota e total de avaliações mudaram);
+     * a filtragem e a ordem das buscas não dependem da nota, então as demais páginas continuam válidas
+     */
+    public void invalidateServices(Collection<Long> serviceIds) {
+        List<CacheKey> invalidated = removeIf((key, entry) -> !Collections.disjoint(entry.serviceIds(), serviceIds));
+        if (!invalidated.isEmpty()) {
+            log.debug("Cache de busca: {} páginas invalidadas por {} serviços", invalidated.size(), serviceIds.size());
+        }
+    }
+
+    /**
+     * Descarta todas as páginas (ex.: depois do recálculo completo dos agregados)
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        entries.invalidateAll();
+    }
+
+    /**
+     * Aquece as consultas configuradas e as mais frequentes até agora (primeira página)
+     */
+    public void warmUp(int pageSize, Function<CacheKey, Page<ServiceDto>> loader) {
+        Set<CacheKey> keys = new LinkedHashSet<>();
+        for (String query : warmQueries) {
+            if (!query.isBlank()) {
+                keys.add(key(Kind.SEARCH, query, 0, pageSize));
+            }
+        }
+        keys.addAll(topQueries(warmTop));
+        warm(keys, loader);
+    }
+
+    /**
+     * Soma frequências persistidas às da memória, antes do aquecimento da inicialização
+     */
+    public void seedFrequencies(Map<CacheKey, Long> persisted) {
+        persisted.forEach((key, hits) -> frequencies.get(key, k -> new LongAdder()).add(hits));
+    }
+
+    /**
+     * Entrega e zera os acessos ainda não persistidos; um acesso concorrente à drenagem pode se perder,
+     * o que é aceitável para uma estatística de popularidade
+     */
+    public Map<CacheKey, Long> drainUnsavedHits() {
+        Map<CacheKey, Long> drained = new HashMap<>();
+        for (CacheKey key : unsavedHits.keySet()) {
+            LongAdder hits = unsavedHits.remove(key);
+            if (hits != null && hits.sum() > 0) {
+                drained.put(key, hits.sum());
+            }
+        }
+        return drained;
+    }
+
+    /**
+     * Devolve acessos que não puderam ser persistidos para a próxima drenagem
+     */
+    public void restoreUnsavedHits(Map<CacheKey, Long> hits) {
+        hits.forEach((key, count) -> unsavedHits.computeIfAbsent(key, k -> new LongAdder()).add(count));
+    }
+
+    public List<CacheKey> topQueries(int limit) {
+        return frequencies.asMap().entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<CacheKey, LongAdder> entry) -> entry.getValue().sum())
+                        .reversed())
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+    }
+
+    public long size() {
+        return entries.estimatedSize();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        warmer.shutdownNow();
+    }
+
+    /**
+     * Avança a geração antes de varrer: uma página gravada depois da varredura vê a geração nova
+     * em {@link #put} e se desfaz sozinha
+     */
+    private List<CacheKey> removeIf(BiPredicate<CacheKey, Entry> affected) {
+        generation.incrementAndGet();
+        List<CacheKey> invalidated = new ArrayList<>();
+        Map<CacheKey, Entry> cached = entries.asMap();
+        cached.forEach((key, entry) -> {
+            if (affected.test(key, entry) && cached.remove(key, entry)) {
+                invalidated.add(key);
+            }
+        });
+        return invalidated;
+    }
+
+    /**
+     * Grava a página, a menos que alguma invalidação tenha acontecido desde {@code observed}.
+     * Sem lock: grava e confere a geração de novo, desfazendo a gravação se uma invalidação
+     * começou no meio (e pode ter varrido o cache antes de a página entrar).
+     */
+    private void put(CacheKey key, Page<ServiceDto> page, long observed) {
+        if (generation.get() != observed) {
+            return;
+        }
+        Set<Long> ids = page.getContent().stream()
+                .map(ServiceDto::getId)
+                .collect(Collectors.toSet());
+        Set<String> queryTerms = key.kind() == Kind.SEARCH
+                ? new HashSet<>(TextAnalyzer.terms(key.value()))
+                : Set.of();
+        Entry entry = new Entry(page, ids, queryTerms);
+
+        entries.put(key, entry);
+        if (generation.get() != observed) {
+            entries.asMap().remove(key, entry);
+        }
+    }
+
+    private void warm(Collection<CacheKey> keys, Function<CacheKey, Page<ServiceDto>> loader) {
+        for (CacheKey key : keys) {
+            warmer.execute(() -> {
+                try {
+                    long observed = generation.get();
+                    put(key, loader.apply(key), observed);
+                } catch (RuntimeException e) {
+                    log.warn("Falha ao aquecer o cache de busca para {}: {}", key, e.getMessage());
+                }
+            });
+        }
+    }
+
+    private void recordHit(CacheKey key) {
+        frequencies.get(key, k -> new LongAdder()).increment();
+        if (unsavedHits.size() < MAX_TRACKED_QUERIES || unsavedHits.containsKey(key)) {
+            unsavedHits.computeIfAbsent(key, k -> new LongAdder()).increment();
+        }
+    }
+
+    private static boolean isAffected(CacheKey key, Entry entry, CatalogChange change) {
+        if (entry.serviceIds().contains(change.serviceId())) {
+            return true;
+        }
+        switch (key.kind()) {
+            case CATEGORY:
+                return change.categories().contains(key.value());
+            case LOCATION:
+                return change.locations().contains(key.value());
+            default:
+                return !Collections.disjoint(entry.queryTerms(), change.terms());
+        }
+    }
+}
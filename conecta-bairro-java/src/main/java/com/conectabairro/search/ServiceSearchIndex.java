@@ -0,0 +1,351 @@
+package com.conectabairro.search;
+
+import com.conectabairro.model.Service;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice invertido em memória sobre título, descrição e categoria dos serviços.
+ * Substitui o {@code LIKE '%kw%'} do banco: a busca devolve apenas os IDs
+ * ranqueados da página pedida, e somente essa página é carregada do banco.
+ */
+@Component
+@Slf4j
+public class ServiceSearchIndex {
+
+    private static final float TITLE_WEIGHT = 3.0f;
+    private static final float CATEGORY_WEIGHT = 2.0f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+
+    private final Map<String, Map<Long, Float>> postings = new HashMap<>();
+    private final Map<Long, Document> documents = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile boolean ready = false;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Reconstrói o índice inteiro a partir da lista de serviços
+     */
+    public void rebuild(Collection<Service> services) {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            for (Service service : services) {
+                addDocument(service);
+            }
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Índice de busca construído com {} serviços", services.size());
+    }
+
+    /**
+     * Indexa (ou reindexa) um serviço
+     */
+    public void index(Service service) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(service.getId());
+            addDocument(service);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long serviceId) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(serviceId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Indica se a palavra (já normalizada por {@link TextAnalyzer#words}) aparece em algum serviço,
+     * em qualquer campo indexado
+     */
+    public boolean containsWord(String word) {
+        lock.readLock().lock();
+        try {
+            return postings.containsKey(TextAnalyzer.stem(word));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public SearchHits search(String query, int offset, int limit) {
+        return search(query, null, null, offset, limit);
+    }
+
+    /**
+     * Busca os serviços que contêm algum dos termos da consulta, ordenados por relevância
+     * (TF-IDF com peso por campo, penalizando documentos que casam poucos termos).
+     * Categoria e localização, quando informadas, filtram pela mesma igualdade do banco
+     * ({@link TextAnalyzer#collate}: sem diferença de maiúsculas nem de acentos).
+     */
+    public SearchHits search(String query, String category, String location, int offset, int limit) {
+        Set<String> queryTerms = new LinkedHashSet<>(TextAnalyzer.terms(query));
+        if (queryTerms.isEmpty()) {
+            return SearchHits.empty();
+        }
+
+        String categoryKey = collateFilter(category);
+        String locationKey = collateFilter(location);
+
+        lock.readLock().lock();
+        try {
+            List<Hit> hits = new ArrayList<>();
+            for (Map.Entry<Long, Double> entry : score(queryTerms).entrySet()) {
+                if (documents.get(entry.getKey()).matches(categoryKey, locationKey, null)) {
+                    hits.add(new Hit(entry.getKey(), entry.getValue()));
+                }
+            }
+            return new SearchHits(topIds(hits, offset, limit), hits.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Busca com facetas: em uma única passada sobre o conjunto encontrado, separa a página
+     * pedida e conta serviços por categoria, bairro e faixa de preço. Cada faceta ignora o
+     * próprio filtro (mas respeita os demais), para que o usuário veja as alternativas.
+     * Sem palavra-chave, percorre o catálogo inteiro com os mais recentes primeiro.
+     * Variantes de grafia ("Limpeza"/"limpeza") somam na mesma faceta, rotulada pela primeira
+     * em ordem alfabética.
+     */
+    public FacetedHits facetedSearch(String query, String category, String location, PriceBand priceBand,
+                                     int offset, int limit) {
+        Set<String> queryTerms = new LinkedHashSet<>(TextAnalyzer.terms(query));
+        String categoryKey = collateFilter(category);
+        String locationKey = collateFilter(location);
+
+        lock.readLock().lock();
+        try {
+            Map<Long, Double> candidates;
+            if (queryTerms.isEmpty()) {
+                candidates = new HashMap<>(documents.size());
+                for (Long id : documents.keySet()) {
+                    candidates.put(id, id.doubleValue());
+                }
+            } else {
+                candidates = score(queryTerms);
+            }
+
+            Map<String, FacetCount> categories = new TreeMap<>();
+            Map<String, FacetCount> locations = new TreeMap<>();
+            Map<String, Long> priceBands = new LinkedHashMap<>();
+            for (PriceBand band : PriceBand.values()) {
+                priceBands.put(band.getLabel(), 0L);
+            }
+
+            List<Hit> hits = new ArrayList<>();
+            for (Map.Entry<Long, Double> entry : candidates.entrySet()) {
+                Document document = documents.get(entry.getKey());
+                boolean categoryOk = categoryKey == null || categoryKey.equals(document.categoryKey());
+                boolean locationOk = locationKey == null || locationKey.equals(document.locationKey());
+                boolean priceOk = priceBand == null || priceBand == document.priceBand();
+
+                if (locationOk && priceOk) {
+                    categories.computeIfAbsent(document.categoryKey(), key -> new FacetCount()).add(document.category());
+                }
+                if (categoryOk && priceOk) {
+                    locations.computeIfAbsent(document.locationKey(), key -> new FacetCount()).add(document.location());
+                }
+                if (categoryOk && locationOk && document.priceBand() != null) {
+                    priceBands.merge(document.priceBand().getLabel(), 1L, Long::sum);
+                }
+                if (categoryOk && locationOk && priceOk) {
+                    hits.add(new Hit(entry.getKey(), entry.getValue()));
+                }
+            }
+
+            return new FacetedHits(topIds(hits, offset, limit), hits.size(),
+                    FacetCount.byLabel(categories), FacetCount.byLabel(locations), priceBands);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Pontua todos os documentos que contêm algum termo da consulta. Deve ser chamado com o lock de leitura.
+     */
+    private Map<Long, Double> score(Set<String> queryTerms) {
+        Map<Long, float[]> accumulators = new HashMap<>();
+        int totalDocuments = documents.size();
+
+        for (String term : queryTerms) {
+            Map<Long, Float> docs = postings.get(term);
+            if (docs == null) {
+                continue;
+            }
+            float idf = (float) Math.log(1.0 + (double) totalDocuments / docs.size());
+            for (Map.Entry<Long, Float> entry : docs.entrySet()) {
+                float[] acc = accumulators.computeIfAbsent(entry.getKey(), id -> new float[2]);
+                acc[0] += entry.getValue() * idf;
+                acc[1] += 1;
+            }
+        }
+
+        Map<Long, Double> scores = new HashMap<>(accumulators.size());
+        for (Map.Entry<Long, float[]> entry : accumulators.entrySet()) {
+            float[] acc = entry.getValue();
+            scores.put(entry.getKey(), (double) acc[0] * (acc[1] / queryTerms.size()));
+        }
+        return scores;
+    }
+
+    private static List<Long> topIds(List<Hit> hits, int offset, int limit) {
+        int wanted = offset + limit;
+        if (hits.isEmpty() || limit <= 0 || wanted <= 0) {
+            return List.of();
+        }
+
+        Comparator<Hit> byRelevance = Comparator.comparingDouble(Hit::score)
+                .reversed()
+                .thenComparing(Hit::id);
+
+        // Heap com os "offset + limit" melhores: evita ordenar todo o conjunto de resultados
+        PriorityQueue<Hit> heap = new PriorityQueue<>(Math.min(wanted, hits.size()), byRelevance.reversed());
+        for (Hit hit : hits) {
+            if (heap.size() < wanted) {
+                heap.add(hit);
+            } else if (byRelevance.compare(hit, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(hit);
+            }
+        }
+
+        List<Hit> ordered = new ArrayList<>(heap);
+        ordered.sort(byRelevance);
+
+        List<Long> ids = new ArrayList<>(limit);
+        for (int i = offset; i < ordered.size(); i++) {
+            ids.add(ordered.get(i).id());
+        }
+        return ids;
+    }
+
+    private void addDocument(Service service) {
+        Map<String, Float> weights = new HashMap<>();
+        accumulate(weights, service.getTitle(), TITLE_WEIGHT);
+        accumulate(weights, service.getCategory(), CATEGORY_WEIGHT);
+        accumulate(weights, service.getDescription(), DESCRIPTION_WEIGHT);
+
+        for (Map.Entry<String, Float> entry : weights.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), term -> new HashMap<>())
+                    .put(service.getId(), entry.getValue());
+        }
+        PriceBand priceBand = service.getPrice() != null ? PriceBand.of(service.getPrice()) : null;
+        documents.put(service.getId(),
+                new Document(weights.keySet(), service.getCategory(), TextAnalyzer.collate(service.getCategory()),
+                        service.getLocation(), TextAnalyzer.collate(service.getLocation()), priceBand));
+    }
+
+    private void removeDocument(Long serviceId) {
+        Document document = documents.remove(serviceId);
+        if (document == null) {
+            return;
+        }
+        for (String term : document.terms()) {
+            Map<Long, Float> docs = postings.get(term);
+            if (docs != null) {
+                docs.remove(serviceId);
+                if (docs.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    private static void accumulate(Map<String, Float> weights, String text, float fieldWeight) {
+        for (String term : TextAnalyzer.terms(text)) {
+            weights.merge(term, fieldWeight, Float::sum);
+        }
+    }
+
+    private static String collateFilter(String value) {
+        return value != null ? TextAnalyzer.collate(value) : null;
+    }
+
+    private record Hit(Long id, double score) {
+    }
+
+    /**
+     * Campos filtráveis do serviço: o valor original (rótulo das facetas) e a chave já em
+     * {@link TextAnalyzer#collate} usada nas comparações
+     */
+    private record Document(Set<String> terms, String category, String categoryKey,
+                            String location, String locationKey, PriceBand priceBand) {
+
+        boolean matches(String categoryFilter, String locationFilter, PriceBand priceFilter) {
+            return (categoryFilter == null || categoryFilter.equals(categoryKey))
+                    && (locationFilter == null || locationFilter.equals(locationKey))
+                    && (priceFilter == null || priceFilter == priceBand);
+        }
+    }
+
+    /**
+     * Contagem de uma faceta que junta as variantes de grafia do mesmo rótulo
+     */
+    private static final class FacetCount {
+
+        private String label;
+        private long count;
+
+        void add(String variant) {
+            if (label == null || variant.compareTo(label) < 0) {
+                label = variant;
+            }
+            count++;
+        }
+
+        /**
+         * Rótulo de exibição e total de cada faceta, na ordem das chaves normalizadas
+         */
+        static Map<String, Long> byLabel(Map<String, FacetCount> facets) {
+            Map<String, Long> counts = new LinkedHashMap<>();
+            for (FacetCount facet : facets.values()) {
+                counts.put(facet.label, facet.count);
+            }
+            return counts;
+        }
+    }
+
+    /**
+     * IDs da página pedida, em ordem de relevância, e o total de documentos encontrados
+     */
+    public record SearchHits(List<Long> ids, long total) {
+
+        public static SearchHits empty() {
+            return new SearchHits(List.of(), 0);
+        }
+    }
+
+    /**
+     * Página de IDs de uma busca com facetas, junto com as contagens por categoria, bairro e faixa de preço
+     */
+    public record FacetedHits(List<Long> ids, long total, Map<String, Long> categories,
+                              Map<String, Long> locations, Map<String, Long> priceBands) {
+    }
+}
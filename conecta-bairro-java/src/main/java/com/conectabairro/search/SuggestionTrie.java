@@ -0,0 +1,427 @@
+package com.conectabairro.search;
+
+import com.conectabairro.model.Service;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Trie em memória para autocompletar títulos, categorias e bairros dos serviços.
+ * Cada nó guarda as {@link #MAX_SUGGESTIONS} melhores completações da sua subárvore,
+ * então uma consulta é só a descida pelo prefixo, sem acesso ao banco.
+ * O peso de uma completação soma a reputação (nota e número de avaliações)
+ * de todos os serviços que a contêm.
+ */
+@Component
+@Slf4j
+public class SuggestionTrie {
+
+    public static final int MAX_SUGGESTIONS = 10;
+
+    private static final int MAX_PHRASE_LENGTH = 60;
+    private static final Entry[] NO_ENTRIES = new Entry[0];
+
+    private static final Comparator<Entry> BY_WEIGHT = Comparator.comparingDouble(Entry::weight)
+            .reversed()
+            .thenComparing(entry -> entry.display);
+
+    private final Node root = new Node();
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final Map<Long, List<Entry>> entriesByService = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public enum SuggestionType {
+        TITLE,
+        CATEGORY,
+        LOCATION
+    }
+
+    /**
+     * Completação sugerida para um prefixo
+     */
+    public record Suggestion(String text, SuggestionType type, double weight) {
+    }
+
+    /**
+     * Nota e número de avaliações atuais de um serviço, de onde sai o peso das suas completações
+     */
+    public interface Reputation {
+        Long getId();
+        Double getRating();
+        Integer getTotalReviews();
+    }
+
+    public void rebuild(Collection<Service> services) {
+        lock.writeLock().lock();
+        try {
+            root.children = new Node[0];
+            root.labels = new char[0];
+            root.entries = NO_ENTRIES;
+            root.top = NO_ENTRIES;
+            entries.clear();
+            entriesByService.clear();
+
+            Set<Entry> touched = new HashSet<>();
+            for (Service service : services) {
+                addService(service, touched);
+            }
+            // Carga em massa: insere tudo e calcula as listas "top" uma única vez, de baixo para cima
+            for (Entry entry : touched) {
+                entry.weight = totalWeight(entry);
+                for (int start : wordStarts(entry.phrase)) {
+                    insertEntry(entry.phrase.substring(start), entry);
+                }
+            }
+            recomputeAll(root);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Trie de sugestões construída com {} completações", entries.size());
+    }
+
+    /**
+     * Insere ou atualiza as completações de um serviço
+     */
+    public void index(Service service) {
+        lock.writeLock().lock();
+        try {
+            Set<Entry> touched = new HashSet<>();
+            removeService(service.getId(), touched);
+            addService(service, touched);
+            refresh(touched);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long serviceId) {
+        lock.writeLock().lock();
+        try {
+            Set<Entry> touched = new HashSet<>();
+            removeService(serviceId, touched);
+            refresh(touched);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Atualiza o peso das completações de serviços já indexados. Nota e avaliações mudam fora do
+     * {@link #index}, no flush do RatingAggregator e no job de reparo; serviços fora da trie são ignorados.
+     */
+    public void reweight(Collection<? extends Reputation> reputations) {
+        lock.writeLock().lock();
+        try {
+            Set<Entry> touched = new HashSet<>();
+            for (Reputation reputation : reputations) {
+                List<Entry> contributed = entriesByService.get(reputation.getId());
+                if (contributed == null) {
+                    continue;
+                }
+                double weight = reputation(reputation.getRating(), reputation.getTotalReviews());
+                for (Entry entry : contributed) {
+                    entry.contributions.put(reputation.getId(), weight);
+                    touched.add(entry);
+                }
+            }
+            if (touched.size() > entries.size() / 4) {
+                // Reparo em massa: refazer as listas "top" de baixo para cima sai mais barato que caminho a caminho
+                touched.forEach(entry -> entry.weight = totalWeight(entry));
+                recomputeAll(root);
+            } else {
+                refresh(touched);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Devolve até {@code limit} completações para o prefixo, da mais relevante para a menos
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String key = TextAnalyzer.phrase(prefix);
+        if (key.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            for (int i = 0; i < key.length() && node != null; i++) {
+                node = node.child(key.charAt(i));
+            }
+            if (node == null) {
+                return List.of();
+            }
+
+            int count = Math.min(limit, node.top.length);
+            List<Suggestion> suggestions = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                Entry entry = node.top[i];
+                suggestions.add(new Suggestion(entry.display, entry.type, entry.weight));
+            }
+            return suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void addService(Service service, Set<Entry> touched) {
+        double weight = reputation(service);
+        List<Entry> contributed = new ArrayList<>(3);
+        contribute(service.getId(), SuggestionType.TITLE, service.getTitle(), weight, contributed);
+        contribute(service.getId(), SuggestionType.CATEGORY, service.getCategory(), weight, contributed);
+        contribute(service.getId(), SuggestionType.LOCATION, service.getLocation(), weight, contributed);
+        entriesByService.put(service.getId(), contributed);
+        touched.addAll(contributed);
+    }
+
+    private void contribute(Long serviceId, SuggestionType type, String text, double weight, List<Entry> contributed) {
+        String phrase = TextAnalyzer.phrase(text);
+        if (phrase.isEmpty()) {
+            return;
+        }
+        if (phrase.length() > MAX_PHRASE_LENGTH) {
+            phrase = phrase.substring(0, MAX_PHRASE_LENGTH).trim();
+        }
+
+        Entry entry = entries.computeIfAbsent(type + ":" + phrase, key -> new Entry(text.trim(), type));
+        entry.phrase = phrase;
+        entry.contributions.put(serviceId, weight);
+        contributed.add(entry);
+    }
+
+    private void removeService(Long serviceId, Set<Entry> touched) {
+        List<Entry> contributed = entriesByService.remove(serviceId);
+        if (contributed == null) {
+            return;
+        }
+        for (Entry entry : contributed) {
+            entry.contributions.remove(serviceId);
+            touched.add(entry);
+        }
+    }
+
+    /**
+     * Recalcula o peso das completações alteradas e as listas "top" ao longo dos seus caminhos.
+     * Cada completação fica acessível pelo início de cada uma das suas palavras,
+     * então "resid" também encontra "Eletricista Residencial".
+     */
+    private void refresh(Set<Entry> touched) {
+        for (Entry entry : touched) {
+            entry.weight = totalWeight(entry);
+            boolean alive = !entry.contributions.isEmpty();
+
+            for (int start : wordStarts(entry.phrase)) {
+                String key = entry.phrase.substring(start);
+                if (alive) {
+                    insertPath(key, entry);
+                } else {
+                    removePath(key, entry);
+                }
+            }
+            if (!alive) {
+                entries.remove(entry.type + ":" + entry.phrase);
+            }
+        }
+    }
+
+    private void insertEntry(String key, Entry entry) {
+        Node node = root;
+        for (int i = 0; i < key.length(); i++) {
+            node = node.childOrCreate(key.charAt(i));
+        }
+        node.addEntry(entry);
+    }
+
+    private static void recomputeAll(Node node) {
+        for (Node child : node.children) {
+            recomputeAll(child);
+        }
+        node.recomputeTop();
+    }
+
+    private static double totalWeight(Entry entry) {
+        double weight = 0;
+        for (double contribution : entry.contributions.values()) {
+            weight += contribution;
+        }
+        return weight;
+    }
+
+    private void insertPath(String key, Entry entry) {
+        Node[] path = new Node[key.length() + 1];
+        path[0] = root;
+        Node node = root;
+        for (int i = 0; i < key.length(); i++) {
+            node = node.childOrCreate(key.charAt(i));
+            path[i + 1] = node;
+        }
+        node.addEntry(entry);
+        for (int i = path.length - 1; i >= 0; i--) {
+            path[i].recomputeTop();
+        }
+    }
+
+    private void removePath(String key, Entry entry) {
+        Node[] path = new Node[key.length() + 1];
+        path[0] = root;
+        Node node = root;
+        for (int i = 0; i < key.length(); i++) {
+            node = node.child(key.charAt(i));
+            if (node == null) {
+                return;
+            }
+            path[i + 1] = node;
+        }
+        node.removeEntry(entry);
+        for (int i = path.length - 1; i >= 0; i--) {
+            path[i].recomputeTop();
+            if (i > 0 && path[i].isEmpty()) {
+                path[i - 1].removeChild(key.charAt(i - 1));
+            }
+        }
+    }
+
+    private static List<Integer> wordStarts(String phrase) {
+        List<Integer> starts = new ArrayList<>();
+        starts.add(0);
+        for (int i = 1; i < phrase.length(); i++) {
+            if (phrase.charAt(i - 1) == ' ' && phrase.charAt(i) != ' ') {
+                starts.add(i);
+            }
+        }
+        return starts;
+    }
+
+    private static double reputation(Service service) {
+        return reputation(service.getRating(), service.getTotalReviews());
+    }
+
+    private static double reputation(Double rating, Integer totalReviews) {
+        double safeRating = rating != null ? rating : 0.0;
+        int safeTotalReviews = totalReviews != null ? totalReviews : 0;
+        return 1.0 + safeRating * Math.log1p(safeTotalReviews);
+    }
+
+    private static final class Entry {
+        private final String display;
+        private final SuggestionType type;
+        private final Map<Long, Double> contributions = new HashMap<>();
+        private String phrase;
+        private double weight;
+
+        private Entry(String display, SuggestionType type) {
+            this.display = display;
+            this.type = type;
+        }
+
+        private double weight() {
+            return weight;
+        }
+    }
+
+    /**
+     * Nó compacto: filhos em arrays ordenados por caractere em vez de mapas
+     */
+    private static final class Node {
+        private char[] labels = new char[0];
+        private Node[] children = new Node[0];
+        private Entry[] entries = NO_ENTRIES;
+        private Entry[] top = NO_ENTRIES;
+
+        private Node child(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            return index >= 0 ? children[index] : null;
+        }
+
+        private Node childOrCreate(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            if (index >= 0) {
+                return children[index];
+            }
+            int insertAt = -index - 1;
+            Node created = new Node();
+
+            char[] newLabels = new char[labels.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(labels, 0, newLabels, 0, insertAt);
+            System.arraycopy(children, 0, newChildren, 0, insertAt);
+            newLabels[insertAt] = label;
+            newChildren[insertAt] = created;
+            System.arraycopy(labels, insertAt, newLabels, insertAt + 1, labels.length - insertAt);
+            System.arraycopy(children, insertAt, newChildren, insertAt + 1, children.length - insertAt);
+
+            labels = newLabels;
+            children = newChildren;
+            return created;
+        }
+
+        private void removeChild(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            if (index < 0) {
+                return;
+            }
+            char[] newLabels = new char[labels.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(labels, 0, newLabels, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(labels, index + 1, newLabels, index, labels.length - index - 1);
+            System.arraycopy(children, index + 1, newChildren, index, children.length - index - 1);
+            labels = newLabels;
+            children = newChildren;
+        }
+
+        private void addEntry(Entry entry) {
+            for (Entry existing : entries) {
+                if (existing == entry) {
+                    return;
+                }
+            }
+            entries = Arrays.copyOf(entries, entries.length + 1);
+            entries[entries.length - 1] = entry;
+        }
+
+        private void removeEntry(Entry entry) {
+            entries = Arrays.stream(entries)
+                    .filter(existing -> existing != entry)
+                    .toArray(Entry[]::new);
+        }
+
+        private boolean isEmpty() {
+            return entries.length == 0 && children.length == 0;
+        }
+
+        /**
+         * Junta as próprias completações com as "top" dos filhos e mantém as melhores
+         */
+        private void recomputeTop() {
+            List<Entry> candidates = new ArrayList<>(entries.length + children.length * MAX_SUGGESTIONS);
+            Collections.addAll(candidates, entries);
+            for (Node child : children) {
+                Collections.addAll(candidates, child.top);
+            }
+            if (candidates.isEmpty()) {
+                top = NO_ENTRIES;
+                return;
+            }
+
+            candidates.sort(BY_WEIGHT);
+            List<Entry> best = new ArrayList<>(MAX_SUGGESTIONS);
+            Set<Entry> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (Entry candidate : candidates) {
+                if (seen.add(candidate)) {
+                    best.add(candidate);
+                    if (best.size() == MAX_SUGGESTIONS) {
+                        break;
+                    }
+                }
+            }
+            top = best.toArray(NO_ENTRIES);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.conectabairro.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Normalização de texto em português para os índices de busca em memória.
+ * Remove acentos, converte para minúsculas, descarta stopwords e aplica
+ * um stemmer leve (plural e feminino), suficiente para casar
+ * "instalações" com "instalação" e "pintora" com "pintor".
+ */
+public final class TextAnalyzer {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^a-z0-9]+");
+
+    private static final Set<String> STOPWORDS = Set.of(
+            "a", "o", "as", "os", "ao", "aos", "um", "uma", "uns", "umas",
+            "de", "da", "do", "das", "dos", "e", "em", "no", "na", "nos", "nas",
+            "para", "pra", "por", "com", "sem", "que", "se", "ou"
+    );
+
+    private TextAnalyzer() {
+    }
+
+    /**
+     * Remove acentos e converte para minúsculas, preservando os espaços
+     */
+    public static String fold(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Chave de igualdade para rótulos (categoria, bairro) igual à da collation utf8mb4_unicode_ci:
+     * sem diferença de maiúsculas, de acentos nem de espaços no fim. "Hidráulica " e "hidraulica"
+     * são o mesmo rótulo.
+     */
+    public static String collate(String text) {
+        return fold(text).stripTrailing();
+    }
+
+    /**
+     * Normaliza uma frase inteira (sem acentos, minúsculas, espaços simples),
+     * mantendo todas as palavras; usada como chave de autocompletar
+     */
+    public static String phrase(String text) {
+        return NON_ALPHANUMERIC.matcher(fold(text)).replaceAll(" ").trim();
+    }
+
+    /**
+     * Quebra o texto em palavras normalizadas, sem stopwords e sem stemming
+     */
+    public static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        for (String word : NON_ALPHANUMERIC.split(fold(text))) {
+            if (!word.isEmpty() && !STOPWORDS.contains(word)) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Quebra o texto em termos indexáveis (palavras normalizadas e reduzidas ao radical)
+     */
+    public static List<String> terms(String text) {
+        List<String> words = words(text);
+        List<String> terms = new ArrayList<>(words.size());
+        for (String word : words) {
+            terms.add(stem(word));
+        }
+        return terms;
+    }
+
+    /**
+     * Stemmer leve para português: trata plurais e formas femininas mais comuns.
+     * Espera uma palavra já normalizada por {@link #fold(String)}.
+     */
+    public static String stem(String word) {
+        if (word.length() <= 3) {
+            return word;
+        }
+
+        String stem = word;
+        if (stem.endsWith("oes") || stem.endsWith("aes")) {
+            stem = stem.substring(0, stem.length() - 3) + "ao";
+        } else if (stem.endsWith("ais") || stem.endsWith("eis") || stem.endsWith("ois")) {
+            stem = stem.substring(0, stem.length() - 2) + "l";
+        } else if (stem.endsWith("res") || stem.endsWith("zes")) {
+            stem = stem.substring(0, stem.length() - 2);
+        } else if (stem.endsWith("ns")) {
+            stem = stem.substring(0, stem.length() - 2) + "m";
+        } else if (stem.endsWith("s") && !stem.endsWith("ss") && !stem.endsWith("us") && !stem.endsWith("is")) {
+            stem = stem.substring(0, stem.length() - 1);
+        }
+
+        if (stem.endsWith("eira")) {
+            stem = stem.substring(0, stem.length() - 1) + "o";
+        } else if (stem.endsWith("ora")) {
+            stem = stem.substring(0, stem.length() - 1);
+        }
+
+        return stem;
+    }
+}
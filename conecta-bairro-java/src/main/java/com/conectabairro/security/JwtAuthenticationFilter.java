@@ -1,5 +1,6 @@
 package com.conectabairro.security;
 
+import com.conectabairro.model.User;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -8,7 +9,6 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.util.StringUtils;
@@ -22,31 +22,59 @@ import java.io.IOException;
 @Slf4j
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    /**
+     * Atributo da requisição com a expiração (epoch ms) do token de sessão do usuário autenticado
+     */
+    public static final String SESSION_EXPIRES_AT = "conectabairro.sessionExpiresAt";
+
+    private static final String EVENTS_PATH = "/requests/events";
+
     @Autowired
     private JwtTokenProvider tokenProvider;
 
+    @Autowired
+    private StreamTickets streamTickets;
+
     @Autowired
     private UserDetailsService userDetailsService;
 
+    @Autowired
+    private UserRevocationCheck revocationCheck;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, 
                                     HttpServletResponse response, 
                                     FilterChain filterChain)
             throws ServletException, IOException {
         try {
-            String jwt = getJwtFromRequest(request);
+            AuthenticatedUser principal = null;
+            long sessionExpiresAt = 0L;
 
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                String email = tokenProvider.getEmailFromToken(jwt);
-                UserDetails userDetails = userDetailsService.loadUserByUsername(email);
+            String ticket = getStreamTicket(request);
+            if (ticket != null) {
+                StreamTickets.Ticket redeemed = streamTickets.redeem(ticket);
+                if (redeemed != null && revocationCheck.isActive(redeemed.principal().id())) {
+                    principal = redeemed.principal();
+                    sessionExpiresAt = redeemed.sessionExpiresAtMillis();
+                }
+            } else {
+                String jwt = getJwtFromRequest(request);
+                JwtTokenProvider.VerifiedToken token = StringUtils.hasText(jwt) ? tokenProvider.verify(jwt) : null;
+                if (token != null) {
+                    principal = resolvePrincipal(token);
+                    sessionExpiresAt = token.expiresAtMillis();
+                }
+            }
 
-                UsernamePasswordAuthenticationToken authentication = 
+            if (principal != null) {
+                UsernamePasswordAuthenticationToken authentication =
                     new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
+                        principal, null, principal.getAuthorities());
                 authentication.setDetails(
                     new WebAuthenticationDetailsSource().buildDetails(request));
 
                 SecurityContextHolder.getContext().setAuthentication(authentication);
+                request.setAttribute(SESSION_EXPIRES_AT, sessionExpiresAt);
             }
         } catch (Exception ex) {
             log.error("Não foi possível processar o token JWT: {}", ex.getMessage());
@@ -55,6 +83,18 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Tokens atuais trazem ID e tipo do usuário nas claims e dispensam o banco; tokens emitidos antes
+     * dessas claims ainda são aceitos, carregando o usuário pelo email
+     */
+    private AuthenticatedUser resolvePrincipal(JwtTokenProvider.VerifiedToken token) {
+        AuthenticatedUser principal = token.principal();
+        if (principal == null) {
+            return AuthenticatedUser.from((User) userDetailsService.loadUserByUsername(token.email()));
+        }
+        return revocationCheck.isActive(principal.id()) ? principal : null;
+    }
+
     private String getJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
@@ -62,4 +102,16 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
         return null;
     }
+
+    /**
+     * EventSource do navegador não envia cabeçalhos: só o fluxo SSE aceita credencial na URL, e apenas
+     * um ticket de uso único ({@link StreamTickets}), nunca o JWT de sessão
+     */
+    private String getStreamTicket(HttpServletRequest request) {
+        if ("GET".equals(request.getMethod()) && request.getRequestURI().endsWith(EVENTS_PATH)) {
+            String ticket = request.getParameter("ticket");
+            return StringUtils.hasText(ticket) ? ticket : null;
+        }
+        return null;
+    }
 }
@@ -1,10 +1,13 @@
 package com.conectabairro.security;
 
+import com.conectabairro.model.User;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SecurityException;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
@@ -18,74 +21,103 @@ import java.util.Date;
 @Slf4j
 public class JwtTokenProvider {
 
+    static final String CLAIM_USER_ID = "userId";
+    static final String CLAIM_USER_TYPE = "userType";
+
     @Value("${app.jwtSecret}")
     private String jwtSecret;
 
     @Value("${app.jwtExpirationMs}")
     private int jwtExpirationMs;
 
-    public String generateToken(Authentication authentication) {
-        org.springframework.security.core.userdetails.User user = 
-            (org.springframework.security.core.userdetails.User) authentication.getPrincipal();
+    @Autowired
+    private VerifiedTokenCache verifiedTokens;
 
-        Date now = new Date();
-        Date expiryDate = new Date(now.getTime() + jwtExpirationMs);
+    // Chave e parser são imutáveis e thread-safe: montados uma vez, não a cada requisição
+    private SecretKey key;
+    private JwtParser parser;
 
-        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+    /**
+     * Resultado da verificação de um token; {@code principal} é null para tokens antigos, emitidos
+     * sem as claims {@code userId}/{@code userType}
+     */
+    public record VerifiedToken(String email, AuthenticatedUser principal, long expiresAtMillis) {
+    }
 
-        return Jwts.builder()
-                .setSubject(user.getUsername())
-                .setIssuedAt(now)
-                .setExpiration(expiryDate)
-                .signWith(key, SignatureAlgorithm.HS512)
-                .compact();
+    @PostConstruct
+    void init() {
+        key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build();
     }
 
-    public String generateTokenFromEmail(String email) {
+    /**
+     * Gera o token com o ID e o tipo do usuário nas claims, para que as requisições autenticadas
+     * não precisem consultar o banco
+     */
+    public String generateToken(User user) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpirationMs);
 
-        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
-
         return Jwts.builder()
-                .setSubject(email)
+                .setSubject(user.getEmail())
+                .claim(CLAIM_USER_ID, user.getId())
+                .claim(CLAIM_USER_TYPE, user.getUserType().name())
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
                 .signWith(key, SignatureAlgorithm.HS512)
                 .compact();
     }
 
-    public String getEmailFromToken(String token) {
-        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
-        
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-
-        return claims.getSubject();
-    }
+    /**
+     * Verifica assinatura e expiração e extrai as claims numa única passada. Tokens já verificados
+     * vêm do {@link VerifiedTokenCache} sem recalcular o HMAC. Retorna null se o token for inválido.
+     */
+    public VerifiedToken verify(String token) {
+        String cacheKey = VerifiedTokenCache.keyOf(token);
+        VerifiedToken cached = verifiedTokens.get(cacheKey);
+        if (cached != null) {
+            return cached;
+        }
 
-    public boolean validateToken(String token) {
+        VerifiedToken verified;
         try {
-            SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
-            Jwts.parserBuilder()
-                    .setSigningKey(key)
-                    .build()
-                    .parseClaimsJws(token);
-            return true;
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            Date expiration = claims.getExpiration();
+            verified = new VerifiedToken(claims.getSubject(), toPrincipal(claims),
+                    expiration != null ? expiration.getTime() : 0L);
         } catch (SecurityException e) {
-            log.error("JWT signature não é válida: {}", e.getMessage());
+            // io.jsonwebtoken.security.SecurityException (assinatura inválida), não java.lang.SecurityException
+            log.debug("JWT signature não é válida: {}", e.getMessage());
+            return null;
         } catch (MalformedJwtException e) {
-            log.error("JWT token inválido: {}", e.getMessage());
+            log.debug("JWT token inválido: {}", e.getMessage());
+            return null;
         } catch (ExpiredJwtException e) {
-            log.error("JWT token expirado: {}", e.getMessage());
+            log.debug("JWT token expirado: {}", e.getMessage());
+            return null;
         } catch (UnsupportedJwtException e) {
-            log.error("JWT token não suportado: {}", e.getMessage());
+            log.debug("JWT token não suportado: {}", e.getMessage());
+            return null;
+        } catch (JwtException e) {
+            log.debug("JWT token rejeitado: {}", e.getMessage());
+            return null;
         } catch (IllegalArgumentException e) {
-            log.error("JWT claims string é vazio: {}", e.getMessage());
+            log.debug("JWT claims string é vazio ou claims inválidas: {}", e.getMessage());
+            return null;
+        }
+
+        verifiedTokens.put(cacheKey, verified);
+        return verified;
+    }
+
+    private static AuthenticatedUser toPrincipal(Claims claims) {
+        Number userId = claims.get(CLAIM_USER_ID, Number.class);
+        String userType = claims.get(CLAIM_USER_TYPE, String.class);
+        if (userId == null || userType == null) {
+            return null;
         }
-        return false;
+        return new AuthenticatedUser(userId.longValue(), claims.getSubject(), User.UserType.valueOf(userType));
     }
 }
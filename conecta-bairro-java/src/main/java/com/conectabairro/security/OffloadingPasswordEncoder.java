@@ -0,0 +1,164 @@
+package com.conectabairro.security;
+
+import com.conectabairro.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Encoder BCrypt que executa o hash num pool próprio e limitado, fora das threads do Tomcat.
+ *
+ * <p>Numa rajada de logins, no máximo {@code threads} hashes rodam ao mesmo tempo e até
+ * {@code queue-capacity} esperam na fila; além disso a requisição é recusada na hora com 503 e
+ * {@code Retry-After}, em vez de ocupar todas as threads e travar também as rotas públicas.</p>
+ */
+@Component
+@Slf4j
+public class OffloadingPasswordEncoder implements PasswordEncoder {
+
+    private static final int MIN_STRENGTH = 4;
+    private static final int MAX_STRENGTH = 31;
+
+    @Value("${app.password.bcrypt-strength:10}")
+    private int strength;
+
+    @Value("${app.password.threads:0}")
+    private int threads;
+
+    @Value("${app.password.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${app.password.retry-after-seconds:2}")
+    private long retryAfterSeconds;
+
+    @Value("${app.password.calibrate-on-startup:true}")
+    private boolean calibrateOnStartup;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private BCryptPasswordEncoder delegate;
+    private ThreadPoolExecutor executor;
+    private Timer encodeTimer;
+    private Timer matchesTimer;
+    private Timer queueWaitTimer;
+    private Counter rejected;
+
+    @PostConstruct
+    void init() {
+        delegate = new BCryptPasswordEncoder(strength);
+
+        // Metade dos núcleos por padrão: o restante fica livre para as demais requisições
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger sequence = new AtomicInteger();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hasher-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        encodeTimer = Timer.builder("auth.password.hash")
+                .tag("operation", "encode")
+                .description("Tempo de cálculo do BCrypt")
+                .register(meterRegistry);
+        matchesTimer = Timer.builder("auth.password.hash")
+                .tag("operation", "matches")
+                .description("Tempo de cálculo do BCrypt")
+                .register(meterRegistry);
+        queueWaitTimer = Timer.builder("auth.password.queue.wait")
+                .description("Tempo de espera na fila antes do hash")
+                .register(meterRegistry);
+        rejected = Counter.builder("auth.password.rejected")
+                .description("Hashes recusados com o pool saturado")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.queue.depth", executor, pool -> pool.getQueue().size())
+                .description("Hashes aguardando na fila")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Hashes em execução")
+                .register(meterRegistry);
+
+        log.info("Pool de hash de senha: {} threads, fila de {}, custo BCrypt {}", poolSize, queueCapacity, strength);
+        if (calibrateOnStartup) {
+            executor.execute(this::calibrate);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return offload(() -> delegate.encode(rawPassword), encodeTimer);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return offload(() -> delegate.matches(rawPassword, encodedPassword), matchesTimer);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T offload(Callable<T> task, Timer timer) {
+        long queuedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                queueWaitTimer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                return timer.recordCallable(task);
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            log.warn("Pool de hash de senha saturado ({} na fila)", executor.getQueue().size());
+            throw new ServiceUnavailableException("Servidor ocupado, tente novamente em instantes", retryAfterSeconds);
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Hash de senha interrompido", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Falha no hash de senha", e.getCause());
+        }
+    }
+
+    /**
+     * Mede um hash no custo configurado e nos vizinhos, para escolher o custo adequado ao hardware
+     * (a recomendação usual é algo entre 100 e 300 ms por hash)
+     */
+    private void calibrate() {
+        for (int cost = Math.max(MIN_STRENGTH, strength - 1); cost <= Math.min(MAX_STRENGTH, strength + 1); cost++) {
+            BCryptPasswordEncoder probe = new BCryptPasswordEncoder(cost);
+            long start = System.nanoTime();
+            probe.encode("calibracao-bcrypt");
+            long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            log.info("Calibração BCrypt: custo {} leva {} ms por hash{}", cost, elapsedMs,
+                    cost == strength ? " (configurado)" : "");
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package com.conectabairro.security;
+
+import com.conectabairro.config.RateLimitProperties;
+import com.conectabairro.exception.GlobalExceptionHandler;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limita requisições por rota com token buckets por IP e/ou por email da conta, antes do Spring
+ * Security, para que rajadas de login e de busca sejam recusadas sem chegar ao BCrypt nem ao banco.
+ *
+ * <p>Os buckets ficam num cache Caffeine limitado a {@code max-buckets}: cada bucket expira quando
+ * volta a ficar cheio (descartá-lo não muda nenhum limite) e, com o cache cheio, o despejo é O(1)
+ * amortizado. Cada bucket é atualizado por compare-and-set, sem locks. Registrado em
+ * {@code RateLimitConfig}.</p>
+ */
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final int MAX_BODY_BYTES = 16 * 1024;
+
+    private final RateLimitProperties properties;
+    private final ObjectMapper objectMapper;
+    private final Counter rejected;
+    private final Cache<String, TokenBucket> buckets;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final UrlPathHelper pathHelper = new UrlPathHelper();
+
+    public RateLimitFilter(RateLimitProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxBuckets())
+                .expireAfter(new UntilBucketRefills())
+                // Despejo na própria thread da requisição: sem tarefas no commonPool
+                .executor(Runnable::run)
+                .build();
+        this.rejected = Counter.builder("http.rate_limit.rejected")
+                .description("Requisições recusadas com 429")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || findRoute(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+            throws ServletException, IOException {
+        RateLimitProperties.Route route = findRoute(request);
+        HttpServletRequest chainRequest = request;
+        String email = null;
+        if (route.getKeys().contains(RateLimitProperties.KeyType.EMAIL)) {
+            CachedBodyRequest cached = CachedBodyRequest.of(request);
+            if (cached.isTooLarge()) {
+                // Sem o corpo inteiro não há como saber a conta: recusa em vez de ignorar o limite por email
+                writeError(request, response, HttpStatus.PAYLOAD_TOO_LARGE, "Corpo Muito Grande",
+                        "O corpo da requisição excede " + MAX_BODY_BYTES + " bytes");
+                return;
+            }
+            chainRequest = cached;
+            email = emailOf(cached);
+        }
+
+        long now = System.nanoTime();
+        List<TokenBucket> matched = new ArrayList<>(route.getKeys().size());
+        for (RateLimitProperties.KeyType keyType : route.getKeys()) {
+            String key = switch (keyType) {
+                case IP -> request.getRemoteAddr();
+                case EMAIL -> email;
+            };
+            if (key != null) {
+                matched.add(bucketFor(route, keyType, key, now));
+            }
+        }
+
+        long wait = consumeAll(matched, now);
+        if (wait > 0) {
+            reject(request, response, route, wait);
+            return;
+        }
+        filterChain.doFilter(chainRequest, response);
+    }
+
+    /**
+     * Consome uma ficha de cada bucket só se todos tiverem ficha: uma recusa pelo email não gasta a
+     * ficha do IP. Se outra requisição levar a última ficha entre a checagem e o consumo, as fichas já
+     * consumidas são devolvidas.
+     */
+    private static long consumeAll(List<TokenBucket> matched, long now) {
+        long wait = 0;
+        for (TokenBucket bucket : matched) {
+            wait = Math.max(wait, bucket.waitNanos(now));
+        }
+        if (wait > 0) {
+            return wait;
+        }
+        for (int i = 0; i < matched.size(); i++) {
+            wait = matched.get(i).tryConsume(now);
+            if (wait > 0) {
+                for (int j = 0; j < i; j++) {
+                    matched.get(j).refund();
+                }
+                return wait;
+            }
+        }
+        return 0;
+    }
+
+    private RateLimitProperties.Route findRoute(HttpServletRequest request) {
+        String path = pathHelper.getPathWithinApplication(request);
+        for (RateLimitProperties.Route route : properties.getRoutes()) {
+            if ((!StringUtils.hasText(route.getMethod()) || route.getMethod().equalsIgnoreCase(request.getMethod()))
+                    && pathMatcher.match(route.getPath(), path)) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    private TokenBucket bucketFor(RateLimitProperties.Route route, RateLimitProperties.KeyType keyType,
+                                  String key, long now) {
+        return buckets.get(route.getName() + ':' + keyType + ':' + key,
+                ignored -> new TokenBucket(route.getCapacity(), route.getRefillPerMinute(), now));
+    }
+
+    private String emailOf(CachedBodyRequest request) {
+        try {
+            JsonNode root = objectMapper.readTree(request.body);
+            JsonNode email = root != null ? root.get("email") : null;
+            return email != null && email.isTextual() ? email.asText().trim().toLowerCase(Locale.ROOT) : null;
+        } catch (IOException e) {
+            // Corpo inválido: a validação do controller responde; o limite por IP continua valendo
+            return null;
+        }
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response,
+                        RateLimitProperties.Route route, long waitNanos) throws IOException {
+        rejected.increment();
+        long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+        log.debug("Limite da rota {} excedido por {}", route.getName(), request.getRemoteAddr());
+
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+        writeError(request, response, HttpStatus.TOO_MANY_REQUESTS, "Muitas Requisições",
+                "Limite de requisições excedido, tente novamente em " + retryAfter + " s");
+    }
+
+    private void writeError(HttpServletRequest request, HttpServletResponse response,
+                            HttpStatus status, String error, String message) throws IOException {
+        GlobalExceptionHandler.ErrorResponse body = GlobalExceptionHandler.ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(status.value())
+                .error(error)
+                .message(message)
+                .path(request.getRequestURI())
+                .build();
+
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+
+    /**
+     * Cada bucket vive até voltar a ficar cheio; o prazo é recalculado a cada acesso, que costuma
+     * ser seguido de um consumo
+     */
+    private static final class UntilBucketRefills implements Expiry<String, TokenBucket> {
+
+        @Override
+        public long expireAfterCreate(String key, TokenBucket bucket, long currentTime) {
+            return bucket.nanosUntilFull(currentTime);
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, TokenBucket bucket, long currentTime, long currentDuration) {
+            return bucket.nanosUntilFull(currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, TokenBucket bucket, long currentTime, long currentDuration) {
+            return bucket.nanosUntilFull(currentTime);
+        }
+    }
+
+    /**
+     * Guarda o corpo (pequeno) da requisição para ler o email aqui e ainda entregá-lo ao controller.
+     * Lê até {@code MAX_BODY_BYTES + 1} bytes qualquer que seja o Content-Length (ausente em corpos
+     * chunked) ou o Content-Type, para que nenhum corpo escape do limite por email.
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        private CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        static CachedBodyRequest of(HttpServletRequest request) throws IOException {
+            if (request.getContentLengthLong() > MAX_BODY_BYTES) {
+                return new CachedBodyRequest(request, new byte[MAX_BODY_BYTES + 1]);
+            }
+            return new CachedBodyRequest(request, request.getInputStream().readNBytes(MAX_BODY_BYTES + 1));
+        }
+
+        boolean isTooLarge() {
+            return body.length > MAX_BODY_BYTES;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return input.read(buffer, offset, length);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.conectabairro.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tickets de uso único e curta duração para abrir o fluxo SSE de requisições.
+ *
+ * <p>O EventSource do navegador não envia cabeçalhos, então a credencial precisa ir na URL, e URLs
+ * acabam em logs de acesso e de proxies. Em vez do JWT de sessão vai um valor aleatório que abre uma
+ * única conexão e vence em segundos; guardado pelo SHA-256, como no {@link VerifiedTokenCache}.</p>
+ */
+@Component
+public class StreamTickets {
+
+    private static final int TICKET_BYTES = 32;
+
+    @Value("${app.events.ticket-ttl-seconds:30}")
+    private long ttlSeconds;
+
+    @Value("${app.events.max-tickets:10000}")
+    private int maxTickets;
+
+    private final SecureRandom random = new SecureRandom();
+
+    private Cache<String, Ticket> tickets;
+
+    /**
+     * Usuário que pediu o ticket e a expiração do token de sessão usado no pedido
+     */
+    public record Ticket(AuthenticatedUser principal, long sessionExpiresAtMillis) {
+    }
+
+    @PostConstruct
+    void init() {
+        tickets = Caffeine.newBuilder()
+                .maximumSize(maxTickets)
+                .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .executor(Runnable::run)
+                .build();
+    }
+
+    public String issue(AuthenticatedUser principal, long sessionExpiresAtMillis) {
+        byte[] bytes = new byte[TICKET_BYTES];
+        random.nextBytes(bytes);
+        String ticket = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        tickets.put(VerifiedTokenCache.keyOf(ticket), new Ticket(principal, sessionExpiresAtMillis));
+        return ticket;
+    }
+
+    /**
+     * Consome o ticket. Retorna null se ele for desconhecido, já tiver sido usado, tiver vencido ou se o
+     * token de sessão que o emitiu já expirou.
+     */
+    public Ticket redeem(String ticket) {
+        Ticket redeemed = tickets.asMap().remove(VerifiedTokenCache.keyOf(ticket));
+        if (redeemed == null || redeemed.sessionExpiresAtMillis() <= System.currentTimeMillis()) {
+            return null;
+        }
+        return redeemed;
+    }
+
+    public long ttlSeconds() {
+        return ttlSeconds;
+    }
+}
@@ -0,0 +1,60 @@
+package com.conectabairro.security;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket sem locks, no formato GCRA: em vez de contar fichas, guarda num único
+ * {@code AtomicLong} o instante teórico em que o bucket volta a ficar cheio. Consumir uma ficha é
+ * um compare-and-set, então requisições concorrentes para a mesma chave nunca bloqueiam.
+ */
+public class TokenBucket {
+
+    private final long nanosPerToken;
+    private final long burstNanos;
+    private final AtomicLong fullAt;
+
+    public TokenBucket(int capacity, int refillPerMinute, long nowNanos) {
+        this.nanosPerToken = 60_000_000_000L / Math.max(1, refillPerMinute);
+        this.burstNanos = nanosPerToken * Math.max(1, capacity);
+        this.fullAt = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Quantos nanossegundos faltam para haver uma ficha, sem consumir nada; 0 se já houver
+     */
+    public long waitNanos(long nowNanos) {
+        return Math.max(0, Math.max(fullAt.get(), nowNanos) + nanosPerToken - burstNanos - nowNanos);
+    }
+
+    /**
+     * Tenta consumir uma ficha; retorna 0 se conseguiu ou quantos nanossegundos faltam para a próxima
+     */
+    public long tryConsume(long nowNanos) {
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, nowNanos) + nanosPerToken;
+            long wait = next - burstNanos - nowNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Devolve uma ficha consumida por {@link #tryConsume} quando outro bucket da mesma requisição recusou
+     */
+    public void refund() {
+        fullAt.addAndGet(-nanosPerToken);
+    }
+
+    /**
+     * Tempo até o bucket ficar cheio de novo, contando mais uma ficha; a partir daí pode ser descartado
+     * sem mudar o comportamento do limite
+     */
+    public long nanosUntilFull(long nowNanos) {
+        return Math.max(0, fullAt.get() - nowNanos) + nanosPerToken;
+    }
+}
@@ -0,0 +1,56 @@
+package com.conectabairro.security;
+
+import com.conectabairro.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Verificação opcional de que o usuário do token ainda existe. Com o principal montado só a partir
+ * das claims, um usuário removido continuaria autenticado até o token expirar; quando habilitada,
+ * a consulta ao banco é feita no máximo uma vez por usuário a cada {@code ttl-seconds}.
+ */
+@Component
+@Slf4j
+public class UserRevocationCheck {
+
+    private static final int MAX_ENTRIES = 10_000;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${app.jwt.revocation-check.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.jwt.revocation-check.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    private record Verdict(boolean active, long expiresAt) {
+    }
+
+    private final Map<Long, Verdict> verdicts = new ConcurrentHashMap<>();
+
+    public boolean isActive(Long userId) {
+        if (!enabled) {
+            return true;
+        }
+
+        long now = System.currentTimeMillis();
+        Verdict verdict = verdicts.get(userId);
+        if (verdict == null || verdict.expiresAt() <= now) {
+            verdict = new Verdict(userRepository.existsById(userId), now + ttlSeconds * 1000);
+            verdicts.put(userId, verdict);
+            if (!verdict.active()) {
+                log.debug("Token rejeitado: usuário {} não existe mais", userId);
+            }
+            if (verdicts.size() > MAX_ENTRIES) {
+                verdicts.values().removeIf(entry -> entry.expiresAt() <= now);
+            }
+        }
+        return verdict.active();
+    }
+}
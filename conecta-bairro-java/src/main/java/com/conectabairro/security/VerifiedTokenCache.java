@@ -0,0 +1,112 @@
+package com.conectabairro.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache limitado de tokens cuja assinatura já foi verificada, chaveado pelo SHA-256 do token (o token
+ * em si não fica em memória). Cada entrada vale até a expiração do próprio token; tokens sem
+ * expiração não são guardados.
+ *
+ * <p>Caffeine com {@code maximumSize} e expiração por entrada: cheio, o cache descarta a entrada
+ * menos útil em O(1) amortizado, em vez de varrer todas as entradas a cada token novo.</p>
+ */
+@Component
+public class VerifiedTokenCache {
+
+    @Value("${app.jwt.verified-cache.max-entries:10000}")
+    private int maxEntries;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Cache<String, JwtTokenProvider.VerifiedToken> entries;
+    private Counter hits;
+    private Counter misses;
+
+    @PostConstruct
+    void init() {
+        entries = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfter(new UntilTokenExpires())
+                // Manutenção (despejo) na própria thread, em O(1) amortizado: sem tarefas no commonPool
+                .executor(Runnable::run)
+                .build();
+        hits = Counter.builder("auth.jwt.verified_cache.hits")
+                .description("Tokens aceitos sem recalcular a assinatura")
+                .register(meterRegistry);
+        misses = Counter.builder("auth.jwt.verified_cache.misses")
+                .description("Tokens que passaram pela verificação completa")
+                .register(meterRegistry);
+        Gauge.builder("auth.jwt.verified_cache.size", this, VerifiedTokenCache::size)
+                .description("Tokens verificados em cache")
+                .register(meterRegistry);
+    }
+
+    public JwtTokenProvider.VerifiedToken get(String key) {
+        JwtTokenProvider.VerifiedToken verified = entries.getIfPresent(key);
+        (verified != null ? hits : misses).increment();
+        return verified;
+    }
+
+    public void put(String key, JwtTokenProvider.VerifiedToken verified) {
+        if (verified.expiresAtMillis() <= System.currentTimeMillis()) {
+            return;
+        }
+        entries.put(key, verified);
+    }
+
+    public long size() {
+        return entries.estimatedSize();
+    }
+
+    /**
+     * Chave do cache para o token: SHA-256 em hexadecimal
+     */
+    public static String keyOf(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+
+    /**
+     * Cada entrada expira junto com o token; a leitura não renova o prazo
+     */
+    private static final class UntilTokenExpires implements Expiry<String, JwtTokenProvider.VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(String key, JwtTokenProvider.VerifiedToken verified, long currentTime) {
+            long remainingMillis = verified.expiresAtMillis() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, JwtTokenProvider.VerifiedToken verified,
+                                      long currentTime, long currentDuration) {
+            return expireAfterCreate(key, verified, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, JwtTokenProvider.VerifiedToken verified,
+                                    long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
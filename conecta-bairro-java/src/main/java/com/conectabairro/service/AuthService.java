@@ -54,7 +54,7 @@ public class AuthService {
         User savedUser = userRepository.save(user);
         log.info("Usuário registrado com sucesso: {}", savedUser.getId());
 
-        String token = jwtTokenProvider.generateTokenFromEmail(savedUser.getEmail());
+        String token = jwtTokenProvider.generateToken(savedUser);
 
         return new AuthResponse(
                 token,
@@ -78,7 +78,7 @@ public class AuthService {
         User user = userRepository.findByEmail(request.getEmail())
                 .orElseThrow(() -> new ResourceNotFoundException("Usuário não encontrado"));
 
-        String token = jwtTokenProvider.generateTokenFromEmail(user.getEmail());
+        String token = jwtTokenProvider.generateToken(user);
 
         log.info("Login bem-sucedido para: {}", request.getEmail());
 
@@ -91,8 +91,8 @@ public class AuthService {
         );
     }
 
-    public UserDto getCurrentUser(String email) {
-        User user = userRepository.findByEmail(email)
+    public UserDto getCurrentUser(Long userId) {
+        User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("Usuário não encontrado"));
 
         return mapToDto(user);
@@ -107,8 +107,12 @@ public class AuthService {
                 .userType(user.getUserType().toString())
                 .profileImage(user.getProfileImage())
                 .bio(user.getBio())
+                .latitude(user.getLatitude())
+                .longitude(user.getLongitude())
                 .rating(user.getRating())
                 .totalReviews(user.getTotalReviews())
+                .ratingHistogram(RatingHistogram.of(user.getStars1(), user.getStars2(), user.getStars3(),
+                        user.getStars4(), user.getStars5()))
                 .isVerified(user.getIsVerified())
                 .createdAt(user.getCreatedAt())
                 .updatedAt(user.getUpdatedAt())
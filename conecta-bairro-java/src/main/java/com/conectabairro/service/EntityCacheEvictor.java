@@ -0,0 +1,30 @@
+package com.conectabairro.service;
+
+import com.conectabairro.model.Service;
+import com.conectabairro.model.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Remove do cache de segundo nível as entidades alteradas por UPDATEs nativos (agregados de
+ * avaliação, histogramas, requisições concluídas), que o Hibernate não acompanha. Alterações
+ * feitas pela própria entidade (save) já mantêm o cache atualizado.
+ *
+ * <p>A remoção acontece depois do commit: antes dele, uma leitura concorrente poderia
+ * recolocar no cache o valor antigo.</p>
+ */
+@Component
+public class EntityCacheEvictor {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    public void evictService(Long serviceId) {
+        TransactionHooks.afterCommit(() -> entityManagerFactory.getCache().evict(Service.class, serviceId));
+    }
+
+    public void evictUser(Long userId) {
+        TransactionHooks.afterCommit(() -> entityManagerFactory.getCache().evict(User.class, userId));
+    }
+}
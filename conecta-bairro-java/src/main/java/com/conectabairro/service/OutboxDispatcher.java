@@ -0,0 +1,253 @@
+package com.conectabairro.service;
+
+import com.conectabairro.model.OutboxEvent;
+import com.conectabairro.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Entrega os eventos da outbox aos {@link OutboxEventHandler}s registrados.
+ *
+ * <p>Uma única thread drena a tabela em lotes, em ordem de gravação. É acordada logo após o commit
+ * pelo {@link OutboxPublisher} e, sem avisos, consulta a tabela a cada {@code app.outbox.poll-interval-ms}
+ * (eventos de antes de uma queda ou aguardando nova tentativa). Os eventos entregues do lote são
+ * marcados como processados num único UPDATE.</p>
+ *
+ * <p>A ordem é garantida por agregado: quando um evento falha, os seguintes do mesmo agregado esperam
+ * a nova tentativa dele, com backoff exponencial. Depois de {@code app.outbox.max-attempts} o evento
+ * vai para {@code FAILED} e deixa de bloquear o agregado. Supõe uma única instância da aplicação.</p>
+ */
+@Component
+@Slf4j
+public class OutboxDispatcher {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    @Value("${app.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${app.outbox.poll-interval-ms:1000}")
+    private long pollIntervalMs;
+
+    @Value("${app.outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${app.outbox.initial-backoff-ms:1000}")
+    private long initialBackoffMs;
+
+    @Value("${app.outbox.max-backoff-ms:300000}")
+    private long maxBackoffMs;
+
+    @Value("${app.outbox.retention-days:7}")
+    private int retentionDays;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired(required = false)
+    private List<OutboxEventHandler> handlers = List.of();
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Semaphore wakeups = new Semaphore(0);
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicReference<LocalDateTime> oldestPending = new AtomicReference<>();
+
+    private TransactionTemplate transaction;
+    private Counter dispatched;
+    private Counter retried;
+    private Counter dead;
+    private Timer deliveryLag;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    @PostConstruct
+    void init() {
+        transaction = new TransactionTemplate(transactionManager);
+        dispatched = Counter.builder("outbox.dispatched")
+                .description("Eventos da outbox entregues a todos os handlers")
+                .register(meterRegistry);
+        retried = Counter.builder("outbox.retried")
+                .description("Entregas da outbox que falharam e foram reagendadas")
+                .register(meterRegistry);
+        dead = Counter.builder("outbox.dead")
+                .description("Eventos da outbox que esgotaram as tentativas")
+                .register(meterRegistry);
+        deliveryLag = Timer.builder("outbox.delivery.lag")
+                .description("Tempo entre a gravação do evento na outbox e a entrega")
+                .register(meterRegistry);
+        Gauge.builder("outbox.pending", pending, AtomicLong::get)
+                .description("Eventos pendentes na outbox")
+                .register(meterRegistry);
+        Gauge.builder("outbox.lag.seconds", this, OutboxDispatcher::lagSeconds)
+                .description("Idade do evento pendente mais antigo da outbox")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        running = true;
+        worker = new Thread(this::run, "outbox-dispatcher");
+        worker.setDaemon(true);
+        worker.start();
+        log.info("Dispatcher da outbox iniciado com {} handlers", handlers.size());
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+            worker.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    /**
+     * Pede uma nova leitura da outbox; chamado depois do commit de transações que gravaram eventos
+     */
+    public void wakeUp() {
+        if (wakeups.availablePermits() == 0) {
+            wakeups.release();
+        }
+    }
+
+    /**
+     * Remove eventos já processados mais antigos que a retenção configurada
+     */
+    @Scheduled(cron = "${app.outbox.cleanup-cron:0 15 4 * * *}")
+    public void purgeProcessed() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+        Integer removed = transaction.execute(status -> outboxEventRepository.deleteProcessedBefore(cutoff));
+        log.info("Limpeza da outbox: {} eventos processados removidos", removed);
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                // Avisos que chegarem durante o lote deixam uma permissão e disparam outra leitura
+                wakeups.drainPermits();
+                int fetched = dispatchBatch();
+                refreshBacklog();
+                if (fetched < batchSize) {
+                    wakeups.tryAcquire(pollIntervalMs, TimeUnit.MILLISECONDS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // Banco indisponível, por exemplo: espera o próximo ciclo sem derrubar a thread
+                log.error("Erro no dispatcher da outbox: {}", e.getMessage(), e);
+                try {
+                    Thread.sleep(pollIntervalMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private int dispatchBatch() {
+        List<OutboxEvent> batch = outboxEventRepository.findDeliverable(
+                LocalDateTime.now(), PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        Set<String> blocked = new HashSet<>();
+        List<Long> delivered = new ArrayList<>(batch.size());
+        for (OutboxEvent event : batch) {
+            String aggregate = event.getAggregateType() + ':' + event.getAggregateId();
+            if (blocked.contains(aggregate)) {
+                // Um evento anterior do agregado falhou neste lote: este espera a nova tentativa dele
+                continue;
+            }
+            try {
+                deliver(event);
+                delivered.add(event.getId());
+                dispatched.increment();
+                deliveryLag.record(Duration.between(event.getCreatedAt(), LocalDateTime.now()));
+            } catch (Exception e) {
+                blocked.add(aggregate);
+                recordFailure(event, e);
+            }
+        }
+
+        if (!delivered.isEmpty()) {
+            transaction.executeWithoutResult(status ->
+                    outboxEventRepository.markProcessed(delivered, LocalDateTime.now()));
+        }
+        return batch.size();
+    }
+
+    private void deliver(OutboxEvent event) throws Exception {
+        for (OutboxEventHandler handler : handlers) {
+            if (handler.supports(event)) {
+                handler.handle(event);
+            }
+        }
+    }
+
+    private void recordFailure(OutboxEvent event, Exception error) {
+        int attempts = event.getAttempts() + 1;
+        boolean exhausted = attempts >= maxAttempts;
+        LocalDateTime nextAttemptAt = LocalDateTime.now().plus(backoff(attempts));
+        String message = error.toString();
+        String lastError = message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+
+        transaction.executeWithoutResult(status -> outboxEventRepository.markFailedAttempt(event.getId(),
+                exhausted ? OutboxEvent.Status.FAILED : OutboxEvent.Status.PENDING, nextAttemptAt, lastError));
+
+        if (exhausted) {
+            dead.increment();
+            log.error("Evento {} ({}) da outbox falhou {} vezes e foi marcado como FAILED: {}",
+                    event.getId(), event.getEventType(), attempts, message, error);
+        } else {
+            retried.increment();
+            log.warn("Falha ao entregar o evento {} ({}) da outbox, tentativa {} de {}; nova tentativa em {}: {}",
+                    event.getId(), event.getEventType(), attempts, maxAttempts, nextAttemptAt, message);
+        }
+    }
+
+    private Duration backoff(int attempts) {
+        long delay = initialBackoffMs << Math.min(attempts - 1, 20);
+        return Duration.ofMillis(Math.min(delay, maxBackoffMs));
+    }
+
+    private void refreshBacklog() {
+        pending.set(outboxEventRepository.countByStatus(OutboxEvent.Status.PENDING));
+        oldestPending.set(outboxEventRepository.findOldestPendingCreatedAt());
+    }
+
+    private double lagSeconds() {
+        LocalDateTime oldest = oldestPending.get();
+        return oldest == null ? 0 : Duration.between(oldest, LocalDateTime.now()).toMillis() / 1000.0;
+    }
+}
@@ -0,0 +1,18 @@
+package com.conectabairro.service;
+
+import com.conectabairro.model.OutboxEvent;
+
+/**
+ * Consumidor em processo dos eventos da outbox. Todo bean que implementa esta interface é chamado
+ * pelo {@link OutboxDispatcher} para os eventos que declara suportar.
+ *
+ * <p>A entrega é "pelo menos uma vez": o mesmo evento pode chegar de novo depois de uma falha (deste
+ * ou de outro handler) ou de uma queda do processo, então {@link #handle} deve ser idempotente.
+ * Lançar uma exceção agenda nova tentativa com backoff.</p>
+ */
+public interface OutboxEventHandler {
+
+    boolean supports(OutboxEvent event);
+
+    void handle(OutboxEvent event) throws Exception;
+}
@@ -0,0 +1,105 @@
+package com.conectabairro.service;
+
+import com.conectabairro.model.OutboxEvent;
+import com.conectabairro.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Grava eventos de domínio na outbox dentro da transação de quem chama: o evento existe se, e somente
+ * se, a mudança foi confirmada. Depois do commit acorda o {@link OutboxDispatcher}.
+ */
+@Component
+@Slf4j
+public class OutboxPublisher {
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private OutboxDispatcher dispatcher;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private ObjectWriter compactWriter;
+
+    @PostConstruct
+    void init() {
+        compactWriter = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+    }
+
+    /**
+     * Enfileira o evento; exige uma transação ativa, que é a mesma da mudança de domínio
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(String aggregateType, Long aggregateId, String eventType, Object payload) {
+        outboxEventRepository.save(OutboxEvent.builder()
+                .aggregateType(aggregateType)
+                .aggregateId(aggregateId)
+                .eventType(eventType)
+                .payload(serialize(eventType, payload))
+                .build());
+        log.debug("Evento {} do agregado {} {} gravado na outbox", eventType, aggregateType, aggregateId);
+
+        TransactionHooks.afterCommit(dispatcher::wakeUp);
+    }
+
+    /**
+     * Enfileira um evento por payload num único INSERT de várias linhas. Com IDs IDENTITY o Hibernate
+     * não agrupa inserts em lote, então um {@code save} por evento custaria um round-trip por linha.
+     * Os eventos ficam na ordem de {@code payloads}.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public <T> void publishAll(String aggregateType, String eventType, Collection<T> payloads,
+                               Function<T, Long> aggregateIdOf) {
+        if (payloads.isEmpty()) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        StringBuilder sql = new StringBuilder("INSERT INTO outbox_events " +
+                "(aggregate_type, aggregate_id, event_type, payload, status, attempts, next_attempt_at, created_at) VALUES ");
+        List<Object> args = new ArrayList<>(payloads.size() * 7);
+        for (T payload : payloads) {
+            sql.append(args.isEmpty() ? "" : ", ").append("(?, ?, ?, ?, ?, 0, ?, ?)");
+            args.add(aggregateType);
+            args.add(aggregateIdOf.apply(payload));
+            args.add(eventType);
+            args.add(serialize(eventType, payload));
+            args.add(OutboxEvent.Status.PENDING.name());
+            args.add(now);
+            args.add(now);
+        }
+        jdbcTemplate.update(sql.toString(), args.toArray());
+        log.debug("{} eventos {} gravados na outbox", payloads.size(), eventType);
+
+        TransactionHooks.afterCommit(dispatcher::wakeUp);
+    }
+
+    private String serialize(String eventType, Object payload) {
+        try {
+            return compactWriter.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Não foi possível serializar o evento " + eventType, e);
+        }
+    }
+}
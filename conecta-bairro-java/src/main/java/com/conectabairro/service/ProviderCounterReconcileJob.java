@@ -0,0 +1,70 @@
+package com.conectabairro.service;
+
+import com.conectabairro.repository.ProviderRequestCounterRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Job de reconciliação dos contadores de requisições por provedor (provider_request_counters),
+ * mantidos incrementalmente pelo {@link ServiceRequestService}. Reconstrói tudo a partir de
+ * service_requests, corrigindo divergências (ex.: requisições apagadas em cascata junto com o
+ * serviço ou alterações feitas direto no banco).
+ *
+ * <p>Trabalha em lotes de provedores, cada um em sua própria transação curta: o INSERT ... SELECT
+ * trava (leitura compartilhada) as requisições que conta, então um único comando sobre a tabela
+ * inteira seguraria todas as transições de status enquanto a varredura durasse.</p>
+ */
+@Component
+@Slf4j
+public class ProviderCounterReconcileJob {
+
+    @Autowired
+    private ProviderRequestCounterRepository counterRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.request-counters.reconcile-batch-size:50}")
+    private int batchSize;
+
+    /**
+     * Primeira carga: preenche a tabela quando ela ainda está vazia (ex.: logo após a migração)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedIfEmpty() {
+        if (counterRepository.count() == 0) {
+            reconcile();
+        }
+    }
+
+    @Scheduled(cron = "${app.request-counters.reconcile-cron:0 45 3 * * *}")
+    public void reconcile() {
+        log.info("Reconciliando contadores de requisições dos provedores");
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        List<Long> providerIds = counterRepository.findProviderIds();
+        int written = 0;
+        int removed = 0;
+        for (int from = 0; from < providerIds.size(); from += batchSize) {
+            List<Long> batch = providerIds.subList(from, Math.min(from + batchSize, providerIds.size()));
+            int[] changed = transaction.execute(status -> new int[] {
+                    counterRepository.recompute(batch),
+                    counterRepository.deleteStale(batch)
+            });
+            written += changed[0];
+            removed += changed[1];
+        }
+
+        log.info("Contadores de requisições reconciliados: {} provedores, {} linhas gravadas, {} removidas",
+                providerIds.size(), written, removed);
+    }
+}
@@ -0,0 +1,66 @@
+package com.conectabairro.service;
+
+import com.conectabairro.repository.ServiceRepository;
+import com.conectabairro.repository.UserRepository;
+import com.conectabairro.search.SearchResultCache;
+import com.conectabairro.search.SuggestionTrie;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Job de reparo dos agregados de avaliação (rating_sum, total_reviews, rating e o histograma
+ * stars_1..stars_5), mantidos incrementalmente pelo {@link RatingAggregator}. Recalcula tudo em massa a partir da tabela
+ * reviews e corrige apenas as linhas que divergiram (ex.: deltas perdidos em uma queda do
+ * processo ou alterações feitas direto no banco).
+ */
+@Component
+@Slf4j
+public class RatingAggregateRepairJob {
+
+    @Autowired
+    private ServiceRepository serviceRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RatingAggregator ratingAggregator;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private SearchResultCache searchResultCache;
+
+    @Autowired
+    private SuggestionTrie suggestionTrie;
+
+    @Scheduled(cron = "${app.ratings.repair-cron:0 30 3 * * *}")
+    public void repair() {
+        log.info("Recalculando agregados de avaliação");
+
+        // Com o pipeline parado, todo delta de avaliação já commitada foi aplicado antes do recálculo
+        // e nenhuma avaliação nova commita durante ele: nada fica contado duas vezes
+        int[] repaired = ratingAggregator.pauseAndRun(() -> new TransactionTemplate(transactionManager).execute(status -> {
+            // UPDATEs em massa sem espaço de consulta: o Hibernate invalida todo o cache de segundo nível
+            int services = serviceRepository.recomputeAggregates();
+            int providers = userRepository.recomputeProviderAggregates();
+            if (services > 0) {
+                serviceRepository.recomputeRankingScores();
+            }
+            return new int[] {services, providers};
+        }));
+
+        if (repaired[0] > 0) {
+            // Notas de serviços quaisquer podem ter mudado
+            searchResultCache.invalidateAll();
+            suggestionTrie.reweight(serviceRepository.findAllReputations());
+        }
+        log.info("Agregados de avaliação recalculados: {} serviços e {} provedores corrigidos",
+                repaired[0], repaired[1]);
+    }
+}
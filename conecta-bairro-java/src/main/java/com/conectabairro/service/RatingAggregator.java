@@ -0,0 +1,264 @@
+package com.conectabairro.service;
+
+import com.conectabairro.repository.ServiceRepository;
+import com.conectabairro.repository.UserRepository;
+import com.conectabairro.search.SearchResultCache;
+import com.conectabairro.search.SuggestionTrie;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Pipeline assíncrono dos agregados de avaliação.
+ *
+ * <p>O ReviewService apenas registra o delta de cada avaliação; depois do commit ele entra na fila,
+ * agrupado por serviço e por provedor. A cada janela ({@code app.ratings.flush-interval-ms}) o worker
+ * drena a fila e aplica um único UPDATE atômico por entidade (nota, contagem e histograma de
+ * estrelas), fora da transação da requisição.
+ * Deltas perdidos em uma queda do processo são corrigidos pelo {@link RatingAggregateRepairJob},
+ * que recalcula com o pipeline parado ({@link #pauseAndRun}).</p>
+ */
+@Component
+@Slf4j
+public class RatingAggregator {
+
+    @Autowired
+    private ServiceRepository serviceRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityCacheEvictor cacheEvictor;
+
+    @Autowired
+    private SearchResultCache searchResultCache;
+
+    @Autowired
+    private SuggestionTrie suggestionTrie;
+
+    private final Map<Long, PendingDelta> pendingServices = new ConcurrentHashMap<>();
+    private final Map<Long, PendingDelta> pendingProviders = new ConcurrentHashMap<>();
+
+    // Compartilhada pelas transações de avaliação entre o record() e o enfileiramento do delta;
+    // exclusiva durante o reparo
+    private final ReentrantReadWriteLock commitGate = new ReentrantReadWriteLock();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private TransactionTemplate transaction;
+    private Counter appliedUpdates;
+
+    /**
+     * Soma dos deltas ainda não aplicados de uma entidade (nota, contagem e faixas do histograma)
+     * e o instante do mais antigo
+     */
+    private record PendingDelta(long sum, int count, int[] stars, long queuedAt) {
+
+        /**
+         * Uma avaliação que sai da faixa {@code removedStars} e entra em {@code addedStars} (0 = nenhuma)
+         */
+        static PendingDelta of(int addedStars, int removedStars, long queuedAt) {
+            int[] stars = new int[5];
+            if (addedStars > 0) {
+                stars[addedStars - 1]++;
+            }
+            if (removedStars > 0) {
+                stars[removedStars - 1]--;
+            }
+            int count = (addedStars > 0 ? 1 : 0) - (removedStars > 0 ? 1 : 0);
+            return new PendingDelta(addedStars - removedStars, count, stars, queuedAt);
+        }
+
+        PendingDelta plus(PendingDelta other) {
+            int[] merged = new int[5];
+            for (int i = 0; i < merged.length; i++) {
+                merged[i] = stars[i] + other.stars[i];
+            }
+            return new PendingDelta(sum + other.sum, count + other.count, merged, Math.min(queuedAt, other.queuedAt));
+        }
+
+        boolean isEmpty() {
+            return sum == 0 && count == 0 && Arrays.stream(stars).allMatch(star -> star == 0);
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        transaction = new TransactionTemplate(transactionManager);
+        appliedUpdates = Counter.builder("ratings.pipeline.applied")
+                .description("UPDATEs de agregados de avaliação aplicados")
+                .register(meterRegistry);
+        Gauge.builder("ratings.pipeline.queue.depth", this, RatingAggregator::queueDepth)
+                .description("Serviços e provedores com deltas de avaliação pendentes")
+                .register(meterRegistry);
+        Gauge.builder("ratings.pipeline.lag.seconds", this, RatingAggregator::lagSeconds)
+                .description("Idade do delta de avaliação pendente mais antigo")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Marca serviço e provedor como "sujos" com a avaliação que passou da faixa {@code removedStars}
+     * para {@code addedStars} (0 = nenhuma: criação ou remoção); só entra na fila após o commit.
+     *
+     * <p>Deve ser chamado antes das escritas da transação: a partir daqui ela segura a trava de
+     * commit (compartilhada) até o delta entrar na fila, e o {@link #pauseAndRun} de um reparo em
+     * andamento a faz esperar aqui, sem locks no banco.</p>
+     */
+    public void record(Long serviceId, Long providerId, int addedStars, int removedStars) {
+        Runnable enqueue = () -> {
+            PendingDelta delta = PendingDelta.of(addedStars, removedStars, System.currentTimeMillis());
+            pendingServices.merge(serviceId, delta, PendingDelta::plus);
+            pendingProviders.merge(providerId, delta, PendingDelta::plus);
+        };
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            holdCommitGate();
+        }
+        TransactionHooks.afterCommit(enqueue);
+    }
+
+    /**
+     * Executa {@code action} (o recálculo do reparo) com o pipeline parado: espera as transações de
+     * avaliação em andamento terminarem e enfileirarem seus deltas, aplica todos eles e segura novas
+     * transações e o flush até o fim. Assim o recálculo vê exatamente as avaliações cujos deltas já
+     * foram aplicados, e nenhum delta é contado duas vezes.
+     */
+    public <T> T pauseAndRun(Supplier<T> action) {
+        commitGate.writeLock().lock();
+        try {
+            flushLock.lock();
+            try {
+                applyPending();
+                return action.get();
+            } finally {
+                flushLock.unlock();
+            }
+        } finally {
+            commitGate.writeLock().unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.ratings.flush-interval-ms:2000}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            applyPending();
+        } catch (RuntimeException e) {
+            log.warn("Falha ao aplicar agregados de avaliação, nova tentativa na próxima janela: {}", e.getMessage());
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void holdCommitGate() {
+        if (TransactionSynchronizationManager.hasResource(commitGate)) {
+            return;
+        }
+        commitGate.readLock().lock();
+        TransactionSynchronizationManager.bindResource(commitGate, Boolean.TRUE);
+        // Registrada antes do afterCommit que enfileira: a trava só é solta com o delta já na fila
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(commitGate);
+                commitGate.readLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Aplica os deltas pendentes; em caso de falha eles voltam para a fila e a exceção é propagada
+     */
+    private void applyPending() {
+        Map<Long, PendingDelta> services = drain(pendingServices);
+        Map<Long, PendingDelta> providers = drain(pendingProviders);
+        if (services.isEmpty() && providers.isEmpty()) {
+            return;
+        }
+
+        List<ServiceRepository.ReputationView> reputations;
+        try {
+            reputations = transaction.execute(status -> {
+                services.forEach((id, delta) -> {
+                    if (!delta.isEmpty()) {
+                        int[] stars = delta.stars();
+                        serviceRepository.applyRatingDelta(id, (int) delta.sum(), delta.count(),
+                                stars[0], stars[1], stars[2], stars[3], stars[4]);
+                    }
+                });
+                providers.forEach((id, delta) -> {
+                    if (!delta.isEmpty()) {
+                        int[] stars = delta.stars();
+                        userRepository.applyRatingDelta(id, (int) delta.sum(), delta.count(),
+                                stars[0], stars[1], stars[2], stars[3], stars[4]);
+                    }
+                });
+                // Lidas na mesma transação: uma falha aqui devolve os deltas junto com o rollback
+                return services.isEmpty() ? List.of() : serviceRepository.findReputationsByIdIn(services.keySet());
+            });
+        } catch (RuntimeException e) {
+            // Devolve os deltas para a fila; a próxima janela tenta de novo
+            services.forEach((id, delta) -> pendingServices.merge(id, delta, PendingDelta::plus));
+            providers.forEach((id, delta) -> pendingProviders.merge(id, delta, PendingDelta::plus));
+            throw e;
+        }
+
+        services.keySet().forEach(cacheEvictor::evictService);
+        providers.keySet().forEach(cacheEvictor::evictUser);
+        // Páginas de busca em cache e sugestões do autocompletar dependem de nota e total de avaliações
+        searchResultCache.invalidateServices(services.keySet());
+        suggestionTrie.reweight(reputations);
+        appliedUpdates.increment(services.size() + providers.size());
+        log.debug("Agregados de avaliação aplicados: {} serviços, {} provedores", services.size(), providers.size());
+    }
+
+    public int queueDepth() {
+        return pendingServices.size() + pendingProviders.size();
+    }
+
+    public double lagSeconds() {
+        long oldest = Long.MAX_VALUE;
+        for (PendingDelta delta : pendingServices.values()) {
+            oldest = Math.min(oldest, delta.queuedAt());
+        }
+        for (PendingDelta delta : pendingProviders.values()) {
+            oldest = Math.min(oldest, delta.queuedAt());
+        }
+        return oldest == Long.MAX_VALUE ? 0.0 : (System.currentTimeMillis() - oldest) / 1000.0;
+    }
+
+    private static Map<Long, PendingDelta> drain(Map<Long, PendingDelta> pending) {
+        Map<Long, PendingDelta> drained = new HashMap<>();
+        for (Long id : pending.keySet()) {
+            PendingDelta delta = pending.remove(id);
+            if (delta != null) {
+                drained.put(id, delta);
+            }
+        }
+        return drained;
+    }
+}
@@ -0,0 +1,31 @@
+package com.conectabairro.service;
+
+import com.conectabairro.dto.ServiceRequestDto;
+import com.conectabairro.model.OutboxEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Repassa os eventos de requisições da outbox para as conexões SSE do cliente e do provedor.
+ * Uma entrega repetida só reenvia o estado atual da requisição, então o handler é idempotente.
+ */
+@Component
+public class RequestEventNotificationHandler implements OutboxEventHandler {
+
+    @Autowired
+    private RequestEventStream requestEventStream;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Override
+    public boolean supports(OutboxEvent event) {
+        return OutboxEvent.AGGREGATE_SERVICE_REQUEST.equals(event.getAggregateType());
+    }
+
+    @Override
+    public void handle(OutboxEvent event) throws Exception {
+        requestEventStream.publish(objectMapper.readValue(event.getPayload(), ServiceRequestDto.class));
+    }
+}
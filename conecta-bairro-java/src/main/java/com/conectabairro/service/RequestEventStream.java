@@ -0,0 +1,315 @@
+package com.conectabairro.service;
+
+import com.conectabairro.dto.ServiceRequestDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Envio por Server-Sent Events das mudanças de requisições de serviço para o cliente e o provedor
+ * envolvidos, no lugar do polling de {@code /requests/my-requests} e {@code /requests/received}.
+ *
+ * <p>Cada conexão tem uma fila própria drenada por uma thread virtual, que também manda o heartbeat
+ * quando a fila fica ociosa: dezenas de milhares de conexões paradas custam só memória, e um cliente
+ * lento não atrasa os outros nem a transação que gerou o evento.</p>
+ *
+ * <p>Cada usuário tem um buffer curto dos últimos eventos, para que a reconexão com
+ * {@code Last-Event-ID} receba o que perdeu. Se o buffer não cobre o intervalo (eventos descartados
+ * ou reinício do servidor), o cliente recebe {@code resync} e deve recarregar a listagem.</p>
+ *
+ * <p>Uma conexão não sobrevive ao token de sessão que a abriu: no vencimento o cliente recebe
+ * {@code expired} e o fluxo é encerrado.</p>
+ */
+@Component
+@Slf4j
+public class RequestEventStream {
+
+    static final String EVENT_REQUEST = "request";
+    static final String EVENT_RESYNC = "resync";
+    static final String EVENT_EXPIRED = "expired";
+
+    private static final int SUBSCRIBER_QUEUE_LIMIT = 256;
+
+    private static final BufferedEvent RESYNC = new BufferedEvent(0, null, 0);
+
+    @Value("${app.events.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${app.events.heartbeat-ms:25000}")
+    private long heartbeatMs;
+
+    @Value("${app.events.replay-size:100}")
+    private int replaySize;
+
+    @Value("${app.events.replay-ttl-seconds:600}")
+    private long replayTtlSeconds;
+
+    @Value("${app.events.max-connections-per-user:5}")
+    private int maxConnectionsPerUser;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // JSON numa linha só: quebras de linha (indent-output) quebrariam o enquadramento do SSE
+    private ObjectWriter compactWriter;
+
+    private final Map<Long, UserChannel> channels = new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong(System.currentTimeMillis());
+
+    // Maior ID já descartado de algum buffer; começa no início do processo, pois o que veio antes se perdeu
+    private final AtomicLong discardedUpTo = new AtomicLong(sequence.get());
+
+    private record BufferedEvent(long id, ServiceRequestDto request, long createdAt) {
+    }
+
+    /**
+     * Estado de um usuário: conexões abertas e eventos recentes, protegidos pelo próprio objeto
+     */
+    private static final class UserChannel {
+        private final List<Subscriber> subscribers = new ArrayList<>();
+        private final Deque<BufferedEvent> recent = new ArrayDeque<>();
+        private boolean removed;
+    }
+
+    @PostConstruct
+    void init() {
+        compactWriter = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+        Gauge.builder("requests.events.subscribers", connections, AtomicInteger::get)
+                .description("Conexões SSE abertas")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        channels.values().forEach(channel -> {
+            synchronized (channel) {
+                new ArrayList<>(channel.subscribers).forEach(Subscriber::close);
+            }
+        });
+    }
+
+    /**
+     * Abre a assinatura do usuário, enfileirando antes os eventos posteriores a {@code lastEventId}.
+     * A conexão é encerrada em {@code sessionExpiresAtMillis}, a expiração do token de sessão.
+     */
+    public SseEmitter subscribe(Long userId, String lastEventId, long sessionExpiresAtMillis) {
+        Subscriber subscriber = new Subscriber(userId, new SseEmitter(timeoutMs), sessionExpiresAtMillis);
+        List<Subscriber> evicted = new ArrayList<>();
+
+        withChannel(userId, channel -> {
+            // Sob a trava do canal: nenhum evento entra entre o replay e o registro da conexão
+            enqueueMissed(channel, subscriber, lastEventId);
+            channel.subscribers.add(subscriber);
+            while (channel.subscribers.size() > maxConnectionsPerUser) {
+                // Abas antigas esquecidas abertas: mantém só as conexões mais recentes
+                evicted.add(channel.subscribers.remove(0));
+            }
+        });
+        evicted.forEach(Subscriber::close);
+
+        subscriber.start();
+        return subscriber.emitter;
+    }
+
+    /**
+     * Publica a requisição para o cliente e o provedor. Chamado só pelo {@link OutboxDispatcher}
+     * (via RequestEventNotificationHandler), com o evento já confirmado na outbox.
+     */
+    public void publish(ServiceRequestDto request) {
+        BufferedEvent event = new BufferedEvent(sequence.incrementAndGet(), request, System.currentTimeMillis());
+        for (Long userId : new LinkedHashSet<>(Arrays.asList(request.getCustomerId(), request.getProviderId()))) {
+            withChannel(userId, channel -> {
+                channel.recent.addLast(event);
+                while (channel.recent.size() > replaySize) {
+                    discard(channel.recent.removeFirst());
+                }
+                // Cópia: um assinante com a fila cheia se remove da lista durante o envio
+                List.copyOf(channel.subscribers).forEach(subscriber -> subscriber.offer(event));
+            });
+        }
+    }
+
+    /**
+     * Descarta eventos antigos dos buffers e os canais de usuários sem conexão nem eventos
+     */
+    @Scheduled(fixedDelayString = "${app.events.prune-interval-ms:60000}")
+    public void pruneRecentEvents() {
+        long cutoff = System.currentTimeMillis() - replayTtlSeconds * 1000;
+        channels.forEach((userId, channel) -> {
+            synchronized (channel) {
+                while (!channel.recent.isEmpty() && channel.recent.peekFirst().createdAt() < cutoff) {
+                    discard(channel.recent.removeFirst());
+                }
+                if (channel.recent.isEmpty() && channel.subscribers.isEmpty()) {
+                    channel.removed = true;
+                    channels.remove(userId, channel);
+                }
+            }
+        });
+    }
+
+    public int connectionCount() {
+        return connections.get();
+    }
+
+    private void withChannel(Long userId, Consumer<UserChannel> action) {
+        while (true) {
+            UserChannel channel = channels.computeIfAbsent(userId, id -> new UserChannel());
+            synchronized (channel) {
+                if (!channel.removed) {
+                    action.accept(channel);
+                    return;
+                }
+            }
+        }
+    }
+
+    private void enqueueMissed(UserChannel channel, Subscriber subscriber, String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return;
+        }
+        long lastId;
+        try {
+            lastId = Long.parseLong(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            subscriber.resync();
+            return;
+        }
+
+        // O buffer é contínuo por usuário: se ainda guarda um evento <= lastId, guarda tudo o que veio depois
+        boolean covered = !channel.recent.isEmpty() && channel.recent.peekFirst().id() <= lastId;
+        if (!covered && lastId < discardedUpTo.get()) {
+            subscriber.resync();
+            return;
+        }
+        for (BufferedEvent event : channel.recent) {
+            if (event.id() > lastId) {
+                subscriber.offer(event);
+            }
+        }
+    }
+
+    private void discard(BufferedEvent event) {
+        discardedUpTo.accumulateAndGet(event.id(), Math::max);
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        UserChannel channel = channels.get(subscriber.userId);
+        if (channel != null) {
+            synchronized (channel) {
+                channel.subscribers.remove(subscriber);
+            }
+        }
+    }
+
+    /**
+     * Uma conexão SSE: fila limitada drenada por uma thread virtual
+     */
+    private final class Subscriber {
+
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final long expiresAtMillis;
+        private final BlockingQueue<BufferedEvent> queue = new LinkedBlockingQueue<>(SUBSCRIBER_QUEUE_LIMIT);
+        private volatile Thread worker;
+        private volatile boolean closed;
+
+        private Subscriber(Long userId, SseEmitter emitter, long expiresAtMillis) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.expiresAtMillis = expiresAtMillis;
+            emitter.onCompletion(this::close);
+            emitter.onTimeout(this::close);
+            emitter.onError(error -> close());
+        }
+
+        void start() {
+            connections.incrementAndGet();
+            worker = Thread.ofVirtual().name("sse-user-" + userId).start(this::drain);
+        }
+
+        void offer(BufferedEvent event) {
+            if (!queue.offer(event)) {
+                // Cliente lento demais: encerra a conexão; ao reconectar, recebe o replay ou resync
+                log.debug("Fila SSE do usuário {} cheia, encerrando a conexão", userId);
+                close();
+            }
+        }
+
+        void resync() {
+            queue.offer(RESYNC);
+        }
+
+        void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            unsubscribe(this);
+            Thread current = worker;
+            if (current != null) {
+                current.interrupt();
+            }
+        }
+
+        private void drain() {
+            try {
+                while (!closed) {
+                    long remainingMs = expiresAtMillis - System.currentTimeMillis();
+                    if (remainingMs <= 0) {
+                        // Token de sessão vencido: o cliente precisa se autenticar de novo antes de reconectar
+                        emitter.send(SseEmitter.event().name(EVENT_EXPIRED).data("{}"));
+                        break;
+                    }
+                    BufferedEvent event = queue.poll(Math.min(heartbeatMs, remainingMs), TimeUnit.MILLISECONDS);
+                    if (event == null && System.currentTimeMillis() >= expiresAtMillis) {
+                        continue;
+                    }
+                    if (event == null) {
+                        // Heartbeat: mantém a conexão viva em proxies e detecta clientes que sumiram
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    } else if (event == RESYNC) {
+                        emitter.send(SseEmitter.event().name(EVENT_RESYNC).data("{}"));
+                    } else {
+                        emitter.send(SseEmitter.event()
+                                .id(String.valueOf(event.id()))
+                                .name(EVENT_REQUEST)
+                                .data(compactWriter.writeValueAsString(event.request())));
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Assinante SSE do usuário {} desconectado: {}", userId, e.getMessage());
+            } finally {
+                close();
+                connections.decrementAndGet();
+                emitter.complete();
+            }
+        }
+    }
+}
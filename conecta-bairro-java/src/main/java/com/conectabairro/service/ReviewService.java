@@ -1,8 +1,11 @@
 package com.conectabairro.service;
 
+import com.conectabairro.dto.CursorPage;
+import com.conectabairro.dto.KeysetCursor;
 import com.conectabairro.dto.ReviewDto;
 import com.conectabairro.exception.ResourceNotFoundException;
 import com.conectabairro.exception.UnauthorizedException;
+import com.conectabairro.model.OutboxEvent;
 import com.conectabairro.model.Review;
 import com.conectabairro.model.Service;
 import com.conectabairro.model.ServiceRequest;
@@ -15,13 +18,15 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Map;
+import java.util.function.Function;
+
 /**
  * Serviço para gerenciar avaliações
  */
-@Service
+@org.springframework.stereotype.Service
 @Slf4j
 public class ReviewService {
 
@@ -37,6 +42,12 @@ public class ReviewService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private RatingAggregator ratingAggregator;
+
+    @Autowired
+    private OutboxPublisher outboxPublisher;
+
     @Transactional
     public ReviewDto createReview(ReviewDto reviewDto, Long reviewerId) {
         log.info("Criando review para requisição: {} por reviewer: {}", reviewDto.getRequestId(), reviewerId);
@@ -69,47 +80,60 @@ public class ReviewService {
                 .request(request)
                 .build();
 
+        recordRating(service, review.getRating(), 0);
+
         Review savedReview = reviewRepository.save(review);
         request.setReview(savedReview);
         serviceRequestRepository.save(request);
 
-        updateServiceRating(service);
-
         log.info("Review criada com sucesso: {}", savedReview.getId());
 
-        return mapToDto(savedReview);
+        ReviewDto created = mapToDto(savedReview);
+        outboxPublisher.publish(OutboxEvent.AGGREGATE_REVIEW, created.getId(), OutboxEvent.REVIEW_CREATED, created);
+        return created;
     }
 
     @Transactional(readOnly = true)
     public ReviewDto getReviewById(Long id) {
         log.info("Buscando review com ID: {}", id);
 
-        Review review = reviewRepository.findById(id)
+        return reviewRepository.findDtoById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Review não encontrada"));
-
-        return mapToDto(review);
     }
 
     @Transactional(readOnly = true)
     public Page<ReviewDto> getServiceReviews(Long serviceId, Pageable pageable) {
         log.info("Buscando reviews do serviço: {}", serviceId);
 
-        Service service = serviceRepository.findById(serviceId)
-                .orElseThrow(() -> new ResourceNotFoundException("Serviço não encontrado"));
+        if (!serviceRepository.existsById(serviceId)) {
+            throw new ResourceNotFoundException("Serviço não encontrado");
+        }
 
-        return reviewRepository.findByService(service, pageable)
-                .map(this::mapToDto);
+        return reviewRepository.findDtoByServiceId(serviceId, pageable);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<ReviewDto> getServiceReviews(Long serviceId, String after, int size) {
+        log.info("Buscando reviews do serviço (cursor): {}", serviceId);
+
+        if (!serviceRepository.existsById(serviceId)) {
+            throw new ResourceNotFoundException("Serviço não encontrado");
+        }
+
+        KeysetCursor cursor = KeysetCursor.decode(after);
+        return CursorPage.of(
+                reviewRepository.findPageByServiceBefore(serviceId, cursor.createdAt(), cursor.id(),
+                        CursorPage.limit(size)),
+                size,
+                Function.identity(),
+                review -> new KeysetCursor(review.getCreatedAt(), review.getId()));
     }
 
     @Transactional(readOnly = true)
     public Page<ReviewDto> getMyReviews(Long reviewerId, Pageable pageable) {
         log.info("Buscando reviews do usuário: {}", reviewerId);
 
-        User reviewer = userRepository.findById(reviewerId)
-                .orElseThrow(() -> new ResourceNotFoundException("Reviewer não encontrado"));
-
-        return reviewRepository.findByReviewer(reviewer, pageable)
-                .map(this::mapToDto);
+        return reviewRepository.findDtoByReviewerId(reviewerId, pageable);
     }
 
     @Transactional
@@ -123,7 +147,9 @@ public class ReviewService {
             throw new UnauthorizedException("Você não tem permissão para atualizar esta review");
         }
 
-        if (reviewDto.getRating() != null) {
+        int previousRating = review.getRating();
+        if (reviewDto.getRating() != null && reviewDto.getRating() != previousRating) {
+            recordRating(review.getService(), reviewDto.getRating(), previousRating);
             review.setRating(reviewDto.getRating());
         }
         if (reviewDto.getComment() != null) {
@@ -132,11 +158,11 @@ public class ReviewService {
 
         Review updatedReview = reviewRepository.save(review);
 
-        updateServiceRating(review.getService());
-
         log.info("Review atualizada com sucesso: {}", id);
 
-        return mapToDto(updatedReview);
+        ReviewDto updated = mapToDto(updatedReview);
+        outboxPublisher.publish(OutboxEvent.AGGREGATE_REVIEW, id, OutboxEvent.REVIEW_UPDATED, updated);
+        return updated;
     }
 
     @Transactional
@@ -151,44 +177,24 @@ public class ReviewService {
         }
 
         Service service = review.getService();
-        reviewRepository.delete(review);
+        int rating = review.getRating();
+        recordRating(service, 0, rating);
 
-        updateServiceRating(service);
+        reviewRepository.delete(review);
+        outboxPublisher.publish(OutboxEvent.AGGREGATE_REVIEW, id, OutboxEvent.REVIEW_DELETED,
+                Map.of("id", id, "serviceId", service.getId(), "rating", rating));
 
         log.info("Review deletada com sucesso: {}", id);
     }
 
-    private void updateServiceRating(Service service) {
-        Page<Review> reviews = reviewRepository.findByService(service, org.springframework.data.domain.PageRequest.of(0, Integer.MAX_VALUE));
-        
-        if (reviews.hasContent()) {
-            double averageRating = reviews.getContent()
-                    .stream()
-                    .mapToInt(Review::getRating)
-                    .average()
-                    .orElse(0.0);
-
-            service.setRating(averageRating);
-            service.setTotalReviews(reviews.getContent().size());
-            serviceRepository.save(service);
-
-            // Atualizar rating do provider
-            User provider = service.getProvider();
-            Page<Review> providerReviews = reviewRepository.findByReviewer(provider, 
-                    org.springframework.data.domain.PageRequest.of(0, Integer.MAX_VALUE));
-            
-            if (providerReviews.hasContent()) {
-                double providerAverageRating = providerReviews.getContent()
-                        .stream()
-                        .mapToInt(Review::getRating)
-                        .average()
-                        .orElse(0.0);
-
-                provider.setRating(providerAverageRating);
-                provider.setTotalReviews(providerReviews.getContent().size());
-                userRepository.save(provider);
-            }
-        }
+    /**
+     * Os agregados do serviço e do provedor (nota, contagem e histograma de estrelas) são atualizados
+     * de forma assíncrona e agrupada pelo {@link RatingAggregator}, depois do commit, sem segurar
+     * locks nas linhas de services e users nesta transação. Chamado antes das escritas, como pede
+     * {@link RatingAggregator#record}.
+     */
+    private void recordRating(Service service, int addedStars, int removedStars) {
+        ratingAggregator.record(service.getId(), service.getProvider().getId(), addedStars, removedStars);
     }
 
     private ReviewDto mapToDto(Review review) {
@@ -0,0 +1,96 @@
+package com.conectabairro.service;
+
+import com.conectabairro.model.SearchQueryStat;
+import com.conectabairro.repository.SearchQueryStatRepository;
+import com.conectabairro.search.SearchResultCache;
+import com.conectabairro.search.SearchResultCache.CacheKey;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Persiste as frequências das consultas do {@link SearchResultCache} (search_query_stats), para que
+ * o aquecimento após um restart use as consultas realmente populares e não só a lista fixa
+ * {@code warm-queries}
+ */
+@Component
+@Slf4j
+public class SearchQueryStatsJob {
+
+    /** Tamanho da coluna query_value; consultas maiores não são persistidas */
+    private static final int MAX_VALUE_LENGTH = 255;
+
+    @Autowired
+    private SearchQueryStatRepository statRepository;
+
+    @Autowired
+    private SearchResultCache resultCache;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.search-cache.stats-seed-top:1000}")
+    private int seedTop;
+
+    @Value("${app.search-cache.stats-retention-days:30}")
+    private int retentionDays;
+
+    /**
+     * Consultas mais frequentes já persistidas, para semear o cache na inicialização
+     */
+    public Map<CacheKey, Long> loadTopQueries() {
+        Map<CacheKey, Long> top = new LinkedHashMap<>();
+        for (SearchQueryStat stat : statRepository.findAllByOrderByHitsDesc(PageRequest.of(0, seedTop))) {
+            try {
+                SearchResultCache.Kind kind = SearchResultCache.Kind.valueOf(stat.getKind());
+                top.put(new CacheKey(kind, stat.getQueryValue(), stat.getPage(), stat.getPageSize()), stat.getHits());
+            } catch (IllegalArgumentException e) {
+                log.warn("Tipo de consulta desconhecido em search_query_stats: {}", stat.getKind());
+            }
+        }
+        return top;
+    }
+
+    @Scheduled(fixedDelayString = "${app.search-cache.stats-flush-ms:60000}")
+    public void flush() {
+        Map<CacheKey, Long> hits = resultCache.drainUnsavedHits();
+        hits.keySet().removeIf(key -> key.value().length() > MAX_VALUE_LENGTH);
+        if (hits.isEmpty()) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                    hits.forEach((key, count) -> statRepository.addHits(
+                            key.kind().name(), key.value(), key.page(), key.size(), count, now)));
+            log.debug("Frequências de busca persistidas: {} consultas", hits.size());
+        } catch (RuntimeException e) {
+            // Devolve para a próxima janela
+            resultCache.restoreUnsavedHits(hits);
+            log.warn("Falha ao persistir frequências de busca, nova tentativa na próxima janela: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(cron = "${app.search-cache.stats-cleanup-cron:0 0 5 * * *}")
+    public void cleanup() {
+        int removed = new TransactionTemplate(transactionManager).execute(status ->
+                statRepository.deleteNotSeenSince(LocalDateTime.now().minusDays(retentionDays)));
+        log.info("Frequências de busca antigas removidas: {}", removed);
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+}
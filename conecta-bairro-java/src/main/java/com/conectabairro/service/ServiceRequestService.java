@@ -1,11 +1,18 @@
 package com.conectabairro.service;
 
+import com.conectabairro.dto.BulkTransitionResult;
+import com.conectabairro.dto.CursorPage;
+import com.conectabairro.dto.ProviderRequestStatsDto;
+import com.conectabairro.dto.KeysetCursor;
 import com.conectabairro.dto.ServiceRequestDto;
 import com.conectabairro.exception.ResourceNotFoundException;
 import com.conectabairro.exception.UnauthorizedException;
+import com.conectabairro.model.OutboxEvent;
+import com.conectabairro.model.ProviderRequestCounter;
 import com.conectabairro.model.Service;
 import com.conectabairro.model.ServiceRequest;
 import com.conectabairro.model.User;
+import com.conectabairro.repository.ProviderRequestCounterRepository;
 import com.conectabairro.repository.ServiceRepository;
 import com.conectabairro.repository.ServiceRequestRepository;
 import com.conectabairro.repository.UserRepository;
@@ -13,13 +20,18 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
 /**
  * Serviço para gerenciar requisições de serviço
  */
-@Service
+@org.springframework.stereotype.Service
 @Slf4j
 public class ServiceRequestService {
 
@@ -32,6 +44,15 @@ public class ServiceRequestService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private EntityCacheEvictor cacheEvictor;
+
+    @Autowired
+    private ProviderRequestCounterRepository counterRepository;
+
+    @Autowired
+    private OutboxPublisher outboxPublisher;
+
     @Transactional
     public ServiceRequestDto createRequest(Long serviceId, Long customerId, ServiceRequestDto requestDto) {
         log.info("Criando requisição de serviço para serviço: {} por cliente: {}", serviceId, customerId);
@@ -48,6 +69,7 @@ public class ServiceRequestService {
 
         ServiceRequest request = ServiceRequest.builder()
                 .service(service)
+                .providerId(service.getProvider().getId())
                 .customer(customer)
                 .scheduledDate(requestDto.getScheduledDate())
                 .notes(requestDto.getNotes())
@@ -56,105 +78,294 @@ public class ServiceRequestService {
                 .build();
 
         ServiceRequest savedRequest = serviceRequestRepository.save(request);
+        countTransition(service.getProvider().getId(), null, ServiceRequest.RequestStatus.PENDING,
+                1, savedRequest.getTotalPrice());
         log.info("Requisição de serviço criada com sucesso: {}", savedRequest.getId());
 
-        return mapToDto(savedRequest);
+        ServiceRequestDto created = mapToDto(savedRequest);
+        outboxPublisher.publish(OutboxEvent.AGGREGATE_SERVICE_REQUEST, created.getId(),
+                OutboxEvent.SERVICE_REQUEST_CREATED, created);
+        return created;
+    }
+
+    /**
+     * Contadores do painel do provedor, lidos da tabela materializada (no máximo uma linha por status)
+     */
+    @Transactional(readOnly = true)
+    public ProviderRequestStatsDto getProviderStats(Long providerId) {
+        log.info("Buscando contadores de requisições do provider: {}", providerId);
+
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (ServiceRequest.RequestStatus status : ServiceRequest.RequestStatus.values()) {
+            counts.put(status.name(), 0L);
+        }
+        long total = 0;
+        double completedRevenue = 0;
+        for (ProviderRequestCounter counter : counterRepository.findByProviderId(providerId)) {
+            counts.put(counter.getStatus().name(), counter.getRequestCount());
+            total += counter.getRequestCount();
+            if (counter.getStatus() == ServiceRequest.RequestStatus.COMPLETED) {
+                completedRevenue = counter.getTotalPrice();
+            }
+        }
+
+        return ProviderRequestStatsDto.builder()
+                .providerId(providerId)
+                .countsByStatus(counts)
+                .totalRequests(total)
+                .completedRequests(counts.get(ServiceRequest.RequestStatus.COMPLETED.name()))
+                .completedRevenue(completedRevenue)
+                .build();
     }
 
     @Transactional(readOnly = true)
     public ServiceRequestDto getRequestById(Long id) {
         log.info("Buscando requisição com ID: {}", id);
 
-        ServiceRequest request = serviceRequestRepository.findById(id)
+        return serviceRequestRepository.findDtoById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Requisição não encontrada"));
-
-        return mapToDto(request);
     }
 
     @Transactional(readOnly = true)
     public Page<ServiceRequestDto> getMyRequests(Long customerId, Pageable pageable) {
         log.info("Buscando requisições do cliente: {}", customerId);
 
-        User customer = userRepository.findById(customerId)
-                .orElseThrow(() -> new ResourceNotFoundException("Cliente não encontrado"));
-
-        return serviceRequestRepository.findByCustomer(customer, pageable)
-                .map(this::mapToDto);
+        return serviceRequestRepository.findDtoByCustomerId(customerId, pageable);
     }
 
     @Transactional(readOnly = true)
     public Page<ServiceRequestDto> getReceivedRequests(Long providerId, Pageable pageable) {
         log.info("Buscando requisições recebidas pelo provider: {}", providerId);
 
-        User provider = userRepository.findById(providerId)
-                .orElseThrow(() -> new ResourceNotFoundException("Provedor não encontrado"));
+        return serviceRequestRepository.findDtoByProviderId(providerId, pageable);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<ServiceRequestDto> getMyRequests(Long customerId, String after, int size) {
+        log.info("Buscando requisições do cliente (cursor): {}", customerId);
 
-        return serviceRequestRepository.findByService_Provider(provider, pageable)
-                .map(this::mapToDto);
+        KeysetCursor cursor = KeysetCursor.decode(after);
+        return toCursorPage(serviceRequestRepository.findPageByCustomerBefore(
+                customerId, cursor.createdAt(), cursor.id(), CursorPage.limit(size)), size);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<ServiceRequestDto> getReceivedRequests(Long providerId, String after, int size) {
+        log.info("Buscando requisições recebidas pelo provider (cursor): {}", providerId);
+
+        KeysetCursor cursor = KeysetCursor.decode(after);
+        return toCursorPage(serviceRequestRepository.findPageByProviderBefore(
+                providerId, cursor.createdAt(), cursor.id(), CursorPage.limit(size)), size);
     }
 
     @Transactional
     public ServiceRequestDto acceptRequest(Long id, Long providerId) {
         log.info("Aceitando requisição: {} por provider: {}", id, providerId);
 
-        ServiceRequest request = serviceRequestRepository.findByIdAndService_Provider(id, 
-                userRepository.findById(providerId)
-                .orElseThrow(() -> new ResourceNotFoundException("Provedor não encontrado")))
-                .orElseThrow(() -> new UnauthorizedException("Você não tem permissão para aceitar esta requisição"));
-
-        request.setStatus(ServiceRequest.RequestStatus.ACCEPTED);
-        ServiceRequest updatedRequest = serviceRequestRepository.save(request);
+        ServiceRequestDto updatedRequest = transitionAsProvider(id, providerId, ServiceRequest.RequestStatus.ACCEPTED,
+                "Você não tem permissão para aceitar esta requisição");
         log.info("Requisição aceita com sucesso: {}", id);
 
-        return mapToDto(updatedRequest);
+        return updatedRequest;
     }
 
     @Transactional
     public ServiceRequestDto rejectRequest(Long id, Long providerId) {
         log.info("Rejeitando requisição: {} por provider: {}", id, providerId);
 
-        ServiceRequest request = serviceRequestRepository.findByIdAndService_Provider(id,
-                userRepository.findById(providerId)
-                .orElseThrow(() -> new ResourceNotFoundException("Provedor não encontrado")))
-                .orElseThrow(() -> new UnauthorizedException("Você não tem permissão para rejeitar esta requisição"));
-
-        request.setStatus(ServiceRequest.RequestStatus.REJECTED);
-        ServiceRequest updatedRequest = serviceRequestRepository.save(request);
+        ServiceRequestDto updatedRequest = transitionAsProvider(id, providerId, ServiceRequest.RequestStatus.REJECTED,
+                "Você não tem permissão para rejeitar esta requisição");
         log.info("Requisição rejeitada com sucesso: {}", id);
 
-        return mapToDto(updatedRequest);
+        return updatedRequest;
     }
 
     @Transactional
     public ServiceRequestDto completeRequest(Long id, Long providerId) {
         log.info("Marcando requisição como completa: {} por provider: {}", id, providerId);
 
-        ServiceRequest request = serviceRequestRepository.findByIdAndService_Provider(id,
-                userRepository.findById(providerId)
-                .orElseThrow(() -> new ResourceNotFoundException("Provedor não encontrado")))
-                .orElseThrow(() -> new UnauthorizedException("Você não tem permissão para completar esta requisição"));
+        ServiceRequestDto updatedRequest = transitionAsProvider(id, providerId, ServiceRequest.RequestStatus.COMPLETED,
+                "Você não tem permissão para completar esta requisição");
 
-        request.setStatus(ServiceRequest.RequestStatus.COMPLETED);
-        ServiceRequest updatedRequest = serviceRequestRepository.save(request);
+        // Volume de concluídas entra no ranking_score; a tabela de transições garante um único incremento
+        serviceRepository.addCompletedRequests(updatedRequest.getServiceId(), 1);
+        cacheEvictor.evictService(updatedRequest.getServiceId());
         log.info("Requisição marcada como completa: {}", id);
 
-        return mapToDto(updatedRequest);
+        return updatedRequest;
     }
 
     @Transactional
     public ServiceRequestDto cancelRequest(Long id, Long customerId) {
         log.info("Cancelando requisição: {} por cliente: {}", id, customerId);
 
-        ServiceRequest request = serviceRequestRepository.findByIdAndCustomer(id,
-                userRepository.findById(customerId)
-                .orElseThrow(() -> new ResourceNotFoundException("Cliente não encontrado")))
-                .orElseThrow(() -> new UnauthorizedException("Você não tem permissão para cancelar esta requisição"));
-
-        request.setStatus(ServiceRequest.RequestStatus.CANCELLED);
-        ServiceRequest updatedRequest = serviceRequestRepository.save(request);
+        ServiceRequest.RequestStatus target = ServiceRequest.RequestStatus.CANCELLED;
+        ServiceRequestDto updatedRequest = transition(id, target,
+                sources -> serviceRequestRepository.transitionAsCustomer(
+                        id, customerId, sources, target, LocalDateTime.now()),
+                request -> request.getCustomerId().equals(customerId),
+                "Você não tem permissão para cancelar esta requisição");
         log.info("Requisição cancelada com sucesso: {}", id);
 
-        return mapToDto(updatedRequest);
+        return updatedRequest;
+    }
+
+    /**
+     * Aceita, rejeita ou completa várias requisições recebidas de uma vez: valida dono e status de
+     * todas numa consulta, aplica a transição num único UPDATE e devolve o resultado de cada ID
+     */
+    @Transactional
+    public BulkTransitionResult transitionReceivedRequests(List<Long> requestIds, String status, Long providerId) {
+        ServiceRequest.RequestStatus target = parseProviderTarget(status);
+        List<Long> ids = requestIds.stream().distinct().toList();
+        log.info("Transição em lote para {} de {} requisições por provider: {}", target, ids.size(), providerId);
+
+        Map<Long, ServiceRequestRepository.TransitionCandidate> candidates = new HashMap<>();
+        for (ServiceRequestRepository.TransitionCandidate candidate : serviceRequestRepository.lockTransitionCandidates(ids)) {
+            candidates.put(candidate.getId(), candidate);
+        }
+
+        Map<Long, BulkTransitionResult.Item> failures = new HashMap<>();
+        List<Long> eligible = new ArrayList<>();
+        Map<Long, Integer> completedByService = new HashMap<>();
+        Map<ServiceRequest.RequestStatus, Integer> countBySource = new EnumMap<>(ServiceRequest.RequestStatus.class);
+        Map<ServiceRequest.RequestStatus, Double> amountBySource = new EnumMap<>(ServiceRequest.RequestStatus.class);
+        for (Long id : ids) {
+            ServiceRequestRepository.TransitionCandidate candidate = candidates.get(id);
+            if (candidate == null) {
+                failures.put(id, failure(id, BulkTransitionResult.Outcome.NOT_FOUND, "Requisição não encontrada"));
+            } else if (!candidate.getProviderId().equals(providerId)) {
+                failures.put(id, failure(id, BulkTransitionResult.Outcome.FORBIDDEN,
+                        "Você não tem permissão para alterar esta requisição"));
+            } else if (!target.sources().contains(ServiceRequest.RequestStatus.valueOf(candidate.getStatus()))) {
+                failures.put(id, failure(id, BulkTransitionResult.Outcome.INVALID_STATE,
+                        "Requisição com status " + candidate.getStatus() + " não pode passar para " + target));
+            } else {
+                ServiceRequest.RequestStatus source = ServiceRequest.RequestStatus.valueOf(candidate.getStatus());
+                eligible.add(id);
+                completedByService.merge(candidate.getServiceId(), 1, Integer::sum);
+                countBySource.merge(source, 1, Integer::sum);
+                amountBySource.merge(source, candidate.getTotalPrice() != null ? candidate.getTotalPrice() : 0.0,
+                        Double::sum);
+            }
+        }
+
+        Map<Long, ServiceRequestDto> updated = new HashMap<>();
+        if (!eligible.isEmpty()) {
+            int rows = serviceRequestRepository.transitionAllAsProvider(
+                    eligible, providerId, target.sources(), target, LocalDateTime.now());
+            if (rows != eligible.size()) {
+                // Não deveria acontecer com as linhas travadas; desfaz o lote inteiro
+                throw new IllegalStateException("Requisições alteradas durante o lote, tente novamente");
+            }
+            List<ServiceRequestDto> changed = serviceRequestRepository.findDtoByIdIn(eligible);
+            changed.forEach(request -> updated.put(request.getId(), request));
+            outboxPublisher.publishAll(OutboxEvent.AGGREGATE_SERVICE_REQUEST, OutboxEvent.SERVICE_REQUEST_STATUS_CHANGED,
+                    changed, ServiceRequestDto::getId);
+            countBySource.forEach((source, count) ->
+                    countTransition(providerId, source, target, count, amountBySource.get(source)));
+            if (target == ServiceRequest.RequestStatus.COMPLETED) {
+                completedByService.forEach((serviceId, count) -> {
+                    serviceRepository.addCompletedRequests(serviceId, count);
+                    cacheEvictor.evictService(serviceId);
+                });
+            }
+        }
+
+        List<BulkTransitionResult.Item> results = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            results.add(failures.containsKey(id)
+                    ? failures.get(id)
+                    : BulkTransitionResult.Item.builder()
+                            .requestId(id)
+                            .outcome(BulkTransitionResult.Outcome.UPDATED)
+                            .request(updated.get(id))
+                            .build());
+        }
+        log.info("Transição em lote concluída: {} atualizadas, {} recusadas", eligible.size(), failures.size());
+
+        return BulkTransitionResult.builder()
+                .updated(eligible.size())
+                .failed(failures.size())
+                .results(results)
+                .build();
+    }
+
+    private static ServiceRequest.RequestStatus parseProviderTarget(String status) {
+        ServiceRequest.RequestStatus target;
+        try {
+            target = ServiceRequest.RequestStatus.valueOf(status.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Status inválido: " + status);
+        }
+        if (target == ServiceRequest.RequestStatus.PENDING || target == ServiceRequest.RequestStatus.CANCELLED) {
+            throw new IllegalArgumentException("Transição em lote aceita apenas ACCEPTED, REJECTED ou COMPLETED");
+        }
+        return target;
+    }
+
+    private static BulkTransitionResult.Item failure(Long id, BulkTransitionResult.Outcome outcome, String message) {
+        return BulkTransitionResult.Item.builder()
+                .requestId(id)
+                .outcome(outcome)
+                .message(message)
+                .build();
+    }
+
+    private ServiceRequestDto transitionAsProvider(Long id, Long providerId, ServiceRequest.RequestStatus target,
+                                                   String deniedMessage) {
+        return transition(id, target,
+                sources -> serviceRequestRepository.transitionAsProvider(
+                        id, providerId, sources, target, LocalDateTime.now()),
+                request -> request.getProviderId().equals(providerId), deniedMessage);
+    }
+
+    /**
+     * Aplica o UPDATE condicional tentando uma origem por vez, para saber de qual status a requisição
+     * saiu (usado nos contadores do provedor). Se nenhuma linha mudou, lê a requisição para dizer se
+     * foi por falta de permissão ou porque o status atual não permite a transição.
+     */
+    private ServiceRequestDto transition(Long id, ServiceRequest.RequestStatus target,
+                                         ToIntFunction<Set<ServiceRequest.RequestStatus>> conditionalUpdate,
+                                         Predicate<ServiceRequestDto> isOwner, String deniedMessage) {
+        ServiceRequest.RequestStatus previous = null;
+        for (ServiceRequest.RequestStatus source : target.sources()) {
+            if (conditionalUpdate.applyAsInt(EnumSet.of(source)) > 0) {
+                previous = source;
+                break;
+            }
+        }
+
+        ServiceRequestDto request = serviceRequestRepository.findDtoById(id)
+                .filter(isOwner)
+                .orElseThrow(() -> new UnauthorizedException(deniedMessage));
+
+        if (previous == null) {
+            throw new IllegalStateException(
+                    "Requisição com status " + request.getStatus() + " não pode passar para " + target);
+        }
+        countTransition(request.getProviderId(), previous, target, 1, request.getTotalPrice());
+        outboxPublisher.publish(OutboxEvent.AGGREGATE_SERVICE_REQUEST, request.getId(),
+                OutboxEvent.SERVICE_REQUEST_STATUS_CHANGED, request);
+        return request;
+    }
+
+    /**
+     * Move requisições entre os contadores do provedor na mesma transação. Origem antes do destino:
+     * como toda transição avança na ordem do enum, as travas são sempre tomadas na mesma ordem.
+     */
+    private void countTransition(Long providerId, ServiceRequest.RequestStatus from, ServiceRequest.RequestStatus to,
+                                 int count, Double amount) {
+        double value = amount != null ? amount : 0.0;
+        if (from != null) {
+            counterRepository.add(providerId, from.name(), -count, -value);
+        }
+        counterRepository.add(providerId, to.name(), count, value);
+    }
+
+    private CursorPage<ServiceRequestDto> toCursorPage(List<ServiceRequestDto> rows, int size) {
+        return CursorPage.of(rows, size, Function.identity(),
+                request -> new KeysetCursor(request.getCreatedAt(), request.getId()));
     }
 
     private ServiceRequestDto mapToDto(ServiceRequest request) {
@@ -1,35 +1,117 @@
 package com.conectabairro.service;
 
+import com.conectabairro.dto.CursorPage;
+import com.conectabairro.dto.FacetedSearchDto;
+import com.conectabairro.dto.FuzzySearchDto;
+import com.conectabairro.dto.KeysetCursor;
+import com.conectabairro.dto.RankingCursor;
+import com.conectabairro.dto.RatingHistogram;
+import com.conectabairro.dto.ServiceFilter;
 import com.conectabairro.dto.ServiceDto;
+import com.conectabairro.dto.SuggestionDto;
 import com.conectabairro.exception.ResourceNotFoundException;
+import com.conectabairro.exception.ServiceUnavailableException;
 import com.conectabairro.exception.UnauthorizedException;
+import com.conectabairro.model.OutboxEvent;
 import com.conectabairro.model.Service;
 import com.conectabairro.model.User;
 import com.conectabairro.repository.ServiceRepository;
 import com.conectabairro.repository.UserRepository;
+import com.conectabairro.repository.ServiceRepository.ListingView;
+import com.conectabairro.repository.ServiceRepository.RelevanceView;
+import com.conectabairro.repository.ServiceSpecifications;
+import com.conectabairro.search.FuzzyTermDictionary;
+import com.conectabairro.search.GeoGridIndex;
+import com.conectabairro.search.PriceBand;
+import com.conectabairro.search.SearchMode;
+import com.conectabairro.search.SearchResultCache;
+import com.conectabairro.search.SearchResultCache.CacheKey;
+import com.conectabairro.search.SearchResultCache.CatalogChange;
+import com.conectabairro.search.ServiceSearchIndex;
+import com.conectabairro.search.SuggestionTrie;
+import com.conectabairro.search.TextAnalyzer;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
  * Serviço para gerenciar serviços
  */
-@Service
+@org.springframework.stereotype.Service
 @Slf4j
 public class ServiceService {
 
+    private static final int DEFAULT_PAGE_SIZE = 10;
+
+    /** Retry-After enquanto os índices em memória são construídos na subida da aplicação */
+    private static final long INDEX_WARMUP_RETRY_SECONDS = 5;
+
     @Autowired
     private ServiceRepository serviceRepository;
 
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private ServiceSearchIndex searchIndex;
+
+    @Autowired
+    private SuggestionTrie suggestionTrie;
+
+    @Autowired
+    private GeoGridIndex geoIndex;
+
+    @Autowired
+    private FuzzyTermDictionary fuzzyDictionary;
+
+    @Autowired
+    private SearchResultCache resultCache;
+
+    @Autowired
+    private SearchQueryStatsJob queryStats;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private OutboxPublisher outboxPublisher;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    void initReadOnlyTransaction() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void buildSearchIndex() {
+        log.info("Construindo índices de busca de serviços");
+        List<Service> services = serviceRepository.findAll();
+        searchIndex.rebuild(services);
+        suggestionTrie.rebuild(services);
+        geoIndex.rebuild(services);
+        fuzzyDictionary.rebuild(services);
+        resultCache.seedFrequencies(queryStats.loadTopQueries());
+        resultCache.warmUp(DEFAULT_PAGE_SIZE, this::loadCachedPage);
+    }
+
     @Transactional
     public ServiceDto createService(ServiceDto serviceDto, Long providerId) {
         log.info("Criando novo serviço para provider: {}", providerId);
@@ -41,20 +123,28 @@ public class ServiceService {
             throw new UnauthorizedException("Apenas provedores de serviço podem criar serviços");
         }
 
+        // Sem coordenadas próprias, o serviço herda a localização do provedor
+        boolean hasCoordinates = serviceDto.getLatitude() != null && serviceDto.getLongitude() != null;
+
         Service service = Service.builder()
                 .title(serviceDto.getTitle())
                 .description(serviceDto.getDescription())
                 .category(serviceDto.getCategory())
                 .price(serviceDto.getPrice())
                 .location(serviceDto.getLocation())
+                .latitude(hasCoordinates ? serviceDto.getLatitude() : provider.getLatitude())
+                .longitude(hasCoordinates ? serviceDto.getLongitude() : provider.getLongitude())
                 .imageUrl(serviceDto.getImageUrl())
                 .provider(provider)
                 .build();
 
         Service savedService = serviceRepository.save(service);
+        reindexAfterCommit(savedService, CatalogChange.of(savedService));
         log.info("Serviço criado com sucesso: {}", savedService.getId());
 
-        return mapToDto(savedService);
+        ServiceDto created = mapToDto(savedService);
+        outboxPublisher.publish(OutboxEvent.AGGREGATE_SERVICE, created.getId(), OutboxEvent.SERVICE_CREATED, created);
+        return created;
     }
 
     @Transactional(readOnly = true)
@@ -67,36 +157,223 @@ public class ServiceService {
         return mapToDto(service);
     }
 
+    /**
+     * Listagem padrão, "melhores primeiro" pela pontuação pré-calculada em ranking_score
+     */
     @Transactional(readOnly = true)
     public Page<ServiceDto> getAllServices(Pageable pageable) {
         log.info("Listando todos os serviços");
-        
-        return serviceRepository.findAll(pageable)
+
+        return serviceRepository.findListingByRanking(pageable)
                 .map(this::mapToDto);
     }
 
+    /**
+     * Listagem padrão por cursor: mesma ordem por ranking_score de {@link #getAllServices(Pageable)}
+     */
     @Transactional(readOnly = true)
-    public Page<ServiceDto> searchServices(String keyword, Pageable pageable) {
-        log.info("Buscando serviços com keyword: {}", keyword);
+    public CursorPage<ServiceDto> getAllServices(String after, int size) {
+        log.info("Listando serviços por cursor");
+
+        RankingCursor cursor = RankingCursor.decode(after);
+        return CursorPage.of(
+                serviceRepository.findRankedPageBefore(cursor.rankingScore(), cursor.id(), CursorPage.limit(size)),
+                size,
+                this::mapToDto,
+                row -> new RankingCursor(row.getRankingScore(), row.getId()));
+    }
 
-        return serviceRepository.searchByKeyword(keyword, pageable)
+    /**
+     * Listagem com filtros combinados (categoria, localização, faixa de preço, nota mínima, ativo)
+     * e ordenação por preço, nota ou mais recentes
+     */
+    @Transactional(readOnly = true)
+    public Page<ServiceDto> filterServices(ServiceFilter filter, int page, int size) {
+        log.info("Listando serviços com filtros: {}", filter);
+
+        if (filter.getMinPrice() != null && filter.getMaxPrice() != null
+                && filter.getMinPrice() > filter.getMaxPrice()) {
+            throw new IllegalArgumentException("Preço mínimo não pode ser maior que o preço máximo");
+        }
+
+        return serviceRepository.findAll(ServiceSpecifications.matching(filter),
+                        ServiceSpecifications.pageable(filter, page, size))
                 .map(this::mapToDto);
     }
 
+    /**
+     * Busca simples (modo padrão, sem filtros), servida pelo cache de resultados
+     */
+    public Page<ServiceDto> searchServices(String keyword, Pageable pageable) {
+        if (!searchIndex.isReady()) {
+            // Fallback para LIKE usa a palavra original (com acentos); não entra no cache
+            return readOnlyTransaction.execute(status ->
+                    runSearch(keyword, SearchMode.INDEX, null, null, pageable));
+        }
+        return resultCache.get(cacheKey(SearchResultCache.Kind.SEARCH, keyword, pageable), this::loadCachedPage);
+    }
+
+    /**
+     * Sem transação própria: acertos no cache não tocam no banco
+     */
+    public Page<ServiceDto> searchServices(String keyword, String mode, String category,
+                                           String location, Pageable pageable) {
+        SearchMode searchMode = SearchMode.valueOf(mode.toUpperCase());
+        if (searchMode == SearchMode.INDEX && category == null && location == null) {
+            return searchServices(keyword, pageable);
+        }
+        return readOnlyTransaction.execute(status -> runSearch(keyword, searchMode, category, location, pageable));
+    }
+
+    private Page<ServiceDto> runSearch(String keyword, SearchMode searchMode, String category,
+                                       String location, Pageable pageable) {
+        log.info("Buscando serviços com keyword: {} (modo: {})", keyword, searchMode);
+
+        switch (searchMode) {
+            case NATURAL:
+                return toRankedPage(serviceRepository.searchFullTextNatural(
+                        keyword, category, location, pageable));
+            case BOOLEAN:
+                return toRankedPage(serviceRepository.searchFullTextBoolean(
+                        toBooleanQuery(keyword), category, location, pageable));
+            default:
+                break;
+        }
+
+        if (!searchIndex.isReady()) {
+            if (category != null || location != null) {
+                return toRankedPage(serviceRepository.searchFullTextNatural(
+                        keyword, category, location, pageable));
+            }
+            return serviceRepository.searchByKeyword(keyword, pageable)
+                    .map(this::mapToDto);
+        }
+
+        ServiceSearchIndex.SearchHits hits = searchIndex.search(
+                keyword, category, location, (int) pageable.getOffset(), pageable.getPageSize());
+
+        return new PageImpl<>(loadInOrder(hits.ids()), pageable, hits.total());
+    }
+
+    /**
+     * Busca com facetas: a página de resultados e as contagens por categoria, bairro e faixa
+     * de preço saem da mesma passada sobre o índice em memória, sem consultas COUNT(*) extras.
+     * Apenas os serviços da página são carregados do banco.
+     */
     @Transactional(readOnly = true)
+    public FacetedSearchDto facetedSearch(String keyword, String category, String location,
+                                          String priceBand, Pageable pageable) {
+        log.info("Busca com facetas - keyword: {}, categoria: {}, localização: {}, preço: {}",
+                keyword, category, location, priceBand);
+
+        requireSearchIndex();
+
+        PriceBand band = priceBand != null ? PriceBand.fromLabel(priceBand) : null;
+        ServiceSearchIndex.FacetedHits hits = searchIndex.facetedSearch(
+                keyword, category, location, band, (int) pageable.getOffset(), pageable.getPageSize());
+
+        return FacetedSearchDto.builder()
+                .results(new PageImpl<>(loadInOrder(hits.ids()), pageable, hits.total()))
+                .categories(hits.categories())
+                .locations(hits.locations())
+                .priceBands(hits.priceBands())
+                .build();
+    }
+
+    /**
+     * Busca tolerante a erros de digitação: cada palavra sem resultados no índice é trocada pela palavra
+     * mais próxima do dicionário de títulos e categorias, e a busca já roda com a consulta
+     * corrigida, devolvendo resultados e a sugestão "você quis dizer" na mesma resposta.
+     */
+    @Transactional(readOnly = true)
+    public FuzzySearchDto fuzzySearch(String keyword, Pageable pageable) {
+        log.info("Busca tolerante a erros com keyword: {}", keyword);
+
+        requireSearchIndex();
+
+        FuzzyTermDictionary.Correction correction = fuzzyDictionary.correct(keyword);
+        String query = correction.changed() ? correction.query() : keyword;
+        ServiceSearchIndex.SearchHits hits = searchIndex.search(
+                query, (int) pageable.getOffset(), pageable.getPageSize());
+
+        return FuzzySearchDto.builder()
+                .results(new PageImpl<>(loadInOrder(hits.ids()), pageable, hits.total()))
+                .didYouMean(correction.changed() ? correction.query() : null)
+                .build();
+    }
+
+    /**
+     * Serviços dentro do raio informado, do mais próximo para o mais distante.
+     * Os candidatos vêm do índice geográfico em memória; só o resultado é carregado do banco.
+     */
+    @Transactional(readOnly = true)
+    public List<ServiceDto> getNearbyServices(double latitude, double longitude, double radiusKm,
+                                              String category, int limit) {
+        log.info("Buscando serviços próximos de ({}, {}) em {} km", latitude, longitude, radiusKm);
+
+        if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+            throw new IllegalArgumentException("Coordenadas inválidas");
+        }
+        if (radiusKm <= 0 || radiusKm > GeoGridIndex.MAX_RADIUS_KM) {
+            throw new IllegalArgumentException("Raio deve estar entre 0 e " + GeoGridIndex.MAX_RADIUS_KM + " km");
+        }
+
+        List<GeoGridIndex.NearbyHit> hits = geoIndex.nearby(latitude, longitude, radiusKm, category,
+                Math.max(1, Math.min(limit, 100)));
+        Map<Long, Double> distanceById = hits.stream()
+                .collect(Collectors.toMap(GeoGridIndex.NearbyHit::serviceId, GeoGridIndex.NearbyHit::distanceKm));
+
+        List<ServiceDto> services = loadInOrder(hits.stream()
+                .map(GeoGridIndex.NearbyHit::serviceId)
+                .collect(Collectors.toList()));
+        services.forEach(dto -> dto.setDistanceKm(distanceById.get(dto.getId())));
+        return services;
+    }
+
+    /**
+     * Autocompletar servido inteiramente pela trie em memória, sem acesso ao banco
+     */
+    public List<SuggestionDto> suggest(String prefix, int limit) {
+        int boundedLimit = Math.max(1, Math.min(limit, SuggestionTrie.MAX_SUGGESTIONS));
+
+        return suggestionTrie.suggest(prefix, boundedLimit)
+                .stream()
+                .map(suggestion -> SuggestionDto.builder()
+                        .text(suggestion.text())
+                        .type(suggestion.type().name())
+                        .score(suggestion.weight())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
     public Page<ServiceDto> getServicesByCategory(String category, Pageable pageable) {
         log.info("Buscando serviços por categoria: {}", category);
 
-        return serviceRepository.findByCategory(category, pageable)
-                .map(this::mapToDto);
+        return resultCache.get(cacheKey(SearchResultCache.Kind.CATEGORY, category, pageable), this::loadCachedPage);
     }
 
     @Transactional(readOnly = true)
+    public CursorPage<ServiceDto> getServicesByCategory(String category, String after, int size) {
+        log.info("Buscando serviços por categoria (cursor): {}", category);
+
+        KeysetCursor cursor = KeysetCursor.decode(after);
+        return toCursorPage(serviceRepository.findPageByCategoryBefore(
+                category, cursor.createdAt(), cursor.id(), CursorPage.limit(size)), size);
+    }
+
     public Page<ServiceDto> getServicesByLocation(String location, Pageable pageable) {
         log.info("Buscando serviços por localização: {}", location);
 
-        return serviceRepository.findByLocation(location, pageable)
-                .map(this::mapToDto);
+        return resultCache.get(cacheKey(SearchResultCache.Kind.LOCATION, location, pageable), this::loadCachedPage);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<ServiceDto> getServicesByLocation(String location, String after, int size) {
+        log.info("Buscando serviços por localização (cursor): {}", location);
+
+        KeysetCursor cursor = KeysetCursor.decode(after);
+        return toCursorPage(serviceRepository.findPageByLocationBefore(
+                location, cursor.createdAt(), cursor.id(), CursorPage.limit(size)), size);
     }
 
     @Transactional(readOnly = true)
@@ -123,6 +400,8 @@ public class ServiceService {
             throw new UnauthorizedException("Você não tem permissão para atualizar este serviço");
         }
 
+        CatalogChange before = CatalogChange.of(service);
+
         if (serviceDto.getTitle() != null) {
             service.setTitle(serviceDto.getTitle());
         }
@@ -138,14 +417,21 @@ public class ServiceService {
         if (serviceDto.getLocation() != null) {
             service.setLocation(serviceDto.getLocation());
         }
+        if (serviceDto.getLatitude() != null && serviceDto.getLongitude() != null) {
+            service.setLatitude(serviceDto.getLatitude());
+            service.setLongitude(serviceDto.getLongitude());
+        }
         if (serviceDto.getImageUrl() != null) {
             service.setImageUrl(serviceDto.getImageUrl());
         }
 
         Service updatedService = serviceRepository.save(service);
+        reindexAfterCommit(updatedService, before.merge(CatalogChange.of(updatedService)));
         log.info("Serviço atualizado com sucesso: {}", id);
 
-        return mapToDto(updatedService);
+        ServiceDto updated = mapToDto(updatedService);
+        outboxPublisher.publish(OutboxEvent.AGGREGATE_SERVICE, id, OutboxEvent.SERVICE_UPDATED, updated);
+        return updated;
     }
 
     @Transactional
@@ -159,10 +445,135 @@ public class ServiceService {
             throw new UnauthorizedException("Você não tem permissão para deletar este serviço");
         }
 
+        CatalogChange change = CatalogChange.of(service);
         serviceRepository.delete(service);
+        outboxPublisher.publish(OutboxEvent.AGGREGATE_SERVICE, id, OutboxEvent.SERVICE_DELETED,
+                Map.of("id", id, "providerId", providerId));
+        TransactionHooks.afterCommit(() -> {
+            searchIndex.remove(id);
+            suggestionTrie.remove(id);
+            geoIndex.remove(id);
+            fuzzyDictionary.remove(id);
+            resultCache.invalidate(change, this::loadCachedPage);
+        });
         log.info("Serviço deletado com sucesso: {}", id);
     }
 
+    private CursorPage<ServiceDto> toCursorPage(List<ListingView> rows, int size) {
+        return CursorPage.of(rows, size, this::mapToDto,
+                row -> new KeysetCursor(row.getCreatedAt(), row.getId()));
+    }
+
+    /**
+     * Facetas e correção de digitação só existem no índice em memória: até ele ficar pronto a
+     * resposta é 503 com Retry-After, não um erro do cliente
+     */
+    private void requireSearchIndex() {
+        if (!searchIndex.isReady()) {
+            throw new ServiceUnavailableException("Índice de busca ainda não está disponível",
+                    INDEX_WARMUP_RETRY_SECONDS);
+        }
+    }
+
+    /**
+     * Carrega do banco apenas os serviços da página, preservando a ordem dos IDs
+     */
+    private List<ServiceDto> loadInOrder(List<Long> ids) {
+        Map<Long, ListingView> servicesById = serviceRepository.findListingByIdIn(ids)
+                .stream()
+                .collect(Collectors.toMap(ListingView::getId, Function.identity()));
+
+        return ids.stream()
+                .map(servicesById::get)
+                .filter(Objects::nonNull)
+                .map(this::mapToDto)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Hidrata a página de IDs devolvida pela busca FULLTEXT e anexa a relevância de cada serviço
+     */
+    private Page<ServiceDto> toRankedPage(Page<RelevanceView> ranked) {
+        List<Long> ids = ranked.getContent().stream()
+                .map(RelevanceView::getId)
+                .collect(Collectors.toList());
+        Map<Long, Double> relevanceById = ranked.getContent().stream()
+                .collect(Collectors.toMap(RelevanceView::getId, RelevanceView::getRelevance));
+
+        List<ServiceDto> content = loadInOrder(ids);
+        content.forEach(dto -> dto.setRelevance(relevanceById.get(dto.getId())));
+
+        return new PageImpl<>(content, ranked.getPageable(), ranked.getTotalElements());
+    }
+
+    /**
+     * Consultas sem operadores viram "todos os termos, por prefixo" no modo booleano;
+     * consultas que já usam operadores (+ - * " etc.) são repassadas como estão
+     */
+    private String toBooleanQuery(String keyword) {
+        if (keyword.matches(".*[+\\-*\"<>()~].*")) {
+            return keyword;
+        }
+        return TextAnalyzer.words(keyword).stream()
+                .map(word -> "+" + word + "*")
+                .collect(Collectors.joining(" "));
+    }
+
+    private void reindexAfterCommit(Service service, CatalogChange change) {
+        TransactionHooks.afterCommit(() -> {
+            searchIndex.index(service);
+            suggestionTrie.index(service);
+            geoIndex.index(service);
+            fuzzyDictionary.index(service);
+            resultCache.invalidate(change, this::loadCachedPage);
+        });
+    }
+
+    private static CacheKey cacheKey(SearchResultCache.Kind kind, String value, Pageable pageable) {
+        return SearchResultCache.key(kind, value, pageable.getPageNumber(), pageable.getPageSize());
+    }
+
+    /**
+     * Carrega do banco uma página do cache de resultados, em transação somente leitura própria
+     * (também usada pelo aquecimento em segundo plano, fora de qualquer requisição)
+     */
+    private Page<ServiceDto> loadCachedPage(CacheKey key) {
+        Pageable pageable = PageRequest.of(key.page(), key.size());
+        return readOnlyTransaction.execute(status -> {
+            switch (key.kind()) {
+                case CATEGORY:
+                    return serviceRepository.findListingByCategory(key.value(), pageable).map(this::mapToDto);
+                case LOCATION:
+                    return serviceRepository.findListingByLocation(key.value(), pageable).map(this::mapToDto);
+                default:
+                    return runSearch(key.value(), SearchMode.INDEX, null, null, pageable);
+            }
+        });
+    }
+
+    private ServiceDto mapToDto(ListingView row) {
+        return ServiceDto.builder()
+                .id(row.getId())
+                .title(row.getTitle())
+                .description(row.getDescription())
+                .category(row.getCategory())
+                .price(row.getPrice())
+                .location(row.getLocation())
+                .latitude(row.getLatitude())
+                .longitude(row.getLongitude())
+                .imageUrl(row.getImageUrl())
+                .rating(row.getRating())
+                .totalReviews(row.getTotalReviews())
+                .ratingHistogram(RatingHistogram.of(row.getStars1(), row.getStars2(), row.getStars3(),
+                        row.getStars4(), row.getStars5()))
+                .isActive(row.getIsActive())
+                .providerId(row.getProviderId())
+                .providerName(row.getProviderName())
+                .createdAt(row.getCreatedAt())
+                .updatedAt(row.getUpdatedAt())
+                .build();
+    }
+
     private ServiceDto mapToDto(Service service) {
         return ServiceDto.builder()
                 .id(service.getId())
@@ -171,9 +582,13 @@ public class ServiceService {
                 .category(service.getCategory())
                 .price(service.getPrice())
                 .location(service.getLocation())
+                .latitude(service.getLatitude())
+                .longitude(service.getLongitude())
                 .imageUrl(service.getImageUrl())
                 .rating(service.getRating())
                 .totalReviews(service.getTotalReviews())
+                .ratingHistogram(RatingHistogram.of(service.getStars1(), service.getStars2(), service.getStars3(),
+                        service.getStars4(), service.getStars5()))
                 .isActive(service.getIsActive())
                 .providerId(service.getProvider().getId())
                 .providerName(service.getProvider().getName())
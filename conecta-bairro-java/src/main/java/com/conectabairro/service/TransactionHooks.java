@@ -0,0 +1,30 @@
+package com.conectabairro.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Ações que só podem acontecer depois do commit da transação atual (índices e caches em memória,
+ * filas, avisos a outras threads), para nunca refletirem uma alteração que sofreu rollback
+ */
+public final class TransactionHooks {
+
+    private TransactionHooks() {
+    }
+
+    /**
+     * Executa {@code action} depois do commit; sem transação ativa, executa na hora
+     */
+    public static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -1,5 +1,6 @@
 package com.conectabairro.service;
 
+import com.conectabairro.dto.RatingHistogram;
 import com.conectabairro.dto.UserDto;
 import com.conectabairro.exception.ResourceNotFoundException;
 import com.conectabairro.model.User;
@@ -58,6 +59,10 @@ public class UserService {
         if (userDto.getBio() != null) {
             user.setBio(userDto.getBio());
         }
+        if (userDto.getLatitude() != null && userDto.getLongitude() != null) {
+            user.setLatitude(userDto.getLatitude());
+            user.setLongitude(userDto.getLongitude());
+        }
 
         User updatedUser = userRepository.save(user);
         log.info("Usuário atualizado com sucesso: {}", id);
@@ -74,8 +79,12 @@ public class UserService {
                 .userType(user.getUserType().toString())
                 .profileImage(user.getProfileImage())
                 .bio(user.getBio())
+                .latitude(user.getLatitude())
+                .longitude(user.getLongitude())
                 .rating(user.getRating())
                 .totalReviews(user.getTotalReviews())
+                .ratingHistogram(RatingHistogram.of(user.getStars1(), user.getStars2(), user.getStars3(),
+                        user.getStars4(), user.getStars5()))
                 .isVerified(user.getIsVerified())
                 .createdAt(user.getCreatedAt())
                 .updatedAt(user.getUpdatedAt())
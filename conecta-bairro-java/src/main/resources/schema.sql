@@ -13,8 +13,16 @@ CREATE TABLE users (
     user_type VARCHAR(50) NOT NULL,
     profile_image VARCHAR(255),
     bio TEXT,
+    latitude DOUBLE NULL,
+    longitude DOUBLE NULL,
     rating DOUBLE DEFAULT 0.0,
+    rating_sum BIGINT NOT NULL DEFAULT 0,
     total_reviews INT DEFAULT 0,
+    stars_1 INT NOT NULL DEFAULT 0,
+    stars_2 INT NOT NULL DEFAULT 0,
+    stars_3 INT NOT NULL DEFAULT 0,
+    stars_4 INT NOT NULL DEFAULT 0,
+    stars_5 INT NOT NULL DEFAULT 0,
     is_verified BOOLEAN DEFAULT FALSE,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
@@ -30,17 +38,41 @@ CREATE TABLE services (
     category VARCHAR(100) NOT NULL,
     price DOUBLE NOT NULL,
     location VARCHAR(100) NOT NULL,
+    latitude DOUBLE NULL,
+    longitude DOUBLE NULL,
     image_url VARCHAR(255),
     rating DOUBLE DEFAULT 0.0,
+    rating_sum BIGINT NOT NULL DEFAULT 0,
     total_reviews INT DEFAULT 0,
+    stars_1 INT NOT NULL DEFAULT 0,
+    stars_2 INT NOT NULL DEFAULT 0,
+    stars_3 INT NOT NULL DEFAULT 0,
+    stars_4 INT NOT NULL DEFAULT 0,
+    stars_5 INT NOT NULL DEFAULT 0,
+    completed_requests INT NOT NULL DEFAULT 0,
+    ranking_score DOUBLE NOT NULL DEFAULT 0,
     is_active BOOLEAN DEFAULT TRUE,
     provider_id BIGINT NOT NULL,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     FOREIGN KEY (provider_id) REFERENCES users(id) ON DELETE CASCADE,
-    INDEX idx_category (category),
-    INDEX idx_location (location),
+    INDEX idx_created_id (created_at, id),
+    -- Listagem padrão "melhores primeiro" (RankingScore), por offset e por cursor (ranking_score, id),
+    -- lida em ordem reversa sem filesort
+    INDEX idx_ranking (ranking_score, id),
+    INDEX idx_category_created (category, created_at, id),
+    INDEX idx_location_created (location, created_at, id),
     INDEX idx_provider_id (provider_id),
+    -- Listagem com filtros combinados (ServiceSpecifications): igualdades + coluna de ordenação
+    INDEX idx_active_price (is_active, price),
+    INDEX idx_active_rating (is_active, rating),
+    INDEX idx_active_created (is_active, created_at),
+    INDEX idx_active_category_price (is_active, category, price),
+    INDEX idx_active_category_rating (is_active, category, rating),
+    INDEX idx_active_category_created (is_active, category, created_at),
+    INDEX idx_active_location_price (is_active, location, price),
+    INDEX idx_active_location_rating (is_active, location, rating),
+    INDEX idx_active_location_created (is_active, location, created_at),
     FULLTEXT INDEX ft_search (title, description)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
@@ -51,15 +83,19 @@ CREATE TABLE service_requests (
     scheduled_date TIMESTAMP NULL,
     notes TEXT,
     total_price DOUBLE,
+    version BIGINT NOT NULL DEFAULT 0,
     customer_id BIGINT NOT NULL,
     service_id BIGINT NOT NULL,
+    provider_id BIGINT NOT NULL, -- cópia de services.provider_id, para paginar as recebidas por índice
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     FOREIGN KEY (customer_id) REFERENCES users(id) ON DELETE CASCADE,
     FOREIGN KEY (service_id) REFERENCES services(id) ON DELETE CASCADE,
+    FOREIGN KEY (provider_id) REFERENCES users(id) ON DELETE CASCADE,
     INDEX idx_status (status),
-    INDEX idx_customer_id (customer_id),
-    INDEX idx_service_id (service_id)
+    INDEX idx_customer_created (customer_id, created_at, id),
+    INDEX idx_service_created (service_id, created_at, id),
+    INDEX idx_provider_created (provider_id, created_at, id)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
 -- Tabela de avaliações
@@ -77,7 +113,49 @@ CREATE TABLE reviews (
     FOREIGN KEY (request_id) REFERENCES service_requests(id) ON DELETE CASCADE,
     INDEX idx_rating (rating),
     INDEX idx_reviewer_id (reviewer_id),
-    INDEX idx_service_id (service_id),
+    INDEX idx_service_created (service_id, created_at, id),
     INDEX idx_request_id (request_id)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
+
+-- Contadores de requisições por provedor e status, mantidos pelas transições
+CREATE TABLE provider_request_counters (
+    provider_id BIGINT NOT NULL,
+    status VARCHAR(50) NOT NULL,
+    request_count BIGINT NOT NULL DEFAULT 0,
+    total_price DOUBLE NOT NULL DEFAULT 0,
+    PRIMARY KEY (provider_id, status),
+    FOREIGN KEY (provider_id) REFERENCES users(id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Frequência de cada página de busca/listagem, acumulada entre reinícios para o aquecimento do cache
+CREATE TABLE search_query_stats (
+    kind VARCHAR(20) NOT NULL,
+    query_value VARCHAR(255) NOT NULL,
+    page INT NOT NULL,
+    page_size INT NOT NULL,
+    hits BIGINT NOT NULL DEFAULT 0,
+    last_seen_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (kind, query_value, page, page_size),
+    INDEX idx_hits (hits),
+    INDEX idx_last_seen (last_seen_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Outbox transacional: eventos gravados na mesma transação da mudança de domínio,
+-- entregues depois do commit pelo OutboxDispatcher
+CREATE TABLE outbox_events (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    aggregate_type VARCHAR(50) NOT NULL,
+    aggregate_id BIGINT NOT NULL,
+    event_type VARCHAR(100) NOT NULL,
+    payload TEXT NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    last_error VARCHAR(1000),
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    processed_at TIMESTAMP NULL,
+    INDEX idx_status_id (status, id),
+    INDEX idx_aggregate (aggregate_type, aggregate_id, id),
+    INDEX idx_status_processed (status, processed_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
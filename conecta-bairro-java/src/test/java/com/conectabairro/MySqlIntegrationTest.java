@@ -0,0 +1,51 @@
+package com.conectabairro;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Base dos testes de integração contra um MySQL 8 real, criado com o {@code schema.sql} da aplicação.
+ * O container é único para todas as classes (o contexto Spring em cache continua apontando para ele)
+ * e os testes são ignorados quando não há Docker.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "app.password.calibrate-on-startup=false",
+        "app.rate-limit.enabled=false"
+})
+@Testcontainers(disabledWithoutDocker = true)
+public abstract class MySqlIntegrationTest {
+
+    private static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0")
+            .withDatabaseName("conecta_bairro")
+            .withUsername("root")
+            .withPassword("teste")
+            .withInitScript("schema.sql");
+
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        // Só chega aqui com Docker disponível; start() é idempotente
+        MYSQL.start();
+        registry.add("spring.datasource.url", MYSQL::getJdbcUrl);
+        registry.add("spring.datasource.username", MYSQL::getUsername);
+        registry.add("spring.datasource.password", MYSQL::getPassword);
+    }
+
+    /**
+     * Plano do MySQL para a consulta: uma linha por tabela, com as colunas {@code table}, {@code key},
+     * {@code rows} e {@code Extra} do EXPLAIN
+     */
+    protected List<Map<String, Object>> explain(String sql, Object... args) {
+        return jdbcTemplate.queryForList("EXPLAIN " + sql, args);
+    }
+}
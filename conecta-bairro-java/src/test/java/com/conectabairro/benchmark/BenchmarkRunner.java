@@ -0,0 +1,29 @@
+package com.conectabairro.benchmark;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Executa os benchmarks JMH deste pacote sob demanda; fora do {@code mvn test} normal:
+ *
+ * <pre>
+ * mvn test -Dtest=BenchmarkRunner -Dbenchmark=VerifiedTokenCache
+ * </pre>
+ *
+ * {@code -Dbenchmark} é uma regex sobre o nome dos benchmarks ({@code .} roda todos).
+ */
+class BenchmarkRunner {
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = ".+")
+    void run() throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(BenchmarkRunner.class.getPackageName() + ".*" + System.getProperty("benchmark") + ".*")
+                .shouldFailOnError(true)
+                .build())
+                .run();
+    }
+}
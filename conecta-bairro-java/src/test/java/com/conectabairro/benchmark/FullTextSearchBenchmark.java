@@ -0,0 +1,136 @@
+package com.conectabairro.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.testcontainers.containers.MySQLContainer;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Busca de serviços em um MySQL 8 real (Testcontainers, precisa de Docker) com catálogo sintético:
+ * LIKE '%kw%' de searchByKeyword x FULLTEXT natural e booleano (searchFullText*). Cada operação é
+ * uma página de 10 mais o COUNT(*), o que o endpoint paga por requisição.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FullTextSearchBenchmark {
+
+    // Mesma forma do SQL gerado para ServiceRepository.searchByKeyword
+    private static final String LIKE_PAGE =
+            "SELECT s.*, p.* FROM services s JOIN users p ON p.id = s.provider_id " +
+            "WHERE LOWER(s.title) LIKE LOWER(CONCAT('%', ?, '%')) OR LOWER(s.description) LIKE LOWER(CONCAT('%', ?, '%')) " +
+            "LIMIT 10";
+    private static final String LIKE_COUNT =
+            "SELECT COUNT(*) FROM services s " +
+            "WHERE LOWER(s.title) LIKE LOWER(CONCAT('%', ?, '%')) OR LOWER(s.description) LIKE LOWER(CONCAT('%', ?, '%'))";
+
+    private static final String NATURAL_PAGE =
+            "SELECT s.id, MATCH(s.title, s.description) AGAINST (? IN NATURAL LANGUAGE MODE) AS relevance " +
+            "FROM services s WHERE MATCH(s.title, s.description) AGAINST (? IN NATURAL LANGUAGE MODE) " +
+            "ORDER BY relevance DESC, s.id LIMIT 10";
+    private static final String NATURAL_COUNT =
+            "SELECT COUNT(*) FROM services s WHERE MATCH(s.title, s.description) AGAINST (? IN NATURAL LANGUAGE MODE)";
+
+    private static final String BOOLEAN_PAGE =
+            "SELECT s.id, MATCH(s.title, s.description) AGAINST (? IN BOOLEAN MODE) AS relevance " +
+            "FROM services s WHERE MATCH(s.title, s.description) AGAINST (? IN BOOLEAN MODE) " +
+            "AND s.category = 'hidraulica' AND s.location = 'Centro' " +
+            "ORDER BY relevance DESC, s.id LIMIT 10";
+    private static final String BOOLEAN_COUNT =
+            "SELECT COUNT(*) FROM services s WHERE MATCH(s.title, s.description) AGAINST (? IN BOOLEAN MODE) " +
+            "AND s.category = 'hidraulica' AND s.location = 'Centro'";
+
+    @Param("200000")
+    public int catalogSize;
+
+    private MySQLContainer<?> mysql;
+    private Connection connection;
+
+    @Setup
+    public void setUp() throws SQLException {
+        mysql = new MySQLContainer<>("mysql:8.0")
+                .withDatabaseName("conecta_bairro")
+                .withUsername("root")
+                .withPassword("teste")
+                .withInitScript("schema.sql");
+        mysql.start();
+        connection = mysql.createConnection("");
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SET SESSION cte_max_recursion_depth = " + (catalogSize + 1));
+            statement.execute("INSERT INTO users (name, email, password, phone, user_type) " +
+                    "VALUES ('Provedor Benchmark', 'benchmark@example.com', '-', '11999990000', 'SERVICE_PROVIDER')");
+            // Catálogo sintético: combina profissões, adjetivos, tipos de serviço e bairros
+            statement.execute("INSERT INTO services (title, description, category, price, location, provider_id) " +
+                    "WITH RECURSIVE seq (n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < " + catalogSize + ") " +
+                    "SELECT CONCAT(ELT(1 + n % 8, 'Eletricista', 'Encanador', 'Diarista', 'Pintor', 'Jardineiro', " +
+                    "                             'Pedreiro', 'Marceneiro', 'Técnico de informática'), " +
+                    "              ' ', ELT(1 + n % 5, 'residencial', 'profissional', '24 horas', 'econômico', 'experiente'), " +
+                    "              ' #', n), " +
+                    "       CONCAT('Serviço de ', ELT(1 + n % 6, 'instalação', 'manutenção', 'reforma', 'limpeza', 'conserto', 'montagem'), " +
+                    "              ' com ', ELT(1 + n % 4, 'garantia', 'orçamento grátis', 'atendimento rápido', 'material incluso'), " +
+                    "              '. Atendemos toda a região. Código ', MD5(n)), " +
+                    "       ELT(1 + n % 8, 'eletrica', 'hidraulica', 'limpeza', 'pintura', 'jardinagem', 'construcao', 'marcenaria', 'informatica'), " +
+                    "       20 + (n % 50) * 10, " +
+                    "       ELT(1 + n % 6, 'Centro', 'Aparecida', 'Santarenzinho', 'Maracanã', 'Jardim Santarém', 'Caranazal'), " +
+                    "       (SELECT id FROM users WHERE email = 'benchmark@example.com') " +
+                    "FROM seq");
+            statement.execute("ANALYZE TABLE services, users");
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+        mysql.stop();
+    }
+
+    @Benchmark
+    public long likeSearch() throws SQLException {
+        return page(LIKE_PAGE, "encanador", "encanador") + count(LIKE_COUNT, "encanador", "encanador");
+    }
+
+    @Benchmark
+    public long fullTextNatural() throws SQLException {
+        return page(NATURAL_PAGE, "encanador", "encanador") + count(NATURAL_COUNT, "encanador");
+    }
+
+    @Benchmark
+    public long fullTextBooleanWithFilters() throws SQLException {
+        return page(BOOLEAN_PAGE, "+encanador* +garantia*", "+encanador* +garantia*")
+                + count(BOOLEAN_COUNT, "+encanador* +garantia*");
+    }
+
+    private long page(String sql, String... args) throws SQLException {
+        try (PreparedStatement statement = prepare(sql, args); ResultSet rows = statement.executeQuery()) {
+            long read = 0;
+            while (rows.next()) {
+                read += rows.getLong(1);
+            }
+            return read;
+        }
+    }
+
+    private long count(String sql, String... args) throws SQLException {
+        try (PreparedStatement statement = prepare(sql, args); ResultSet rows = statement.executeQuery()) {
+            rows.next();
+            return rows.getLong(1);
+        }
+    }
+
+    private PreparedStatement prepare(String sql, String... args) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(sql);
+        for (int i = 0; i < args.length; i++) {
+            statement.setString(i + 1, args[i]);
+        }
+        return statement;
+    }
+}
@@ -0,0 +1,60 @@
+package com.conectabairro.benchmark;
+
+import com.conectabairro.security.OffloadingPasswordEncoder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo do login por custo BCrypt: o matches direto na thread chamadora (antigo bean
+ * BCryptPasswordEncoder) x o {@link OffloadingPasswordEncoder}, que soma a passagem pelo pool
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PasswordEncoderBenchmark {
+
+    private static final String PASSWORD = "senha-de-benchmark";
+
+    @Param({"10", "12"})
+    public int strength;
+
+    private BCryptPasswordEncoder direct;
+    private OffloadingPasswordEncoder offloading;
+    private String hash;
+
+    @Setup
+    public void setUp() {
+        direct = new BCryptPasswordEncoder(strength);
+        offloading = new OffloadingPasswordEncoder();
+        ReflectionTestUtils.setField(offloading, "strength", strength);
+        ReflectionTestUtils.setField(offloading, "threads", 1);
+        ReflectionTestUtils.setField(offloading, "queueCapacity", 64);
+        ReflectionTestUtils.setField(offloading, "retryAfterSeconds", 2L);
+        ReflectionTestUtils.setField(offloading, "calibrateOnStartup", false);
+        ReflectionTestUtils.setField(offloading, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.invokeMethod(offloading, "init");
+        hash = direct.encode(PASSWORD);
+    }
+
+    @TearDown
+    public void tearDown() {
+        ReflectionTestUtils.invokeMethod(offloading, "shutdown");
+    }
+
+    @Benchmark
+    public boolean matchesDirect() {
+        return direct.matches(PASSWORD, hash);
+    }
+
+    @Benchmark
+    public boolean matchesOffloaded() {
+        return offloading.matches(PASSWORD, hash);
+    }
+}
@@ -0,0 +1,87 @@
+package com.conectabairro.benchmark;
+
+import com.conectabairro.config.RateLimitProperties;
+import com.conectabairro.security.RateLimitFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Custo do {@link RateLimitFilter} por requisição: um IP novo a cada chamada com o mapa de buckets
+ * cheio (IPs rotativos) e várias threads disputando o mesmo bucket
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RateLimitFilterBenchmark {
+
+    private static final int MAX_BUCKETS = 100_000;
+
+    private final AtomicLong nextIp = new AtomicLong();
+    private RateLimitFilter filter;
+
+    @Setup
+    public void setUp() throws Exception {
+        RateLimitProperties.Route search = new RateLimitProperties.Route();
+        search.setName("search");
+        search.setMethod("GET");
+        search.setPath("/services/search/**");
+        // Reposição lenta: cada bucket usado continua "ocupado" por um minuto e não pode ser descartado
+        search.setCapacity(1_000_000);
+        search.setRefillPerMinute(1);
+
+        RateLimitProperties.Route hot = new RateLimitProperties.Route();
+        hot.setName("hot");
+        hot.setMethod("GET");
+        hot.setPath("/hot/**");
+        // Nunca recusa: mede só a disputa pelo mesmo bucket
+        hot.setCapacity(Integer.MAX_VALUE);
+        hot.setRefillPerMinute(Integer.MAX_VALUE);
+
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setMaxBuckets(MAX_BUCKETS);
+        properties.setRoutes(List.of(search, hot));
+        filter = new RateLimitFilter(properties, new ObjectMapper().findAndRegisterModules(), new SimpleMeterRegistry());
+
+        for (int i = 0; i < MAX_BUCKETS; i++) {
+            filter.doFilter(request(ipOf(nextIp.getAndIncrement())), new MockHttpServletResponse(), new MockFilterChain());
+        }
+    }
+
+    @Benchmark
+    public MockHttpServletResponse rotatingIpsWithFullMap() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(ipOf(nextIp.getAndIncrement())), response, new MockFilterChain());
+        return response;
+    }
+
+    @Benchmark
+    @Threads(4)
+    public MockHttpServletResponse sameIpContended() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/hot/index");
+        request.setRemoteAddr("10.0.0.1");
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String ip) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/services/search/index");
+        request.setRemoteAddr(ip);
+        return request;
+    }
+
+    private static String ipOf(long n) {
+        return "10." + ((n >> 16) & 0xff) + "." + ((n >> 8) & 0xff) + "." + (n & 0xff);
+    }
+}
@@ -0,0 +1,88 @@
+package com.conectabairro.benchmark;
+
+import com.conectabairro.model.User;
+import com.conectabairro.security.JwtTokenProvider;
+import com.conectabairro.security.VerifiedTokenCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo do {@link VerifiedTokenCache} com o cache cheio de tokens válidos (situação normal com
+ * tokens de 24 h): acerto pelo {@link JwtTokenProvider#verify} e inserção de um token novo
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VerifiedTokenCacheBenchmark {
+
+    private static final int MAX_ENTRIES = 10_000;
+
+    private VerifiedTokenCache cache;
+    private JwtTokenProvider provider;
+    private JwtTokenProvider uncachedProvider;
+    private JwtTokenProvider.VerifiedToken verified;
+    private String token;
+    private long sequence;
+
+    @Setup
+    public void setUp() {
+        cache = newCache(MAX_ENTRIES);
+        provider = newProvider(cache);
+        // Cache de capacidade zero: toda chamada verifica a assinatura (referência do custo evitado)
+        uncachedProvider = newProvider(newCache(0));
+
+        User user = new User();
+        user.setId(1L);
+        user.setEmail("benchmark@example.com");
+        user.setUserType(User.UserType.CUSTOMER);
+        token = provider.generateToken(user);
+        verified = provider.verify(token);
+
+        for (int i = 0; i < MAX_ENTRIES; i++) {
+            cache.put(VerifiedTokenCache.keyOf("token-" + i), verified);
+        }
+    }
+
+    @Benchmark
+    public JwtTokenProvider.VerifiedToken verifyCachedToken() {
+        return provider.verify(token);
+    }
+
+    @Benchmark
+    public JwtTokenProvider.VerifiedToken verifyUncachedToken() {
+        return uncachedProvider.verify(token);
+    }
+
+    /**
+     * Cada chamada é um token ainda não visto chegando com o cache cheio
+     */
+    @Benchmark
+    public VerifiedTokenCache putIntoFullCache() {
+        cache.put("novo-" + sequence++, verified);
+        return cache;
+    }
+
+    private static VerifiedTokenCache newCache(int maxEntries) {
+        VerifiedTokenCache cache = new VerifiedTokenCache();
+        ReflectionTestUtils.setField(cache, "maxEntries", maxEntries);
+        ReflectionTestUtils.setField(cache, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.invokeMethod(cache, "init");
+        return cache;
+    }
+
+    private static JwtTokenProvider newProvider(VerifiedTokenCache cache) {
+        JwtTokenProvider provider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(provider, "jwtSecret",
+                "chave_de_benchmark_com_tamanho_suficiente_para_hs512_0123456789_abcdefghij");
+        ReflectionTestUtils.setField(provider, "jwtExpirationMs", 86_400_000);
+        ReflectionTestUtils.setField(provider, "verifiedTokens", cache);
+        ReflectionTestUtils.invokeMethod(provider, "init");
+        return provider;
+    }
+}
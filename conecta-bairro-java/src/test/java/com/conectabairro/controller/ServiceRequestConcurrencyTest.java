@@ -0,0 +1,167 @@
+package com.conectabairro.controller;
+
+import com.conectabairro.MySqlIntegrationTest;
+import com.conectabairro.dto.AuthResponse;
+import com.conectabairro.dto.ProviderRequestStatsDto;
+import com.conectabairro.dto.RegisterRequest;
+import com.conectabairro.dto.ServiceDto;
+import com.conectabairro.dto.ServiceRequestDto;
+import com.conectabairro.service.AuthService;
+import com.conectabairro.service.ServiceRequestService;
+import com.conectabairro.service.ServiceService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Aceitar, rejeitar, cancelar e completar a mesma requisição ao mesmo tempo: exatamente uma
+ * transição vence, as outras recebem 409 e os contadores do provedor batem com as requisições
+ */
+class ServiceRequestConcurrencyTest extends MySqlIntegrationTest {
+
+    private static final int CALLS_PER_ACTION = 4;
+    private static final int ROUNDS = 10;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private ServiceService serviceService;
+
+    @Autowired
+    private ServiceRequestService serviceRequestService;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(3 * CALLS_PER_ACTION);
+
+    private AuthResponse provider;
+    private AuthResponse customer;
+    private Long serviceId;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        provider = authService.register(user("provedor-" + suffix, "SERVICE_PROVIDER"));
+        customer = authService.register(user("cliente-" + suffix, "CUSTOMER"));
+        serviceId = serviceService.createService(ServiceDto.builder()
+                .title("Conserto de torneira")
+                .description("Troca de reparo e vedação")
+                .category("Hidráulica")
+                .price(80.0)
+                .location("Centro")
+                .build(), provider.getId()).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void pendingRequestIsEitherAcceptedOrRejectedOrCancelledOnce() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            Long requestId = newRequest();
+
+            Map<String, List<Integer>> statuses = race(requestId, "accept", "reject", "cancel");
+
+            assertSingleWinner(statuses);
+        }
+        assertCountersMatchRequests();
+    }
+
+    @Test
+    void acceptedRequestIsEitherCompletedOrCancelledOnce() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            Long requestId = newRequest();
+            assertThat(put(requestId, "accept", provider)).isEqualTo(200);
+
+            Map<String, List<Integer>> statuses = race(requestId, "complete", "cancel", "accept");
+
+            assertSingleWinner(statuses);
+            assertThat(statuses.get("accept")).containsOnly(409);
+        }
+        assertCountersMatchRequests();
+    }
+
+    private Long newRequest() {
+        return serviceRequestService.createRequest(serviceId, customer.getId(),
+                ServiceRequestDto.builder().serviceId(serviceId).build()).getId();
+    }
+
+    /**
+     * Dispara {@link #CALLS_PER_ACTION} chamadas de cada ação, todas liberadas no mesmo instante
+     */
+    private Map<String, List<Integer>> race(Long requestId, String... actions) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        Map<String, List<Future<Integer>>> futures = new LinkedHashMap<>();
+        for (String action : actions) {
+            AuthResponse caller = action.equals("cancel") ? customer : provider;
+            for (int i = 0; i < CALLS_PER_ACTION; i++) {
+                futures.computeIfAbsent(action, ignored -> new ArrayList<>()).add(executor.submit(() -> {
+                    start.await();
+                    return put(requestId, action, caller);
+                }));
+            }
+        }
+        start.countDown();
+
+        Map<String, List<Integer>> statuses = new LinkedHashMap<>();
+        for (Map.Entry<String, List<Future<Integer>>> entry : futures.entrySet()) {
+            List<Integer> codes = new ArrayList<>();
+            for (Future<Integer> future : entry.getValue()) {
+                codes.add(future.get(30, TimeUnit.SECONDS));
+            }
+            statuses.put(entry.getKey(), codes);
+        }
+        return statuses;
+    }
+
+    private static void assertSingleWinner(Map<String, List<Integer>> statuses) {
+        List<Integer> all = statuses.values().stream().flatMap(List::stream).toList();
+        assertThat(all).as("respostas por ação: %s", statuses).filteredOn(code -> code == 200).hasSize(1);
+        assertThat(all).as("respostas por ação: %s", statuses).filteredOn(code -> code != 200).containsOnly(409);
+    }
+
+    private void assertCountersMatchRequests() {
+        Map<String, Long> actual = new HashMap<>();
+        jdbcTemplate.query("SELECT r.status, COUNT(*) AS total FROM service_requests r " +
+                        "JOIN services s ON s.id = r.service_id WHERE s.provider_id = ? GROUP BY r.status",
+                row -> {
+                    actual.put(row.getString("status"), row.getLong("total"));
+                }, provider.getId());
+
+        ProviderRequestStatsDto stats = serviceRequestService.getProviderStats(provider.getId());
+        stats.getCountsByStatus().forEach((status, count) ->
+                assertThat(count).as("contador %s", status).isEqualTo(actual.getOrDefault(status, 0L)));
+        assertThat(stats.getTotalRequests()).isEqualTo(actual.values().stream().mapToLong(Long::longValue).sum());
+    }
+
+    private int put(Long requestId, String action, AuthResponse caller) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(caller.getToken());
+        return restTemplate.exchange("/requests/" + requestId + "/" + action, HttpMethod.PUT,
+                new HttpEntity<>(headers), String.class).getStatusCode().value();
+    }
+
+    private static RegisterRequest user(String name, String userType) {
+        return RegisterRequest.builder()
+                .name(name)
+                .email(name + "@example.com")
+                .password("segredo123")
+                .phone("(11) 91234-5678")
+                .userType(userType)
+                .build();
+    }
+}
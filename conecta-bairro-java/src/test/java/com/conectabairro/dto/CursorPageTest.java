@@ -0,0 +1,52 @@
+package com.conectabairro.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CursorPageTest {
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+    @Test
+    void rejectsSizesOutsideTheAllowedRange() {
+        for (int size : new int[] {0, -1, CursorPage.MAX_SIZE + 1}) {
+            assertThatThrownBy(() -> CursorPage.limit(size)).isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> CursorPage.of(List.of(1L), size, Function.identity(), this::cursorOf))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Test
+    void extraRowOnlySignalsNextPage() {
+        assertThat(CursorPage.limit(CursorPage.MAX_SIZE).getPageSize()).isEqualTo(CursorPage.MAX_SIZE + 1);
+
+        CursorPage<Long> page = CursorPage.of(List.of(3L, 2L, 1L), 2, Function.identity(), this::cursorOf);
+        assertThat(page.getContent()).containsExactly(3L, 2L);
+        assertThat(page.isHasNext()).isTrue();
+        assertThat(KeysetCursor.decode(page.getNextCursor()).id()).isEqualTo(2L);
+
+        CursorPage<Long> last = CursorPage.of(List.of(1L), 2, Function.identity(), this::cursorOf);
+        assertThat(last.isHasNext()).isFalse();
+        assertThat(last.getNextCursor()).isNull();
+    }
+
+    @Test
+    void rankingCursorRoundTripsExactScore() {
+        RankingCursor cursor = new RankingCursor(Math.log(0.7) + 19876.0 / 180, 42L);
+
+        assertThat(RankingCursor.decode(cursor.encode())).isEqualTo(cursor);
+        assertThat(RankingCursor.decode("")).isEqualTo(RankingCursor.START);
+        assertThatThrownBy(() -> RankingCursor.decode("bm90LWEtY3Vyc29y"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private KeysetCursor cursorOf(Long id) {
+        return new KeysetCursor(CREATED, id);
+    }
+}
@@ -0,0 +1,90 @@
+package com.conectabairro.repository;
+
+import com.conectabairro.MySqlIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+/**
+ * A listagem com filtros combinados (GET /api/services/filter) precisa ser servida por um dos
+ * índices idx_active_*: acesso ref/range, nunca varredura completa, e linhas já na ordem pedida
+ */
+class ServiceFilterQueryPlanTest extends MySqlIntegrationTest {
+
+    private static final String[] CATEGORIES = {"hidraulica", "eletrica", "pintura", "limpeza", "jardinagem"};
+    private static final String[] LOCATIONS = {"Centro", "Vila Nova", "Jardim América", "Bela Vista"};
+
+    private static boolean seeded;
+
+    // Mesma forma do SQL gerado por ServiceSpecifications.matching + pageable para cada combinação
+    static Stream<Arguments> filterQueries() {
+        return Stream.of(
+                arguments("sem filtros, mais recentes",
+                        "SELECT * FROM services s WHERE s.is_active = TRUE " +
+                        "ORDER BY s.created_at DESC, s.id DESC LIMIT 10"),
+                arguments("sem filtros, por preço",
+                        "SELECT * FROM services s WHERE s.is_active = TRUE " +
+                        "ORDER BY s.price ASC, s.id ASC LIMIT 10"),
+                arguments("sem filtros, por nota",
+                        "SELECT * FROM services s WHERE s.is_active = TRUE " +
+                        "ORDER BY s.rating DESC, s.id DESC LIMIT 10"),
+                arguments("categoria + faixa de preço, por preço",
+                        "SELECT * FROM services s WHERE s.is_active = TRUE AND s.category = 'hidraulica' " +
+                        "AND s.price >= 50 AND s.price <= 150 ORDER BY s.price ASC, s.id ASC LIMIT 10"),
+                arguments("categoria + nota mínima, por nota",
+                        "SELECT * FROM services s WHERE s.is_active = TRUE AND s.category = 'hidraulica' " +
+                        "AND s.rating >= 4 ORDER BY s.rating DESC, s.id DESC LIMIT 10"),
+                arguments("localização + preço máximo, mais recentes",
+                        "SELECT * FROM services s WHERE s.is_active = TRUE AND s.location = 'Centro' " +
+                        "AND s.price <= 100 ORDER BY s.created_at DESC, s.id DESC LIMIT 10"),
+                arguments("categoria + localização + nota mínima, por preço",
+                        "SELECT * FROM services s WHERE s.is_active = TRUE AND s.category = 'hidraulica' " +
+                        "AND s.location = 'Centro' AND s.rating >= 4 ORDER BY s.price ASC, s.id ASC LIMIT 10"));
+    }
+
+    @BeforeEach
+    void seed() {
+        // O contêiner é compartilhado entre as classes; basta semear uma vez
+        if (seeded) {
+            return;
+        }
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        jdbcTemplate.update("INSERT INTO users (name, email, password, phone, user_type) " +
+                "VALUES (?, ?, 'x', '11912345678', 'SERVICE_PROVIDER')", "provedor-" + suffix, "provedor-" + suffix + "@example.com");
+        long providerId = jdbcTemplate.queryForObject("SELECT LAST_INSERT_ID()", Long.class);
+        // 5000 serviços espalhados por categoria, localização, preço e nota; 1 em cada 10 inativo
+        for (int c = 0; c < CATEGORIES.length; c++) {
+            for (int l = 0; l < LOCATIONS.length; l++) {
+                jdbcTemplate.update("INSERT INTO services " +
+                        "(title, description, category, price, location, rating, is_active, provider_id, created_at) " +
+                        "WITH RECURSIVE n (i) AS (SELECT 0 UNION ALL SELECT i + 1 FROM n WHERE i < 249) " +
+                        "SELECT 'Serviço', 'Descrição', ?, 10 + (i * 37) % 490, ?, (i * 7) % 51 / 10, i % 10 <> 0, ?, " +
+                        "NOW() - INTERVAL i HOUR FROM n",
+                        CATEGORIES[c], LOCATIONS[l], providerId);
+            }
+        }
+        jdbcTemplate.execute("ANALYZE TABLE services");
+        seeded = true;
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("filterQueries")
+    void filterListingUsesActiveIndexWithoutFilesort(String description, String sql) {
+        List<Map<String, Object>> plan = explain(sql);
+
+        assertThat(plan).as("plano: %s", plan).hasSize(1);
+        Map<String, Object> row = plan.get(0);
+        assertThat(row.get("type")).as("plano: %s", plan).isIn("ref", "range");
+        assertThat(String.valueOf(row.get("key"))).as("plano: %s", plan).startsWith("idx_active_");
+        assertThat(String.valueOf(row.get("Extra"))).as("plano: %s", plan).doesNotContain("Using filesort");
+    }
+}
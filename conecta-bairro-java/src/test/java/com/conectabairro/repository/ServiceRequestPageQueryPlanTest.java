@@ -0,0 +1,72 @@
+package com.conectabairro.repository;
+
+import com.conectabairro.MySqlIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A página de requisições recebidas por cursor precisa ser servida pelo índice
+ * (provider_id, created_at, id): linhas já na ordem do cursor, sem filesort, em qualquer profundidade
+ */
+class ServiceRequestPageQueryPlanTest extends MySqlIntegrationTest {
+
+    // Mesma forma do SQL gerado para ServiceRequestRepository.findPageByProviderBefore
+    private static final String PAGE_BY_PROVIDER =
+            "SELECT r.id, s.id, r.status, r.scheduled_date, r.notes, r.total_price, c.id, c.name, " +
+            "p.id, p.name, s.title, r.created_at, r.updated_at " +
+            "FROM service_requests r JOIN services s ON s.id = r.service_id " +
+            "JOIN users p ON p.id = s.provider_id JOIN users c ON c.id = r.customer_id " +
+            "WHERE r.provider_id = ? AND (r.created_at < ? OR (r.created_at = ? AND r.id < ?)) " +
+            "ORDER BY r.created_at DESC, r.id DESC LIMIT 11";
+
+    private long providerId;
+
+    @BeforeEach
+    void seed() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        long customerId = insertUser("cliente-" + suffix, "CUSTOMER");
+        for (int p = 0; p < 5; p++) {
+            providerId = insertUser("provedor-" + p + "-" + suffix, "SERVICE_PROVIDER");
+            for (int s = 0; s < 4; s++) {
+                jdbcTemplate.update("INSERT INTO services (title, description, category, price, location, provider_id) " +
+                        "VALUES ('Serviço', 'Descrição', 'Reformas', 100, 'Centro', ?)", providerId);
+                long serviceId = jdbcTemplate.queryForObject("SELECT LAST_INSERT_ID()", Long.class);
+                // 500 requisições por serviço, uma por minuto para trás
+                jdbcTemplate.update("INSERT INTO service_requests " +
+                        "(status, total_price, customer_id, service_id, provider_id, created_at) " +
+                        "WITH RECURSIVE n (i) AS (SELECT 0 UNION ALL SELECT i + 1 FROM n WHERE i < 499) " +
+                        "SELECT 'PENDING', 100, ?, ?, ?, NOW() - INTERVAL i MINUTE FROM n",
+                        customerId, serviceId, providerId);
+            }
+        }
+        jdbcTemplate.execute("ANALYZE TABLE service_requests, services, users");
+    }
+
+    @Test
+    void receivedRequestsPageUsesProviderIndexWithoutFilesort() {
+        // Página funda: cursor no meio do histórico do provedor
+        Timestamp cursor = Timestamp.valueOf(LocalDateTime.now().minusMinutes(400));
+        List<Map<String, Object>> plan = explain(PAGE_BY_PROVIDER, providerId, cursor, cursor, Long.MAX_VALUE);
+
+        Map<String, Object> driving = plan.get(0);
+        assertThat(driving.get("table")).as("plano: %s", plan).isEqualTo("r");
+        assertThat(driving.get("key")).as("plano: %s", plan).isEqualTo("idx_provider_created");
+        assertThat(plan).as("plano: %s", plan).allSatisfy(row -> assertThat(String.valueOf(row.get("Extra")))
+                .doesNotContain("Using filesort")
+                .doesNotContain("Using temporary"));
+    }
+
+    private long insertUser(String name, String userType) {
+        jdbcTemplate.update("INSERT INTO users (name, email, password, phone, user_type) VALUES (?, ?, 'x', '11912345678', ?)",
+                name, name + "@example.com", userType);
+        return jdbcTemplate.queryForObject("SELECT LAST_INSERT_ID()", Long.class);
+    }
+}
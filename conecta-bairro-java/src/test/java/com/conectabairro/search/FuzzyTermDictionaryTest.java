@@ -0,0 +1,73 @@
+package com.conectabairro.search;
+
+import com.conectabairro.model.Service;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FuzzyTermDictionaryTest {
+
+    private ServiceSearchIndex searchIndex;
+    private FuzzyTermDictionary dictionary;
+
+    @BeforeEach
+    void setUp() {
+        searchIndex = new ServiceSearchIndex();
+        dictionary = new FuzzyTermDictionary();
+        ReflectionTestUtils.setField(dictionary, "searchIndex", searchIndex);
+
+        List<Service> services = List.of(
+                service(1L, "Pintor residencial", "Pinturas residenciais e comerciais", "pintura"),
+                service(2L, "Eletricista 24 horas", "Instalação de chuveiros e tomadas", "eletrica"));
+        searchIndex.rebuild(services);
+        dictionary.rebuild(services);
+    }
+
+    @Test
+    void correctsTypoToClosestTitleWord() {
+        FuzzyTermDictionary.Correction correction = dictionary.correct("eletricsta");
+
+        assertThat(correction.changed()).isTrue();
+        assertThat(correction.query()).isEqualTo("eletricista");
+    }
+
+    @Test
+    void keepsWordThatOnlyAppearsInDescriptions() {
+        // "residenciais" só existe na descrição e está a 2 edições de "residencial", do título
+        assertThat(dictionary.correct("residenciais"))
+                .isEqualTo(new FuzzyTermDictionary.Correction("residenciais", false));
+        // Casa pelo radical com "chuveiros", também só da descrição
+        assertThat(dictionary.correct("chuveiro"))
+                .isEqualTo(new FuzzyTermDictionary.Correction("chuveiro", false));
+    }
+
+    @Test
+    void forgetsWordsOfRemovedAndUpdatedServices() {
+        searchIndex.remove(2L);
+        dictionary.remove(2L);
+        // Sem o serviço 2 não há mais "eletricista" para sugerir
+        assertThat(dictionary.correct("eletricsta").changed()).isFalse();
+
+        Service renamed = service(1L, "Encanador residencial", "Conserto de vazamentos", "hidraulica");
+        searchIndex.index(renamed);
+        dictionary.index(renamed);
+
+        assertThat(dictionary.correct("encanadro").query()).isEqualTo("encanador");
+        assertThat(dictionary.correct("pintr").changed()).isFalse();
+    }
+
+    private static Service service(Long id, String title, String description, String category) {
+        Service service = new Service();
+        service.setId(id);
+        service.setTitle(title);
+        service.setDescription(description);
+        service.setCategory(category);
+        service.setLocation("Centro");
+        service.setPrice(100.0);
+        return service;
+    }
+}
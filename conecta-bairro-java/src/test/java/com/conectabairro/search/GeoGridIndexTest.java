@@ -0,0 +1,81 @@
+package com.conectabairro.search;
+
+import com.conectabairro.model.Service;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GeoGridIndexTest {
+
+    // Centro de Santarém (PA)
+    private static final double LATITUDE = -2.4431;
+    private static final double LONGITUDE = -54.7083;
+
+    private GeoGridIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new GeoGridIndex();
+        index.rebuild(List.of(
+                service(1L, "Elétrica", LATITUDE + 0.001, LONGITUDE),
+                service(2L, "eletrica", LATITUDE + 0.02, LONGITUDE),
+                service(3L, "Pintura", LATITUDE, LONGITUDE + 0.001)));
+    }
+
+    @Test
+    void categoryFilterIgnoresCaseAndAccents() {
+        assertThat(index.nearby(LATITUDE, LONGITUDE, 5, "ELETRICA", 10))
+                .extracting(GeoGridIndex.NearbyHit::serviceId)
+                .containsExactly(1L, 2L);
+    }
+
+    @Test
+    void returnsOnlyServicesInsideTheRadiusClosestFirst() {
+        // O serviço 2 está a ~2,2 km: fora de um raio de 1 km, mas na mesma vizinhança de células
+        assertThat(index.nearby(LATITUDE, LONGITUDE, 1, null, 10))
+                .extracting(GeoGridIndex.NearbyHit::serviceId)
+                .containsExactly(3L, 1L);
+        assertThat(index.nearby(LATITUDE, LONGITUDE, 5, null, 2))
+                .extracting(GeoGridIndex.NearbyHit::serviceId)
+                .hasSize(2)
+                .doesNotContain(2L);
+    }
+
+    @Test
+    void reindexingMovesServiceBetweenCells() {
+        index.index(service(1L, "Elétrica", LATITUDE + 0.3, LONGITUDE));
+
+        assertThat(index.nearby(LATITUDE, LONGITUDE, 5, null, 10))
+                .extracting(GeoGridIndex.NearbyHit::serviceId)
+                .containsExactly(3L, 2L);
+        assertThat(index.nearby(LATITUDE + 0.3, LONGITUDE, 1, null, 10))
+                .extracting(GeoGridIndex.NearbyHit::serviceId)
+                .containsExactly(1L);
+    }
+
+    @Test
+    void removedOrUnlocatedServicesLeaveTheGrid() {
+        index.remove(3L);
+        Service withoutCoordinates = service(1L, "Elétrica", LATITUDE, LONGITUDE);
+        withoutCoordinates.setLatitude(null);
+        index.index(withoutCoordinates);
+
+        assertThat(index.nearby(LATITUDE, LONGITUDE, 5, null, 10))
+                .extracting(GeoGridIndex.NearbyHit::serviceId)
+                .containsExactly(2L);
+    }
+
+    static Service service(Long id, String category, double latitude, double longitude) {
+        Service service = new Service();
+        service.setId(id);
+        service.setTitle("Serviço " + id);
+        service.setCategory(category);
+        service.setLocation("Centro");
+        service.setLatitude(latitude);
+        service.setLongitude(longitude);
+        return service;
+    }
+}
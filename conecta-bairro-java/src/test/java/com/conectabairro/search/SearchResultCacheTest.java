@@ -0,0 +1,148 @@
+package com.conectabairro.search;
+
+import com.conectabairro.dto.ServiceDto;
+import com.conectabairro.model.Service;
+import com.conectabairro.search.SearchResultCache.CacheKey;
+import com.conectabairro.search.SearchResultCache.Kind;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchResultCacheTest {
+
+    private SearchResultCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new SearchResultCache();
+        ReflectionTestUtils.setField(cache, "maxEntries", 100);
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 300L);
+        ReflectionTestUtils.setField(cache, "warmTop", 0);
+        ReflectionTestUtils.setField(cache, "warmQueries", List.of());
+        cache.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        cache.shutdown();
+    }
+
+    @Test
+    void pageLoadedAcrossAnInvalidationIsNotStored() {
+        CacheKey key = SearchResultCache.key(Kind.SEARCH, "eletricista", 0, 20);
+        AtomicInteger loads = new AtomicInteger();
+
+        // A leitura viu os dados antigos e o serviço mudou antes de ela terminar
+        cache.get(key, k -> {
+            loads.incrementAndGet();
+            cache.invalidateServices(List.of(99L));
+            return page(1L);
+        });
+        cache.get(key, counting(loads, 1L));
+
+        assertThat(loads).hasValue(2);
+        cache.get(key, counting(loads, 1L));
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void listingKeysFollowTheCaseAndAccentInsensitiveCollation() {
+        assertThat(SearchResultCache.key(Kind.CATEGORY, "Hidráulica ", 0, 20))
+                .isEqualTo(SearchResultCache.key(Kind.CATEGORY, "hidraulica", 0, 20));
+        assertThat(SearchResultCache.key(Kind.LOCATION, "SÃO PAULO", 0, 20))
+                .isEqualTo(SearchResultCache.key(Kind.LOCATION, "São Paulo", 0, 20));
+
+        AtomicInteger loads = new AtomicInteger();
+        CacheKey listing = SearchResultCache.key(Kind.CATEGORY, "hidraulica", 0, 20);
+        cache.get(listing, counting(loads, 1L));
+
+        // Um serviço novo em "Hidráulica" precisa invalidar a listagem pedida como "hidraulica"
+        cache.invalidate(SearchResultCache.CatalogChange.of(service(2L, "Hidráulica", "Centro")), k -> page());
+        cache.get(listing, counting(loads, 1L, 2L));
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void ratingChangeInvalidatesOnlyPagesShowingTheService() {
+        AtomicInteger loads = new AtomicInteger();
+        CacheKey withService = SearchResultCache.key(Kind.SEARCH, "pintor", 0, 20);
+        CacheKey withoutService = SearchResultCache.key(Kind.SEARCH, "diarista", 0, 20);
+        cache.get(withService, counting(loads, 1L, 2L));
+        cache.get(withoutService, counting(loads, 3L));
+
+        cache.invalidateServices(List.of(2L));
+
+        cache.get(withService, counting(loads, 1L, 2L));
+        cache.get(withoutService, counting(loads, 3L));
+        assertThat(loads).hasValue(3);
+    }
+
+    @Test
+    void unsavedHitsAreDrainedOnceAndSeededFrequenciesRankQueries() {
+        CacheKey popular = SearchResultCache.key(Kind.SEARCH, "encanador", 0, 20);
+        CacheKey recent = SearchResultCache.key(Kind.SEARCH, "jardineiro", 0, 20);
+        cache.get(recent, k -> page());
+        cache.get(recent, k -> page());
+
+        Map<CacheKey, Long> drained = cache.drainUnsavedHits();
+        assertThat(drained).containsExactly(Map.entry(recent, 2L));
+        assertThat(cache.drainUnsavedHits()).isEmpty();
+
+        cache.restoreUnsavedHits(drained);
+        assertThat(cache.drainUnsavedHits()).containsExactly(Map.entry(recent, 2L));
+
+        // Frequência persistida antes do restart pesa no ranking, mas não volta a ser gravada
+        cache.seedFrequencies(Map.of(popular, 50L));
+        assertThat(cache.topQueries(2)).containsExactly(popular, recent);
+        assertThat(cache.drainUnsavedHits()).isEmpty();
+    }
+
+    @Test
+    void popularQueriesSurviveAFloodOfOneOffQueries() {
+        CacheKey popular = SearchResultCache.key(Kind.SEARCH, "eletricista", 0, 20);
+
+        // Mais consultas distintas do que o limite de contadores: as raras é que saem
+        for (int i = 0; i < 20_000; i++) {
+            if (i % 50 == 0) {
+                cache.get(popular, k -> page());
+            }
+            cache.get(SearchResultCache.key(Kind.SEARCH, "consulta " + i, 0, 20), k -> page());
+        }
+
+        assertThat(cache.topQueries(1)).containsExactly(popular);
+        assertThat(cache.size()).isLessThanOrEqualTo(100);
+    }
+
+    private static Function<CacheKey, Page<ServiceDto>> counting(AtomicInteger loads, Long... ids) {
+        return key -> {
+            loads.incrementAndGet();
+            return page(ids);
+        };
+    }
+
+    private static Page<ServiceDto> page(Long... ids) {
+        return new PageImpl<>(Arrays.stream(ids).map(id -> ServiceDto.builder().id(id).build()).toList());
+    }
+
+    private static Service service(Long id, String category, String location) {
+        Service service = new Service();
+        service.setId(id);
+        service.setTitle("Conserto");
+        service.setDescription("Reparo geral");
+        service.setCategory(category);
+        service.setLocation(location);
+        return service;
+    }
+}
@@ -0,0 +1,117 @@
+package com.conectabairro.search;
+
+import com.conectabairro.model.Service;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+class ServiceSearchIndexTest {
+
+    private ServiceSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ServiceSearchIndex();
+        index.rebuild(List.of(
+                service(1L, "Diarista experiente", "Limpeza de casas", "Limpeza", "Centro", 80.0),
+                service(2L, "Diarista pós-obra", "Limpeza pesada", "limpeza", "Aparecida", 150.0),
+                service(3L, "Encanador", "Conserto de vazamentos", "Hidráulica", "centro", 120.0)));
+    }
+
+    @Test
+    void filtersIgnoreCaseAndAccentsLikeTheDatabase() {
+        assertThat(index.search("diarista", "LIMPEZA", null, 0, 10).ids()).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(index.search("encanador", "hidraulica ", "CENTRO", 0, 10).ids()).containsExactly(3L);
+
+        ServiceSearchIndex.FacetedHits hits = index.facetedSearch(null, "limpeza", "Centro", null, 0, 10);
+        assertThat(hits.ids()).containsExactly(1L);
+    }
+
+    @Test
+    void facetsMergeSpellingVariants() {
+        ServiceSearchIndex.FacetedHits hits = index.facetedSearch(null, null, null, null, 0, 10);
+
+        assertThat(hits.categories()).containsExactly(entry("Hidráulica", 1L), entry("Limpeza", 2L));
+        assertThat(hits.locations()).containsExactly(entry("Aparecida", 1L), entry("Centro", 2L));
+    }
+
+    @Test
+    void ranksTitleMatchesFirstAndPagesTheHits() {
+        index.index(service(4L, "Passadeira", "Diarista também passa roupa", "Limpeza", "Centro", 60.0));
+
+        ServiceSearchIndex.SearchHits all = index.search("diarista", 0, 10);
+        assertThat(all.total()).isEqualTo(3);
+        assertThat(all.ids()).hasSize(3).endsWith(4L);
+
+        ServiceSearchIndex.SearchHits second = index.search("diarista", 1, 1);
+        assertThat(second.total()).isEqualTo(3);
+        assertThat(second.ids()).containsExactly(all.ids().get(1));
+        assertThat(index.search("de da com", 0, 10)).isEqualTo(ServiceSearchIndex.SearchHits.empty());
+    }
+
+    @Test
+    void reindexingReplacesTermsAndFilterFields() {
+        index.index(service(3L, "Eletricista", "Troca de disjuntores", "Elétrica", "Aparecida", 40.0));
+
+        assertThat(index.size()).isEqualTo(3);
+        assertThat(index.search("encanador", 0, 10).total()).isZero();
+        assertThat(index.containsWord("vazamentos")).isFalse();
+        assertThat(index.search("disjuntor", "eletrica", "aparecida", 0, 10).ids()).containsExactly(3L);
+
+        ServiceSearchIndex.FacetedHits hits = index.facetedSearch(null, null, null, null, 0, 10);
+        assertThat(hits.categories()).containsExactly(entry("Elétrica", 1L), entry("Limpeza", 2L));
+        assertThat(hits.priceBands()).containsEntry("0-50", 1L).containsEntry("100-200", 1L);
+    }
+
+    @Test
+    void removedServicesLeaveResultsAndFacets() {
+        index.remove(2L);
+        index.remove(99L);
+
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.search("diarista", 0, 10).ids()).containsExactly(1L);
+        assertThat(index.containsWord("pesada")).isFalse();
+        assertThat(index.facetedSearch(null, null, null, null, 0, 10).locations())
+                .containsExactly(entry("Centro", 2L));
+    }
+
+    @Test
+    void eachFacetIgnoresOnlyItsOwnFilter() {
+        ServiceSearchIndex.FacetedHits hits = index.facetedSearch(null, "limpeza", null, PriceBand.DE_50_A_100, 0, 10);
+
+        assertThat(hits.ids()).containsExactly(1L);
+        // Categorias: só o filtro de preço vale; bairros: categoria e preço
+        assertThat(hits.categories()).containsExactly(entry("Limpeza", 1L));
+        assertThat(hits.locations()).containsExactly(entry("Centro", 1L));
+        // Faixas de preço: só o filtro de categoria vale
+        assertThat(hits.priceBands()).containsEntry("50-100", 1L).containsEntry("100-200", 1L)
+                .containsEntry("0-50", 0L).containsEntry("200+", 0L);
+    }
+
+    @Test
+    void rebuildDiscardsPreviousServices() {
+        assertThat(new ServiceSearchIndex().isReady()).isFalse();
+
+        index.rebuild(List.of(service(5L, "Jardineiro", "Poda de árvores", "Jardinagem", "Centro", 90.0)));
+
+        assertThat(index.isReady()).isTrue();
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.search("diarista", 0, 10).total()).isZero();
+        assertThat(index.search("poda", 0, 10).ids()).containsExactly(5L);
+    }
+
+    static Service service(Long id, String title, String description, String category, String location, double price) {
+        Service service = new Service();
+        service.setId(id);
+        service.setTitle(title);
+        service.setDescription(description);
+        service.setCategory(category);
+        service.setLocation(location);
+        service.setPrice(price);
+        return service;
+    }
+}
@@ -0,0 +1,92 @@
+package com.conectabairro.search;
+
+import com.conectabairro.model.Service;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SuggestionTrieTest {
+
+    private SuggestionTrie trie;
+
+    @BeforeEach
+    void setUp() {
+        trie = new SuggestionTrie();
+        trie.rebuild(List.of(
+                service(1L, "Eletricista Residencial", 5.0, 40),
+                service(2L, "Eletricista Industrial", 3.0, 2)));
+    }
+
+    @Test
+    void reweightReordersSuggestionsAfterRatingsChange() {
+        assertThat(titles("eletri")).containsExactly("Eletricista Residencial", "Eletricista Industrial");
+
+        // Avaliações aplicadas pelo flush depois da indexação
+        trie.reweight(List.of(reputation(2L, 4.9, 300), reputation(1L, 2.0, 41)));
+
+        assertThat(titles("eletri")).containsExactly("Eletricista Industrial", "Eletricista Residencial");
+        // Também pelo início das demais palavras
+        assertThat(trie.suggest("indus", 1).get(0).weight()).isEqualTo(1.0 + 4.9 * Math.log1p(300));
+    }
+
+    @Test
+    void bulkReweightFromRepairRecomputesEveryList() {
+        List<Service> services = new ArrayList<>();
+        for (long id = 1; id <= 50; id++) {
+            services.add(service(id, "Pintor " + id, 1.0, 1));
+        }
+        trie.rebuild(services);
+
+        List<SuggestionTrie.Reputation> reputations = new ArrayList<>();
+        for (long id = 1; id <= 50; id++) {
+            reputations.add(reputation(id, id == 37 ? 5.0 : 1.0, 10));
+        }
+        // Serviço que não está na trie (ex.: removido) é ignorado
+        reputations.add(reputation(999L, 5.0, 1000));
+        trie.reweight(reputations);
+
+        assertThat(trie.suggest("pin", 1)).extracting(SuggestionTrie.Suggestion::text).containsExactly("Pintor 37");
+        assertThat(trie.suggest("37", 1)).extracting(SuggestionTrie.Suggestion::text).containsExactly("Pintor 37");
+    }
+
+    private List<String> titles(String prefix) {
+        return trie.suggest(prefix, SuggestionTrie.MAX_SUGGESTIONS).stream()
+                .filter(suggestion -> suggestion.type() == SuggestionTrie.SuggestionType.TITLE)
+                .map(SuggestionTrie.Suggestion::text)
+                .toList();
+    }
+
+    private static Service service(Long id, String title, double rating, int totalReviews) {
+        Service service = new Service();
+        service.setId(id);
+        service.setTitle(title);
+        service.setCategory("eletrica");
+        service.setLocation("Centro");
+        service.setRating(rating);
+        service.setTotalReviews(totalReviews);
+        return service;
+    }
+
+    private static SuggestionTrie.Reputation reputation(Long id, Double rating, Integer totalReviews) {
+        return new SuggestionTrie.Reputation() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Double getRating() {
+                return rating;
+            }
+
+            @Override
+            public Integer getTotalReviews() {
+                return totalReviews;
+            }
+        };
+    }
+}
@@ -0,0 +1,117 @@
+package com.conectabairro.security;
+
+import com.conectabairro.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Credenciais na URL do fluxo SSE: só tickets de uso único, nunca o JWT de sessão
+ */
+class JwtAuthenticationFilterTest {
+
+    private static final String EVENTS_URI = "/api/requests/events";
+    private static final AuthenticatedUser USER = new AuthenticatedUser(42L, "cliente@example.com", User.UserType.CUSTOMER);
+
+    private JwtTokenProvider tokenProvider;
+    private StreamTickets streamTickets;
+    private JwtAuthenticationFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        VerifiedTokenCache cache = new VerifiedTokenCache();
+        ReflectionTestUtils.setField(cache, "maxEntries", 100);
+        ReflectionTestUtils.setField(cache, "meterRegistry", new SimpleMeterRegistry());
+        cache.init();
+
+        tokenProvider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(tokenProvider, "jwtSecret",
+                "chave_de_teste_com_tamanho_suficiente_para_hs512_0123456789_abcdefghij");
+        ReflectionTestUtils.setField(tokenProvider, "jwtExpirationMs", 60_000);
+        ReflectionTestUtils.setField(tokenProvider, "verifiedTokens", cache);
+        tokenProvider.init();
+
+        streamTickets = new StreamTickets();
+        ReflectionTestUtils.setField(streamTickets, "ttlSeconds", 30L);
+        ReflectionTestUtils.setField(streamTickets, "maxTickets", 100);
+        streamTickets.init();
+
+        UserRevocationCheck revocationCheck = mock(UserRevocationCheck.class);
+        when(revocationCheck.isActive(anyLong())).thenReturn(true);
+
+        filter = new JwtAuthenticationFilter();
+        ReflectionTestUtils.setField(filter, "tokenProvider", tokenProvider);
+        ReflectionTestUtils.setField(filter, "streamTickets", streamTickets);
+        ReflectionTestUtils.setField(filter, "userDetailsService", mock(UserDetailsService.class));
+        ReflectionTestUtils.setField(filter, "revocationCheck", revocationCheck);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void sessionTokenInQueryStringIsIgnored() throws Exception {
+        User user = new User();
+        user.setId(USER.id());
+        user.setEmail(USER.email());
+        user.setUserType(USER.userType());
+
+        MockHttpServletRequest request = eventsRequest();
+        request.setParameter("access_token", tokenProvider.generateToken(user));
+
+        assertThat(authenticate(request)).isNull();
+    }
+
+    @Test
+    void ticketOpensOneConnectionAndCarriesSessionExpiry() throws Exception {
+        long sessionExpiresAt = System.currentTimeMillis() + 60_000;
+        String ticket = streamTickets.issue(USER, sessionExpiresAt);
+
+        MockHttpServletRequest first = eventsRequest();
+        first.setParameter("ticket", ticket);
+        Authentication authentication = authenticate(first);
+        assertThat(authentication).isNotNull();
+        assertThat(authentication.getPrincipal()).isEqualTo(USER);
+        assertThat(first.getAttribute(JwtAuthenticationFilter.SESSION_EXPIRES_AT)).isEqualTo(sessionExpiresAt);
+
+        // Uso único: a mesma URL vista num log não abre outra conexão
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest replay = eventsRequest();
+        replay.setParameter("ticket", ticket);
+        assertThat(authenticate(replay)).isNull();
+    }
+
+    @Test
+    void ticketFromExpiredSessionIsRejected() throws Exception {
+        MockHttpServletRequest request = eventsRequest();
+        request.setParameter("ticket", streamTickets.issue(USER, System.currentTimeMillis() - 1));
+
+        assertThat(authenticate(request)).isNull();
+    }
+
+    private Authentication authenticate(MockHttpServletRequest request) throws Exception {
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    private static MockHttpServletRequest eventsRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", EVENTS_URI);
+        request.setContextPath("/api");
+        return request;
+    }
+}
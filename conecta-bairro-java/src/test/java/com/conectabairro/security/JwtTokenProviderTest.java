@@ -0,0 +1,74 @@
+package com.conectabairro.security;
+
+import com.conectabairro.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtTokenProviderTest {
+
+    private static final String SECRET = "chave_de_teste_com_tamanho_suficiente_para_hs512_0123456789_abcdefghij";
+
+    private JwtTokenProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        provider = newProvider(SECRET, 60_000);
+    }
+
+    @Test
+    void verifiesTokenIssuedWithSameKey() {
+        JwtTokenProvider.VerifiedToken verified = provider.verify(provider.generateToken(user()));
+
+        assertThat(verified).isNotNull();
+        assertThat(verified.principal().id()).isEqualTo(42L);
+        assertThat(verified.principal().userType()).isEqualTo(User.UserType.SERVICE_PROVIDER);
+    }
+
+    @Test
+    void rejectsForgedSignatureWithoutThrowing() {
+        JwtTokenProvider forger = newProvider(SECRET.replace('a', 'b'), 60_000);
+
+        // Assinatura inválida lança io.jsonwebtoken.security.SignatureException; deve virar null, não exceção
+        assertThat(provider.verify(forger.generateToken(user()))).isNull();
+    }
+
+    @Test
+    void rejectsTamperedPayload() {
+        String[] parts = provider.generateToken(user()).split("\\.");
+        String tampered = parts[0] + "." + parts[1].substring(0, parts[1].length() - 2) + "AA." + parts[2];
+
+        assertThat(provider.verify(tampered)).isNull();
+    }
+
+    @Test
+    void rejectsExpiredAndMalformedTokens() {
+        assertThat(newProvider(SECRET, -1_000).verify(newProvider(SECRET, -1_000).generateToken(user()))).isNull();
+        assertThat(provider.verify("isto.nao.e-um-jwt")).isNull();
+    }
+
+    private static JwtTokenProvider newProvider(String secret, int expirationMs) {
+        VerifiedTokenCache cache = new VerifiedTokenCache();
+        ReflectionTestUtils.setField(cache, "maxEntries", 100);
+        ReflectionTestUtils.setField(cache, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.invokeMethod(cache, "init");
+
+        JwtTokenProvider provider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(provider, "jwtSecret", secret);
+        ReflectionTestUtils.setField(provider, "jwtExpirationMs", expirationMs);
+        ReflectionTestUtils.setField(provider, "verifiedTokens", cache);
+        provider.init();
+        return provider;
+    }
+
+    private static User user() {
+        User user = new User();
+        user.setId(42L);
+        user.setEmail("provedor@example.com");
+        user.setUserType(User.UserType.SERVICE_PROVIDER);
+        return user;
+    }
+}
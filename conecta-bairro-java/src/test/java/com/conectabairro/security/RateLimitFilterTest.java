@@ -0,0 +1,146 @@
+package com.conectabairro.security;
+
+import com.conectabairro.config.RateLimitProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletInputStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.DelegatingServletInputStream;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitFilterTest {
+
+    @Test
+    void limitsByEmailWhenBodyIsChunked() throws Exception {
+        RateLimitFilter filter = filter(login(1, List.of(RateLimitProperties.KeyType.EMAIL)), 100);
+
+        assertThat(status(filter, chunkedLogin("1.1.1.1", "a@example.com"))).isEqualTo(200);
+        // Outro IP, mesma conta, sem Content-Length: ainda cai no bucket do email
+        assertThat(status(filter, chunkedLogin("2.2.2.2", "A@example.com "))).isEqualTo(429);
+    }
+
+    @Test
+    void limitsByEmailWhateverTheContentType() throws Exception {
+        RateLimitFilter filter = filter(login(1, List.of(RateLimitProperties.KeyType.EMAIL)), 100);
+
+        MockHttpServletRequest first = login("1.1.1.1", "a@example.com");
+        first.setContentType("application/vnd.conta+json");
+        MockHttpServletRequest second = login("2.2.2.2", "a@example.com");
+        second.setContentType("text/plain");
+
+        assertThat(status(filter, first)).isEqualTo(200);
+        assertThat(status(filter, second)).isEqualTo(429);
+    }
+
+    @Test
+    void rejectsOversizedBodyInsteadOfSkippingEmailLimit() throws Exception {
+        RateLimitFilter filter = filter(login(10, List.of(RateLimitProperties.KeyType.EMAIL)), 100);
+        String padding = "x".repeat(20 * 1024);
+        byte[] body = ("{\"email\":\"a@example.com\",\"password\":\"" + padding + "\"}").getBytes(StandardCharsets.UTF_8);
+
+        MockHttpServletRequest chunked = chunkedLogin("1.1.1.1", body);
+        MockHttpServletRequest declared = login("1.1.1.1", "a@example.com");
+        declared.setContent(body);
+
+        assertThat(status(filter, chunked)).isEqualTo(413);
+        assertThat(status(filter, declared)).isEqualTo(413);
+    }
+
+    @Test
+    void emailRejectionDoesNotSpendIpToken() throws Exception {
+        RateLimitFilter filter = filter(login(1, List.of(RateLimitProperties.KeyType.IP, RateLimitProperties.KeyType.EMAIL)), 100);
+
+        assertThat(status(filter, login("1.1.1.1", "a@example.com"))).isEqualTo(200);
+        // Recusado pelo IP: a ficha do email b@ não pode ser gasta
+        assertThat(status(filter, login("1.1.1.1", "b@example.com"))).isEqualTo(429);
+        assertThat(status(filter, login("2.2.2.2", "b@example.com"))).isEqualTo(200);
+        // Recusado pelo email: a ficha do IP 3.3.3.3 não pode ser gasta
+        assertThat(status(filter, login("3.3.3.3", "a@example.com"))).isEqualTo(429);
+        assertThat(status(filter, login("3.3.3.3", "c@example.com"))).isEqualTo(200);
+    }
+
+    @Test
+    void keepsBucketCountBoundedWhenAllBucketsAreBusy() throws Exception {
+        RateLimitFilter filter = filter(login(5, List.of(RateLimitProperties.KeyType.IP)), 50);
+
+        for (int i = 0; i < 1_000; i++) {
+            assertThat(status(filter, login("10.0." + (i / 256) + "." + (i % 256), "a@example.com"))).isEqualTo(200);
+        }
+
+        Cache<?, ?> buckets = (Cache<?, ?>) ReflectionTestUtils.getField(filter, "buckets");
+        buckets.cleanUp();
+        assertThat(buckets.estimatedSize()).isLessThanOrEqualTo(50);
+    }
+
+    private static RateLimitProperties.Route login(int capacity, List<RateLimitProperties.KeyType> keys) {
+        RateLimitProperties.Route route = new RateLimitProperties.Route();
+        route.setName("login");
+        route.setMethod("POST");
+        route.setPath("/auth/login");
+        route.setCapacity(capacity);
+        route.setRefillPerMinute(1);
+        route.setKeys(keys);
+        return route;
+    }
+
+    private static RateLimitFilter filter(RateLimitProperties.Route route, int maxBuckets) {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setMaxBuckets(maxBuckets);
+        properties.setRoutes(List.of(route));
+        return new RateLimitFilter(properties, new ObjectMapper().findAndRegisterModules(), new SimpleMeterRegistry());
+    }
+
+    private static MockHttpServletRequest login(String ip, String email) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/auth/login");
+        request.setRemoteAddr(ip);
+        request.setContentType("application/json");
+        request.setContent(("{\"email\":\"" + email + "\",\"password\":\"segredo\"}").getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    private static MockHttpServletRequest chunkedLogin(String ip, String email) {
+        return chunkedLogin(ip, ("{\"email\":\"" + email + "\",\"password\":\"segredo\"}").getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Corpo sem Content-Length, como chega com Transfer-Encoding: chunked
+     */
+    private static MockHttpServletRequest chunkedLogin(String ip, byte[] body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/auth/login") {
+            @Override
+            public long getContentLengthLong() {
+                return -1;
+            }
+
+            @Override
+            public int getContentLength() {
+                return -1;
+            }
+
+            @Override
+            public ServletInputStream getInputStream() {
+                ByteArrayInputStream input = new ByteArrayInputStream(body);
+                return new DelegatingServletInputStream(input);
+            }
+        };
+        request.setRemoteAddr(ip);
+        request.setContentType("application/json");
+        return request;
+    }
+
+    private static int status(RateLimitFilter filter, MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response.getStatus();
+    }
+}
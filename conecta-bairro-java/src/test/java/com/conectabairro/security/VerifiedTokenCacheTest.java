@@ -0,0 +1,57 @@
+package com.conectabairro.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VerifiedTokenCacheTest {
+
+    private static final int MAX_ENTRIES = 100;
+
+    private VerifiedTokenCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new VerifiedTokenCache();
+        ReflectionTestUtils.setField(cache, "maxEntries", MAX_ENTRIES);
+        ReflectionTestUtils.setField(cache, "meterRegistry", new SimpleMeterRegistry());
+        cache.init();
+    }
+
+    @Test
+    void staysBoundedWhenFullOfValidTokens() {
+        JwtTokenProvider.VerifiedToken verified = token(System.currentTimeMillis() + 60_000);
+        for (int i = 0; i < MAX_ENTRIES * 10; i++) {
+            cache.put("token-" + i, verified);
+        }
+
+        assertThat(cache.size()).isLessThanOrEqualTo(MAX_ENTRIES);
+        // Cheio, o cache ainda aceita tokens novos
+        assertThat(cache.get("token-" + (MAX_ENTRIES * 10 - 1))).isNotNull();
+    }
+
+    @Test
+    void entryExpiresWithItsToken() throws InterruptedException {
+        cache.put("curto", token(System.currentTimeMillis() + 50));
+        cache.put("longo", token(System.currentTimeMillis() + 60_000));
+
+        Thread.sleep(100);
+
+        assertThat(cache.get("curto")).isNull();
+        assertThat(cache.get("longo")).isNotNull();
+    }
+
+    @Test
+    void ignoresAlreadyExpiredToken() {
+        cache.put("vencido", token(System.currentTimeMillis() - 1));
+
+        assertThat(cache.get("vencido")).isNull();
+    }
+
+    private static JwtTokenProvider.VerifiedToken token(long expiresAtMillis) {
+        return new JwtTokenProvider.VerifiedToken("usuario@example.com", null, expiresAtMillis);
+    }
+}
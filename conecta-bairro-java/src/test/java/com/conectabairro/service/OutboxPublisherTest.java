@@ -0,0 +1,81 @@
+package com.conectabairro.service;
+
+import com.conectabairro.dto.ServiceRequestDto;
+import com.conectabairro.model.OutboxEvent;
+import com.conectabairro.repository.OutboxEventRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class OutboxPublisherTest {
+
+    private final OutboxEventRepository outboxEventRepository = mock(OutboxEventRepository.class);
+    private final OutboxDispatcher dispatcher = mock(OutboxDispatcher.class);
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+    private OutboxPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        publisher = new OutboxPublisher();
+        ReflectionTestUtils.setField(publisher, "outboxEventRepository", outboxEventRepository);
+        ReflectionTestUtils.setField(publisher, "dispatcher", dispatcher);
+        ReflectionTestUtils.setField(publisher, "objectMapper", new ObjectMapper().findAndRegisterModules());
+        ReflectionTestUtils.setField(publisher, "jdbcTemplate", jdbcTemplate);
+        publisher.init();
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void bulkPublishWritesAllEventsInOneStatementAndWakesDispatcherAfterCommit() {
+        List<ServiceRequestDto> requests = LongStream.rangeClosed(1, 3)
+                .mapToObj(id -> ServiceRequestDto.builder().id(id).status("ACCEPTED").build())
+                .toList();
+
+        publisher.publishAll(OutboxEvent.AGGREGATE_SERVICE_REQUEST, OutboxEvent.SERVICE_REQUEST_STATUS_CHANGED,
+                requests, ServiceRequestDto::getId);
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate, times(1)).update(sql.capture(), args.capture());
+        verifyNoInteractions(outboxEventRepository);
+        assertThat(sql.getValue()).startsWith("INSERT INTO outbox_events").contains("), (");
+        assertThat(sql.getValue().split("\\(\\?").length - 1).isEqualTo(3);
+        // aggregate_id da segunda linha, na ordem recebida
+        assertThat(args.getValue()).hasSize(21);
+        assertThat(args.getValue()[8]).isEqualTo(2L);
+        assertThat((String) args.getValue()[10]).contains("\"id\":2");
+
+        verify(dispatcher, never()).wakeUp();
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        verify(dispatcher, atLeastOnce()).wakeUp();
+    }
+
+    @Test
+    void emptyBulkPublishWritesNothing() {
+        publisher.publishAll(OutboxEvent.AGGREGATE_SERVICE_REQUEST, OutboxEvent.SERVICE_REQUEST_STATUS_CHANGED,
+                List.<ServiceRequestDto>of(), ServiceRequestDto::getId);
+
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+        assertThat(TransactionSynchronizationManager.getSynchronizations()).isEmpty();
+    }
+}
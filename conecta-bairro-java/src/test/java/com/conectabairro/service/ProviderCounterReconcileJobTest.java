@@ -0,0 +1,44 @@
+package com.conectabairro.service;
+
+import com.conectabairro.repository.ProviderRequestCounterRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * A reconciliação percorre os provedores em lotes, cada um na sua transação, em vez de travar
+ * service_requests inteira em um único INSERT ... SELECT
+ */
+class ProviderCounterReconcileJobTest {
+
+    @Test
+    void reconcilesProvidersInSeparateTransactionsPerBatch() {
+        ProviderRequestCounterRepository counterRepository = mock(ProviderRequestCounterRepository.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        when(counterRepository.findProviderIds()).thenReturn(List.of(1L, 2L, 3L, 4L, 5L));
+
+        ProviderCounterReconcileJob job = new ProviderCounterReconcileJob();
+        ReflectionTestUtils.setField(job, "counterRepository", counterRepository);
+        ReflectionTestUtils.setField(job, "transactionManager", transactionManager);
+        ReflectionTestUtils.setField(job, "batchSize", 2);
+
+        job.reconcile();
+
+        InOrder inOrder = inOrder(counterRepository, transactionManager);
+        inOrder.verify(counterRepository).findProviderIds();
+        for (List<Long> batch : List.of(List.of(1L, 2L), List.of(3L, 4L), List.of(5L))) {
+            inOrder.verify(counterRepository).recompute(batch);
+            inOrder.verify(counterRepository).deleteStale(batch);
+            inOrder.verify(transactionManager).commit(any());
+        }
+        verifyNoMoreInteractions(counterRepository);
+    }
+}
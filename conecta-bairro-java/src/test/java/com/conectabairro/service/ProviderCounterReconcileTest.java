@@ -0,0 +1,70 @@
+package com.conectabairro.service;
+
+import com.conectabairro.MySqlIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A reconciliação em lotes corrige contadores divergentes e remove os de status sem requisições,
+ * lendo service_requests pelo índice de provider_id, sem passar por services
+ */
+class ProviderCounterReconcileTest extends MySqlIntegrationTest {
+
+    @Autowired
+    private ProviderCounterReconcileJob reconcileJob;
+
+    private long providerId;
+
+    @BeforeEach
+    void seed() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        long customerId = insertUser("cliente-" + suffix, "CUSTOMER");
+        providerId = insertUser("provedor-" + suffix, "SERVICE_PROVIDER");
+        jdbcTemplate.update("INSERT INTO services (title, description, category, price, location, provider_id) " +
+                "VALUES ('Serviço', 'Descrição', 'Reformas', 100, 'Centro', ?)", providerId);
+        long serviceId = jdbcTemplate.queryForObject("SELECT LAST_INSERT_ID()", Long.class);
+        for (String status : new String[] {"PENDING", "PENDING", "COMPLETED"}) {
+            jdbcTemplate.update("INSERT INTO service_requests (status, total_price, customer_id, service_id, provider_id) " +
+                    "VALUES (?, 100, ?, ?, ?)", status, customerId, serviceId, providerId);
+        }
+        // Divergências: contagem errada, status sem requisições e status faltando
+        jdbcTemplate.update("INSERT INTO provider_request_counters (provider_id, status, request_count, total_price) " +
+                "VALUES (?, 'PENDING', 7, 700), (?, 'CANCELLED', 1, 100)", providerId, providerId);
+    }
+
+    @Test
+    void reconcileRebuildsTheProviderCounters() {
+        reconcileJob.reconcile();
+
+        List<Map<String, Object>> counters = jdbcTemplate.queryForList(
+                "SELECT status, request_count, total_price FROM provider_request_counters " +
+                "WHERE provider_id = ? ORDER BY status", providerId);
+        assertThat(counters).extracting(row -> row.get("status") + "=" + row.get("request_count"))
+                .containsExactly("COMPLETED=1", "PENDING=2");
+    }
+
+    @Test
+    void recomputeReadsRequestsByProviderIndexWithoutServices() {
+        // Mesma forma do SELECT de ProviderRequestCounterRepository.recompute
+        List<Map<String, Object>> plan = explain(
+                "SELECT r.provider_id, r.status, COUNT(*), COALESCE(SUM(r.total_price), 0) " +
+                "FROM service_requests r WHERE r.provider_id IN (?) GROUP BY r.provider_id, r.status", providerId);
+
+        assertThat(plan).as("plano: %s", plan).hasSize(1);
+        assertThat(plan.get(0).get("type")).isIn("ref", "range");
+        assertThat(String.valueOf(plan.get(0).get("key"))).startsWith("idx_provider");
+    }
+
+    private long insertUser(String name, String type) {
+        jdbcTemplate.update("INSERT INTO users (name, email, password, phone, user_type) " +
+                "VALUES (?, ?, 'x', '11912345678', ?)", name, name + "@example.com", type);
+        return jdbcTemplate.queryForObject("SELECT LAST_INSERT_ID()", Long.class);
+    }
+}
@@ -0,0 +1,172 @@
+package com.conectabairro.service;
+
+import com.conectabairro.repository.ServiceRepository;
+import com.conectabairro.repository.UserRepository;
+import com.conectabairro.search.SearchResultCache;
+import com.conectabairro.search.SuggestionTrie;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * Intercalação entre o reparo dos agregados e transações de avaliação: nenhum delta pode ser
+ * aplicado por cima de um recálculo que já contou a avaliação
+ */
+class RatingAggregateRepairJobTest {
+
+    private static final long SERVICE_ID = 1L;
+    private static final long PROVIDER_ID = 10L;
+
+    private final ServiceRepository serviceRepository = mock(ServiceRepository.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final SearchResultCache searchResultCache = mock(SearchResultCache.class);
+    private final SuggestionTrie suggestionTrie = mock(SuggestionTrie.class);
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    private RatingAggregator aggregator;
+    private RatingAggregateRepairJob repairJob;
+
+    @BeforeEach
+    void setUp() {
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+
+        aggregator = new RatingAggregator();
+        ReflectionTestUtils.setField(aggregator, "serviceRepository", serviceRepository);
+        ReflectionTestUtils.setField(aggregator, "userRepository", userRepository);
+        ReflectionTestUtils.setField(aggregator, "transactionManager", transactionManager);
+        ReflectionTestUtils.setField(aggregator, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(aggregator, "cacheEvictor", mock(EntityCacheEvictor.class));
+        ReflectionTestUtils.setField(aggregator, "searchResultCache", searchResultCache);
+        ReflectionTestUtils.setField(aggregator, "suggestionTrie", suggestionTrie);
+        aggregator.init();
+
+        repairJob = new RatingAggregateRepairJob();
+        ReflectionTestUtils.setField(repairJob, "serviceRepository", serviceRepository);
+        ReflectionTestUtils.setField(repairJob, "userRepository", userRepository);
+        ReflectionTestUtils.setField(repairJob, "ratingAggregator", aggregator);
+        ReflectionTestUtils.setField(repairJob, "transactionManager", transactionManager);
+        ReflectionTestUtils.setField(repairJob, "searchResultCache", searchResultCache);
+        ReflectionTestUtils.setField(repairJob, "suggestionTrie", suggestionTrie);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void repairWaitsForInFlightReviewAndAppliesItsDeltaBeforeRecomputing() throws Exception {
+        CountDownLatch recorded = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        Future<?> review = executor.submit(() -> inTransaction(() -> {
+            aggregator.record(SERVICE_ID, PROVIDER_ID, 5, 0);
+            recorded.countDown();
+            await(commit);
+        }));
+        assertThat(recorded.await(5, TimeUnit.SECONDS)).isTrue();
+
+        Future<?> repair = executor.submit(repairJob::repair);
+
+        // A avaliação ainda não commitou: o reparo não pode recalcular agora
+        verify(serviceRepository, after(300).never()).recomputeAggregates();
+        assertThat(repair.isDone()).isFalse();
+
+        commit.countDown();
+        review.get(5, TimeUnit.SECONDS);
+        repair.get(5, TimeUnit.SECONDS);
+
+        InOrder order = inOrder(serviceRepository);
+        order.verify(serviceRepository).applyRatingDelta(SERVICE_ID, 5, 1, 0, 0, 0, 0, 1);
+        order.verify(serviceRepository).recomputeAggregates();
+        // Páginas de busca com a nota antiga não podem continuar no cache
+        verify(searchResultCache).invalidateServices(Set.of(SERVICE_ID));
+        // ... nem sugestões pesadas pela nota antiga
+        verify(serviceRepository).findReputationsByIdIn(Set.of(SERVICE_ID));
+        verify(suggestionTrie).reweight(any());
+
+        // O recálculo já contou a avaliação: o próximo flush não pode aplicá-la de novo
+        aggregator.flush();
+        verify(serviceRepository, times(1)).applyRatingDelta(anyLong(), anyInt(), anyInt(),
+                anyInt(), anyInt(), anyInt(), anyInt(), anyInt());
+        assertThat(aggregator.queueDepth()).isZero();
+    }
+
+    @Test
+    void reviewStartedDuringRepairIsHeldAndAppliedAfterRecompute() throws Exception {
+        CountDownLatch recomputing = new CountDownLatch(1);
+        CountDownLatch finishRecompute = new CountDownLatch(1);
+        when(serviceRepository.recomputeAggregates()).thenAnswer(invocation -> {
+            recomputing.countDown();
+            await(finishRecompute);
+            return 0;
+        });
+
+        Future<?> repair = executor.submit(repairJob::repair);
+        assertThat(recomputing.await(5, TimeUnit.SECONDS)).isTrue();
+
+        AtomicBoolean recordReturned = new AtomicBoolean();
+        Future<?> review = executor.submit(() -> inTransaction(() -> {
+            aggregator.record(SERVICE_ID, PROVIDER_ID, 4, 0);
+            recordReturned.set(true);
+        }));
+
+        // A transação espera o fim do reparo antes de escrever qualquer coisa
+        Thread.sleep(300);
+        assertThat(recordReturned).isFalse();
+
+        finishRecompute.countDown();
+        repair.get(5, TimeUnit.SECONDS);
+        review.get(5, TimeUnit.SECONDS);
+        assertThat(recordReturned).isTrue();
+
+        // Não estava no recálculo, então o delta é aplicado depois dele
+        aggregator.flush();
+        InOrder order = inOrder(serviceRepository);
+        order.verify(serviceRepository).recomputeAggregates();
+        order.verify(serviceRepository).applyRatingDelta(SERVICE_ID, 4, 1, 0, 0, 0, 1, 0);
+    }
+
+    /**
+     * Simula uma transação Spring nesta thread: corpo, depois afterCommit e afterCompletion
+     */
+    private static void inTransaction(Runnable body) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            body.run();
+            var synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+            synchronizations.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            if (!latch.await(5, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Tempo esgotado");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.conectabairro.service;
+
+import com.conectabairro.MySqlIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * O histograma é aplicado em segundo plano; se deltas se perdem (queda do processo, escrita direta
+ * no banco), o reparo diário o recalcula a partir de reviews, no serviço e no provedor
+ */
+class RatingHistogramRepairTest extends MySqlIntegrationTest {
+
+    private static final Map<Integer, Integer> EXPECTED = Map.of(1, 0, 2, 1, 3, 0, 4, 0, 5, 2);
+
+    @Autowired
+    private RatingAggregateRepairJob repairJob;
+
+    @Autowired
+    private ServiceService serviceService;
+
+    @Autowired
+    private UserService userService;
+
+    private long serviceId;
+    private long providerId;
+
+    @BeforeEach
+    void seed() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        providerId = insertUser("provedor-" + suffix, "SERVICE_PROVIDER");
+        long customerId = insertUser("cliente-" + suffix, "CUSTOMER");
+        jdbcTemplate.update("INSERT INTO services (title, description, category, price, location, provider_id) " +
+                "VALUES ('Serviço', 'Descrição', 'reparo', 50, 'Centro', ?)", providerId);
+        serviceId = jdbcTemplate.queryForObject("SELECT LAST_INSERT_ID()", Long.class);
+
+        // Avaliações gravadas direto no banco: nenhum delta passa pelo RatingAggregator
+        for (int rating : new int[] {5, 5, 2}) {
+            jdbcTemplate.update("INSERT INTO service_requests (status, customer_id, service_id, provider_id) " +
+                    "VALUES ('COMPLETED', ?, ?, ?)", customerId, serviceId, providerId);
+            long requestId = jdbcTemplate.queryForObject("SELECT LAST_INSERT_ID()", Long.class);
+            jdbcTemplate.update("INSERT INTO reviews (rating, comment, reviewer_id, service_id, request_id) " +
+                    "VALUES (?, 'Comentário', ?, ?, ?)", rating, customerId, serviceId, requestId);
+        }
+        // Um histograma divergente que não é só "vazio"
+        jdbcTemplate.update("UPDATE services SET stars_1 = 4 WHERE id = ?", serviceId);
+    }
+
+    @Test
+    void repairRecomputesServiceAndProviderHistograms() {
+        assertThat(serviceService.getServiceById(serviceId).getRatingHistogram()).isNotEqualTo(EXPECTED);
+
+        repairJob.repair();
+
+        assertThat(serviceService.getServiceById(serviceId).getRatingHistogram()).isEqualTo(EXPECTED);
+        assertThat(serviceService.getServiceById(serviceId).getTotalReviews()).isEqualTo(3);
+        assertThat(userService.getUserById(providerId).getRatingHistogram()).isEqualTo(EXPECTED);
+    }
+
+    private long insertUser(String name, String type) {
+        jdbcTemplate.update("INSERT INTO users (name, email, password, phone, user_type) " +
+                "VALUES (?, ?, 'x', '11912345678', ?)", name, name + "@example.com", type);
+        return jdbcTemplate.queryForObject("SELECT LAST_INSERT_ID()", Long.class);
+    }
+}
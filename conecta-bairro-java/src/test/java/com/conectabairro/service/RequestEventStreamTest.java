@@ -0,0 +1,48 @@
+package com.conectabairro.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestEventStreamTest {
+
+    private RequestEventStream stream;
+
+    @BeforeEach
+    void setUp() {
+        stream = new RequestEventStream();
+        ReflectionTestUtils.setField(stream, "timeoutMs", 1_800_000L);
+        ReflectionTestUtils.setField(stream, "heartbeatMs", 25_000L);
+        ReflectionTestUtils.setField(stream, "replaySize", 100);
+        ReflectionTestUtils.setField(stream, "replayTtlSeconds", 600L);
+        ReflectionTestUtils.setField(stream, "maxConnectionsPerUser", 5);
+        ReflectionTestUtils.setField(stream, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(stream, "objectMapper", new ObjectMapper());
+        stream.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        stream.shutdown();
+    }
+
+    @Test
+    void connectionClosesWhenSessionTokenExpires() throws InterruptedException {
+        stream.subscribe(1L, null, System.currentTimeMillis() + 300);
+        stream.subscribe(2L, null, System.currentTimeMillis() + 60_000);
+        assertThat(stream.connectionCount()).isEqualTo(2);
+
+        // Bem antes do heartbeat de 25 s e do timeout de 30 min
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (stream.connectionCount() > 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+
+        assertThat(stream.connectionCount()).isEqualTo(1);
+    }
+}
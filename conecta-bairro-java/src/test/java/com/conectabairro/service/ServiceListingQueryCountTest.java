@@ -0,0 +1,122 @@
+package com.conectabairro.service;
+
+import com.conectabairro.MySqlIntegrationTest;
+import com.conectabairro.dto.CursorPage;
+import com.conectabairro.dto.ServiceDto;
+import com.conectabairro.dto.ServiceFilter;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Cada página de listagem carrega os provedores no mesmo SELECT: uma consulta pelos dados (mais o
+ * COUNT(*) nas páginas por offset), independentemente de quantos provedores distintos aparecem.
+ * Páginas de 50, o tamanho usado pelo app, com um provedor diferente em cada linha
+ */
+class ServiceListingQueryCountTest extends MySqlIntegrationTest {
+
+    private static final int PAGE_SIZE = 50;
+
+    @Autowired
+    private ServiceService serviceService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private String category;
+    private String location;
+
+    @BeforeEach
+    void seed() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        category = "categoria-" + suffix;
+        location = "local-" + suffix;
+        // Um provedor por serviço: sem o fetch do provedor seriam 1 + PAGE_SIZE consultas por página
+        for (int i = 0; i < PAGE_SIZE * 2; i++) {
+            String name = "provedor-" + i + "-" + suffix;
+            jdbcTemplate.update("INSERT INTO users (name, email, password, phone, user_type) " +
+                    "VALUES (?, ?, 'x', '11912345678', 'SERVICE_PROVIDER')", name, name + "@example.com");
+            long providerId = jdbcTemplate.queryForObject("SELECT LAST_INSERT_ID()", Long.class);
+            jdbcTemplate.update("INSERT INTO services (title, description, category, price, location, provider_id) " +
+                    "VALUES ('Serviço', 'Descrição', ?, ?, ?, ?)", category, 50 + i, location, providerId);
+        }
+    }
+
+    @Test
+    void offsetListingRunsSelectAndCount() {
+        Page<ServiceDto> page = countQueries(2, () -> serviceService.getAllServices(PageRequest.of(0, PAGE_SIZE)));
+
+        assertThat(page.getContent()).hasSize(PAGE_SIZE).allSatisfy(dto -> assertThat(dto.getProviderName()).isNotNull());
+    }
+
+    @Test
+    void filterListingRunsSelectAndCount() {
+        ServiceFilter filter = ServiceFilter.builder()
+                .category(category)
+                .location(location)
+                .sort(ServiceFilter.SortKey.PRICE)
+                .build();
+
+        Page<ServiceDto> page = countQueries(2, () -> serviceService.filterServices(filter, 0, PAGE_SIZE));
+
+        assertThat(page.getContent()).hasSize(PAGE_SIZE).allSatisfy(dto -> assertThat(dto.getProviderName()).isNotNull());
+    }
+
+    @Test
+    void categoryListingRunsSelectAndCount() {
+        Page<ServiceDto> page = countQueries(2, () -> serviceService.getServicesByCategory(category, PageRequest.of(0, PAGE_SIZE)));
+
+        assertThat(page.getContent()).hasSize(PAGE_SIZE).allSatisfy(dto -> assertThat(dto.getProviderName()).isNotNull());
+    }
+
+    @Test
+    void locationListingRunsSelectAndCount() {
+        Page<ServiceDto> page = countQueries(2, () -> serviceService.getServicesByLocation(location, PageRequest.of(0, PAGE_SIZE)));
+
+        assertThat(page.getContent()).hasSize(PAGE_SIZE).allSatisfy(dto -> assertThat(dto.getProviderName()).isNotNull());
+    }
+
+    @Test
+    void rankingCursorListingRunsSingleSelect() {
+        CursorPage<ServiceDto> first = countQueries(1, () -> serviceService.getAllServices(null, PAGE_SIZE));
+
+        assertThat(first.getContent()).hasSize(PAGE_SIZE).allSatisfy(dto -> assertThat(dto.getProviderName()).isNotNull());
+    }
+
+    @Test
+    void cursorListingRunsSingleSelect() {
+        CursorPage<ServiceDto> first = countQueries(1, () -> serviceService.getServicesByCategory(category, null, PAGE_SIZE));
+        CursorPage<ServiceDto> second = countQueries(1, () -> serviceService.getServicesByCategory(category, first.getNextCursor(), PAGE_SIZE));
+
+        assertThat(first.getContent()).hasSize(PAGE_SIZE);
+        assertThat(second.getContent()).hasSize(PAGE_SIZE).allSatisfy(dto -> assertThat(dto.getProviderName()).isNotNull());
+    }
+
+    /**
+     * Executa a listagem com o cache de segundo nível vazio (provedores em cache esconderiam o 1 + N)
+     * e verifica quantos comandos foram enviados ao banco
+     */
+    private <T> T countQueries(long expected, Supplier<T> listing) {
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+
+        T result = listing.get();
+
+        assertThat(statistics.getPrepareStatementCount())
+                .as("consultas: %s", String.join(" | ", statistics.getQueries()))
+                .isEqualTo(expected);
+        return result;
+    }
+}
@@ -0,0 +1,69 @@
+package com.conectabairro.service;
+
+import com.conectabairro.MySqlIntegrationTest;
+import com.conectabairro.dto.CursorPage;
+import com.conectabairro.dto.ServiceDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * GET /api/services devolve a mesma ordem "melhores primeiro" por offset e por cursor, inclusive
+ * entre serviços empatados no ranking_score, e o cursor segue o índice idx_ranking
+ */
+class ServiceRankingCursorTest extends MySqlIntegrationTest {
+
+    private static final int PAGE_SIZE = 7;
+    private static final int PAGES = 4;
+
+    @Autowired
+    private ServiceService serviceService;
+
+    @BeforeEach
+    void seed() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        jdbcTemplate.update("INSERT INTO users (name, email, password, phone, user_type) " +
+                "VALUES (?, ?, 'x', '11912345678', 'SERVICE_PROVIDER')", "provedor-" + suffix, "provedor-" + suffix + "@example.com");
+        long providerId = jdbcTemplate.queryForObject("SELECT LAST_INSERT_ID()", Long.class);
+        // Pontuações acima de qualquer serviço real, com muitos empates para exercitar o desempate por id
+        for (int i = 0; i < PAGE_SIZE * PAGES; i++) {
+            jdbcTemplate.update("INSERT INTO services (title, description, category, price, location, provider_id, ranking_score) " +
+                    "VALUES ('Serviço', 'Descrição', 'ranking', 50, 'Centro', ?, ?)", providerId, 100000 + (i % 3) + 0.125);
+        }
+    }
+
+    @Test
+    void cursorPagesFollowOffsetOrder() {
+        List<Long> byOffset = new ArrayList<>();
+        List<Long> byCursor = new ArrayList<>();
+        String after = "";
+        for (int page = 0; page < PAGES; page++) {
+            serviceService.getAllServices(PageRequest.of(page, PAGE_SIZE)).forEach(dto -> byOffset.add(dto.getId()));
+            CursorPage<ServiceDto> cursorPage = serviceService.getAllServices(after, PAGE_SIZE);
+            cursorPage.getContent().forEach(dto -> byCursor.add(dto.getId()));
+            after = cursorPage.getNextCursor();
+        }
+
+        assertThat(byCursor).hasSize(PAGE_SIZE * PAGES).doesNotHaveDuplicates().isEqualTo(byOffset);
+    }
+
+    @Test
+    void cursorQueryUsesRankingIndex() {
+        // Mesma forma do SQL gerado para ServiceRepository.findRankedPageBefore
+        List<Map<String, Object>> plan = explain("SELECT * FROM services s JOIN users p ON p.id = s.provider_id " +
+                "WHERE s.ranking_score < ? OR (s.ranking_score = ? AND s.id < ?) " +
+                "ORDER BY s.ranking_score DESC, s.id DESC LIMIT 8", 100001.125, 100001.125, Long.MAX_VALUE);
+
+        Map<String, Object> services = plan.stream().filter(row -> "s".equals(row.get("table"))).findFirst().orElseThrow();
+        assertThat(services.get("key")).isEqualTo("idx_ranking");
+        assertThat(String.valueOf(services.get("Extra"))).doesNotContain("filesort");
+    }
+}
@@ -0,0 +1,28 @@
+package com.conectabairro.service;
+
+import com.conectabairro.exception.ServiceUnavailableException;
+import com.conectabairro.search.ServiceSearchIndex;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Buscas que só existem no índice em memória respondem 503 com Retry-After enquanto ele é construído
+ */
+class ServiceServiceSearchTest {
+
+    @Test
+    void indexOnlySearchesAreUnavailableUntilIndexIsReady() {
+        ServiceService serviceService = new ServiceService();
+        ReflectionTestUtils.setField(serviceService, "searchIndex", new ServiceSearchIndex());
+
+        assertThatThrownBy(() -> serviceService.facetedSearch("pintor", null, null, null, PageRequest.of(0, 10)))
+                .isInstanceOfSatisfying(ServiceUnavailableException.class,
+                        e -> assertThat(e.getRetryAfterSeconds()).isPositive());
+        assertThatThrownBy(() -> serviceService.fuzzySearch("pintr", PageRequest.of(0, 10)))
+                .isInstanceOf(ServiceUnavailableException.class);
+    }
+}
@@ -9,3 +9,8 @@ export async function getServiceById(id) {
   const res = await api.get(`/services/${id}`);
   return res.data;
 }
+
+export async function suggestServices(prefix, limit = 5) {
+  const res = await api.get('/services/suggest', { params: { prefix, limit } });
+  return res.data;
+}